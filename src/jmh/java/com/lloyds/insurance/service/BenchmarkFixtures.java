@@ -0,0 +1,184 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the calculation services outside Spring so benchmarks measure the engines alone,
+ * without proxies or caches, and generates representative quote requests.
+ */
+final class BenchmarkFixtures {
+
+    // Benchmarks run with the same instrumentation as production
+    private static final MeterRegistry METER_REGISTRY = new SimpleMeterRegistry();
+
+    private BenchmarkFixtures() {
+    }
+
+    static UKDataService ukDataService() {
+        UKDataService service = new UKDataService();
+        ReflectionTestUtils.setField(service, "meterRegistry", METER_REGISTRY);
+        service.start();
+        return service;
+    }
+
+    static CalculationMetrics calculationMetrics() {
+        return new CalculationMetrics(METER_REGISTRY);
+    }
+
+    static AnnuityCalculator annuityCalculator() {
+        AnnuityCalculator calculator = new AnnuityCalculator();
+        calculator.init();
+        return calculator;
+    }
+
+    static InsuranceCalculationService legacyService() {
+        InsuranceCalculationService service = new InsuranceCalculationService();
+        ReflectionTestUtils.setField(service, "ukDataService", ukDataService());
+        ReflectionTestUtils.setField(service, "annuityCalculator", annuityCalculator());
+        ReflectionTestUtils.setField(service, "calculationMetrics", calculationMetrics());
+        return service;
+    }
+
+    static InsuranceCalculationService legacyServiceWithQuoteGrid() {
+        InsuranceCalculationService service = legacyService();
+        ReflectionTestUtils.setField(service, "quoteGridEnabled", true);
+        service.rebuildQuoteGrid();
+        return service;
+    }
+
+    static CalculationConfigService calculationConfigService() {
+        CalculationConfigService service = new CalculationConfigService();
+        ReflectionTestUtils.setField(service, "calculationConfig", calculationConfig());
+        ReflectionTestUtils.setField(service, "annuityCalculator", annuityCalculator());
+        ReflectionTestUtils.setField(service, "meterRegistry", METER_REGISTRY);
+        try {
+            service.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return service;
+    }
+
+    static ConfigurableCalculationService configurableService() {
+        return configurableService(calculationConfigService());
+    }
+
+    static ConfigurableCalculationService configurableService(CalculationConfigService configService) {
+        ConfigurableCalculationService service = new ConfigurableCalculationService();
+        ReflectionTestUtils.setField(service, "calculationConfigService", configService);
+        ReflectionTestUtils.setField(service, "ukDataService", ukDataService());
+        ReflectionTestUtils.setField(service, "annuityCalculator", (AnnuityCalculator) ReflectionTestUtils.getField(configService, "annuityCalculator"));
+        ReflectionTestUtils.setField(service, "calculationMetrics", calculationMetrics());
+        ReflectionTestUtils.setField(service, "mortalityTableService", mortalityTableService());
+        return service;
+    }
+
+    static PortfolioRepricer portfolioRepricer() {
+        CalculationConfigService configService = calculationConfigService();
+        PortfolioRepricer repricer = new PortfolioRepricer();
+        ReflectionTestUtils.setField(repricer, "calculationConfigService", configService);
+        ReflectionTestUtils.setField(repricer, "annuityCalculator", (AnnuityCalculator) ReflectionTestUtils.getField(configService, "annuityCalculator"));
+        ReflectionTestUtils.setField(repricer, "mortalityTableService", mortalityTableService());
+        return repricer;
+    }
+
+    static MortalityTableService mortalityTableService() {
+        MortalityTableService service = new MortalityTableService();
+        ReflectionTestUtils.setField(service, "interestRate", 0.03);
+        try {
+            service.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return service;
+    }
+
+    static RequestValidator requestValidator() {
+        RequestValidator validator = new RequestValidator();
+        ReflectionTestUtils.setField(validator, "calculationConfigService", calculationConfigService());
+        return validator;
+    }
+
+    static CalculationConfig calculationConfig() {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("calculation-config", new ClassPathResource("calculation-config.yml"));
+            Map<String, CalculationConfig.CalculationType> calculations = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("calculations", Bindable.mapOf(String.class, CalculationConfig.CalculationType.class))
+                .get();
+            CalculationConfig config = new CalculationConfig();
+            config.setCalculations(calculations);
+            return config;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static ObjectMapper objectMapper() {
+        return objectMapper(new JsonFactory(), true);
+    }
+
+    static ObjectMapper objectMapper(JsonFactory factory, boolean blackbird) {
+        // Mirrors spring.jackson.* in application.yml and the modules in JacksonConfig
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+            .factory(factory)
+            .serializationInclusion(JsonInclude.Include.NON_NULL);
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generate requests for one age band ("18-30", "31-50", "51-80"), smoking status and
+     * coverage period. Incomes, expenses, debts and dependents vary with a fixed seed so
+     * runs are reproducible but the JIT cannot constant-fold the inputs.
+     */
+    static InsuranceCalculationRequest[] requests(String ageBand, String smoking, String coveragePeriod, int count) {
+        String[] bounds = ageBand.split("-");
+        int minAge = Integer.parseInt(bounds[0]);
+        int maxAge = Integer.parseInt(bounds[1]);
+
+        SplittableRandom random = new SplittableRandom(42);
+        InsuranceCalculationRequest[] requests = new InsuranceCalculationRequest[count];
+        for (int i = 0; i < count; i++) {
+            InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+            request.setAge(random.nextInt(minAge, maxAge + 1));
+            request.setGender(random.nextBoolean() ? "male" : "female");
+            request.setSmoking(smoking);
+            request.setAnnualIncome((double) random.nextInt(18_000, 250_000));
+            request.setMonthlyExpenses((double) random.nextInt(800, 8_000));
+            request.setExistingCoverage((double) (random.nextInt(0, 5) * 50_000));
+            request.setSavings((double) random.nextInt(0, 120_000));
+            request.setTotalDebts((double) random.nextInt(0, 450_000));
+            request.setFuneralCosts(4000.0);
+            request.setDependents(random.nextInt(0, 5));
+            request.setEducationFund((double) (random.nextInt(0, 4) * 10_000));
+            request.setCoveragePeriod(coveragePeriod);
+            request.setInflationProtection(random.nextBoolean() ? "yes" : "no");
+            requests[i] = request;
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,163 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse.CalculationMethod;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse.PremiumEstimate;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse.Recommendation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of both calculation engines, end to end and per stage.
+ *
+ * Run with the GC profiler for allocation per operation:
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="CalculationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class CalculationBenchmark {
+
+    private static final int REQUEST_POOL = 1024;
+
+    @Param({"18-30", "31-50", "51-80"})
+    public String ageBand;
+
+    @Param({"non-smoker", "smoker"})
+    public String smoking;
+
+    @Param({"20", "whole"})
+    public String coveragePeriod;
+
+    private InsuranceCalculationService legacy;
+    private InsuranceCalculationService legacyWithGrid;
+    private ConfigurableCalculationService configurable;
+    private CalculationConfigSnapshot config;
+    private ObjectMapper objectMapper;
+
+    private InsuranceCalculationRequest[] requests;
+    private Map<String, CalculationMethod>[] legacyCalculations;
+    private InsuranceCalculationResponse[] legacyResponses;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        legacy = BenchmarkFixtures.legacyService();
+        legacyWithGrid = BenchmarkFixtures.legacyServiceWithQuoteGrid();
+        CalculationConfigService configService = BenchmarkFixtures.calculationConfigService();
+        configurable = BenchmarkFixtures.configurableService(configService);
+        config = configService.getSnapshot();
+        objectMapper = BenchmarkFixtures.objectMapper();
+
+        requests = BenchmarkFixtures.requests(ageBand, smoking, coveragePeriod, REQUEST_POOL);
+        legacyCalculations = new Map[REQUEST_POOL];
+        legacyResponses = new InsuranceCalculationResponse[REQUEST_POOL];
+        for (int i = 0; i < REQUEST_POOL; i++) {
+            legacyCalculations[i] = legacy.performCalculations(requests[i], DetailLevel.FULL);
+            legacyResponses[i] = legacy.calculateInsurance(requests[i]);
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (REQUEST_POOL - 1);
+        return index;
+    }
+
+    // Full calculate path
+
+    @Benchmark
+    public InsuranceCalculationResponse legacyCalculateInsurance() {
+        return legacy.calculateInsurance(requests[nextIndex()]);
+    }
+
+    @Benchmark
+    public InsuranceCalculationResponse configurableCalculateInsurance() {
+        return configurable.calculateInsurance(requests[nextIndex()]);
+    }
+
+    // Individual stages of the legacy engine
+
+    @Benchmark
+    public Map<String, CalculationMethod> legacyPerformCalculations() {
+        return legacy.performCalculations(requests[nextIndex()], DetailLevel.FULL);
+    }
+
+    @Benchmark
+    public PremiumEstimate legacyEstimatePremium() {
+        int i = nextIndex();
+        return legacy.estimatePremium(legacyResponses[i].getRecommendedCoverage(), requests[i], DetailLevel.FULL);
+    }
+
+    @Benchmark
+    public PremiumEstimate legacyEstimatePremiumFromGrid() {
+        int i = nextIndex();
+        return legacyWithGrid.estimatePremium(legacyResponses[i].getRecommendedCoverage(), requests[i], DetailLevel.NONE);
+    }
+
+    @Benchmark
+    public List<Recommendation> legacyGenerateRecommendations() {
+        int i = nextIndex();
+        return legacy.generateRecommendations(legacyCalculations[i], requests[i], DetailLevel.FULL);
+    }
+
+    @Benchmark
+    public double legacyCalculatePresentValue() {
+        InsuranceCalculationRequest request = requests[nextIndex()];
+        return legacy.calculatePresentValue(request.getAnnualIncome(), 65 - request.getAge(), 0.03);
+    }
+
+    // Individual stages of the configurable engine
+
+    @Benchmark
+    public Map<String, CalculationMethod> configurablePerformCalculations() {
+        return configurable.performCalculations(requests[nextIndex()], config, DetailLevel.FULL);
+    }
+
+    @Benchmark
+    public PremiumEstimate configurableEstimatePremium() {
+        int i = nextIndex();
+        return configurable.estimatePremium(legacyResponses[i].getRecommendedCoverage(), requests[i], config, DetailLevel.FULL);
+    }
+
+    @Benchmark
+    public double configurableCalculatePresentValue() {
+        InsuranceCalculationRequest request = requests[nextIndex()];
+        return configurable.calculatePresentValue(request.getAnnualIncome(), 65 - request.getAge(), 0.03);
+    }
+
+    // Quote and serialise at each detail level; explanation text is only rendered when serialised
+
+    @Benchmark
+    public byte[] legacyQuoteDetailNone() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacy.calculateInsurance(requests[nextIndex()], DetailLevel.NONE));
+    }
+
+    @Benchmark
+    public byte[] legacyQuoteDetailSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacy.calculateInsurance(requests[nextIndex()], DetailLevel.SUMMARY));
+    }
+
+    @Benchmark
+    public byte[] legacyQuoteDetailFull() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacy.calculateInsurance(requests[nextIndex()], DetailLevel.FULL));
+    }
+
+    // JSON serialisation of the response
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacyResponses[nextIndex()]);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The four method amounts of one quote from the compiled config formulas against the same
+ * arithmetic written in Java, as the configurable engine did before formulas were compiled.
+ * Both include the rate-table lookups.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="FormulaBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FormulaBenchmark {
+
+    private static final int REQUEST_POOL = 1024;
+
+    private CalculationConfigSnapshot snapshot;
+    private AnnuityCalculator annuityCalculator;
+    private InsuranceCalculationRequest[] requests;
+    private int methods;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        snapshot = BenchmarkFixtures.calculationConfigService().getSnapshot();
+        annuityCalculator = BenchmarkFixtures.annuityCalculator();
+        requests = BenchmarkFixtures.requests("18-80", "non-smoker", "20", REQUEST_POOL);
+        methods = snapshot.getInsurance().getMethods().size();
+    }
+
+    private InsuranceCalculationRequest nextRequest() {
+        return requests[next++ & (REQUEST_POOL - 1)];
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        double[] variables = snapshot.bindVariables(nextRequest());
+        for (int i = 0; i < methods; i++) {
+            blackhole.consume(snapshot.getFormula(i).evaluate(variables));
+        }
+    }
+
+    @Benchmark
+    public void handWritten(Blackhole blackhole) {
+        InsuranceCalculationRequest data = nextRequest();
+        RateTables tables = snapshot.getRateTables();
+        int period = RateTables.periodIndex(data.getCoveragePeriod());
+
+        blackhole.consume(data.getAnnualIncome() * tables.incomeMultiplier(data.getAge(), data.getDependents(), period));
+
+        double otherDebts = data.getTotalDebts() * Formula.OTHER_DEBTS_SHARE;
+        double incomeNeeds = data.getAnnualIncome() * tables.dimeIncomeYears(period);
+        blackhole.consume(otherDebts + incomeNeeds + data.getTotalDebts() * Formula.MORTGAGE_SHARE + data.getEducationFund());
+
+        int yearsOfSupport = Math.min(tables.needsAgeYears(data.getAge()), tables.needsDependentsYears(data.getDependents()));
+        blackhole.consume(data.getMonthlyExpenses() * 12 * yearsOfSupport + data.getFuneralCosts()
+            + otherDebts - data.getSavings());
+
+        blackhole.consume((double) Math.round(annuityCalculator.presentValue(data.getAnnualIncome(),
+            tables.workingYears(data.getAge(), period), tables.discountRate())));
+    }
+}
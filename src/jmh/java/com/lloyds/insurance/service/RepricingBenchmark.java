@@ -0,0 +1,52 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repricing a book of policies one request at a time against the columnar repricer.
+ * Scores are per book; divide by bookSize for the cost per policy.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="RepricingBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RepricingBenchmark {
+
+    @Param({"100000"})
+    public int bookSize;
+
+    private ConfigurableCalculationService configurable;
+    private PortfolioRepricer repricer;
+    private InsuranceCalculationRequest[] requests;
+    private PortfolioRepricer.Book book;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        configurable = BenchmarkFixtures.configurableService();
+        repricer = BenchmarkFixtures.portfolioRepricer();
+        requests = BenchmarkFixtures.requests("18-80", "non-smoker", "20", bookSize);
+        book = PortfolioRepricer.Book.of(Arrays.asList(requests));
+    }
+
+    @Benchmark
+    public void perRequest(Blackhole blackhole) {
+        for (InsuranceCalculationRequest request : requests) {
+            blackhole.consume(configurable.calculateInsurance(request, DetailLevel.NONE));
+        }
+    }
+
+    @Benchmark
+    public PortfolioRepricer.Result columnar() {
+        return repricer.reprice(book);
+    }
+}
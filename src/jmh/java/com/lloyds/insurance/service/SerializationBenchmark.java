@@ -0,0 +1,107 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a quote response and reading a quote request in each wire format: JSON with
+ * Jackson's reflective property access ("json-reflective"), and JSON, CBOR and Smile with
+ * Blackbird as the application is configured. writeResponse also reports the average encoded
+ * response size as the bytesPerResponse counter; run with -prof gc for bytes allocated.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="SerializationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final int REQUEST_POOL = 256;
+
+    @Param({"json-reflective", "json", "cbor", "smile"})
+    public String format;
+
+    @Param({"NONE", "FULL"})
+    public DetailLevel detail;
+
+    private ObjectMapper mapper;
+    private InsuranceCalculationResponse[] responses;
+    private byte[][] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = mapper(format);
+        InsuranceCalculationService legacy = BenchmarkFixtures.legacyService();
+        InsuranceCalculationRequest[] pool = BenchmarkFixtures.requests("31-50", "non-smoker", "20", REQUEST_POOL);
+        responses = new InsuranceCalculationResponse[REQUEST_POOL];
+        requests = new byte[REQUEST_POOL][];
+        for (int i = 0; i < REQUEST_POOL; i++) {
+            responses[i] = legacy.calculateInsurance(pool[i], detail);
+            // Renders the lazy explanations, so every iteration serialises finished text
+            mapper.writeValueAsBytes(responses[i]);
+            requests[i] = mapper.writeValueAsBytes(pool[i]);
+        }
+    }
+
+    /**
+     * Encoded size of the responses written in one iteration, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        private long bytes;
+        private long responses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            responses = 0;
+        }
+
+        public double bytesPerResponse() {
+            return responses == 0 ? 0 : (double) bytes / responses;
+        }
+    }
+
+    private static ObjectMapper mapper(String format) {
+        switch (format) {
+            case "json-reflective": return BenchmarkFixtures.objectMapper(new JsonFactory(), false);
+            case "json": return BenchmarkFixtures.objectMapper(new JsonFactory(), true);
+            case "cbor": return BenchmarkFixtures.objectMapper(new CBORFactory(), true);
+            case "smile": return BenchmarkFixtures.objectMapper(new SmileFactory(), true);
+            default: throw new IllegalArgumentException(format);
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (REQUEST_POOL - 1);
+        return index;
+    }
+
+    @Benchmark
+    public byte[] writeResponse(EncodedSize size) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(responses[nextIndex()]);
+        size.bytes += encoded.length;
+        size.responses++;
+        return encoded;
+    }
+
+    @Benchmark
+    public InsuranceCalculationRequest readRequest() throws IOException {
+        return mapper.readValue(requests[nextIndex()], InsuranceCalculationRequest.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating one quote request with the compiled config rules against Bean Validation
+ * over the request annotations, for a valid request and one that breaks several rules.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="ValidationBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private RequestValidator compiled;
+    private ValidatorFactory factory;
+    private Validator beanValidator;
+    private InsuranceCalculationRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        compiled = BenchmarkFixtures.requestValidator();
+        factory = Validation.buildDefaultValidatorFactory();
+        beanValidator = factory.getValidator();
+        request = BenchmarkFixtures.requests("18-80", "non-smoker", "20", 1)[0];
+        if (!valid) {
+            request.setAge(95);
+            request.setGender("other");
+            request.setMonthlyExpenses(null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public Object compiled() {
+        return compiled.validate(request);
+    }
+
+    @Benchmark
+    public Object beanValidation() {
+        return beanValidator.validate(request);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lloyds.insurance;
+
+import com.lloyds.insurance.service.RepricingJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Offline repricing from the command line, without the web server:
+ *
+ *   java -jar insurance-calculator.jar --spring.profiles.active=repricing --input=book.csv --output=repriced.csv
+ *
+ * Running the same command again after a failure resumes from the last checkpoint.
+ */
+@Component
+@Profile("repricing")
+public class RepricingRunner implements ApplicationRunner {
+
+    @Autowired
+    private RepricingJob repricingJob;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        repricingJob.run(path(args, "input"), path(args, "output"));
+    }
+
+    private static Path path(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.size() != 1 || values.get(0).isBlank()) {
+            throw new IllegalArgumentException("Repricing needs --input=<extract.csv> and --output=<results.csv>");
+        }
+        return Paths.get(values.get(0));
+    }
+}
@@ -1,22 +1,76 @@
 package com.lloyds.insurance.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.service.CalculationConfigService;
+import com.lloyds.insurance.service.CalculationConfigSnapshot;
+import com.lloyds.insurance.service.MortalityTableService;
+import com.lloyds.insurance.service.QuoteKey;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bounded, expiring caches. Every cache has a maximum size (Caffeine's W-TinyLFU eviction)
+ * and a time-to-live, and records hit/miss/eviction statistics which Actuator publishes
+ * as cache.* metrics.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    // Used when calculations.insurance.performance.cacheTTL is not set
+    private static final long DEFAULT_CALCULATION_TTL_SECONDS = 3600;
+
+    // Calculation results, expiring on calculations.insurance.performance.cacheTTL
+    @Value("${insurance.cache.calculations.max-size:10000}")
+    private long calculationsMaxSize;
+
+    @Bean
+    public CacheManager cacheManager(CalculationConfig calculationConfig) {
+        CalculationConfig.PerformanceConfig performance = calculationConfig.getCalculations().get("insurance").getPerformance();
+        boolean calculationCacheEnabled = performance == null || !Boolean.FALSE.equals(performance.getCacheEnabled());
+        long calculationTtlSeconds = performance != null && performance.getCacheTTL() != null
+            ? performance.getCacheTTL() : DEFAULT_CALCULATION_TTL_SECONDS;
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered below exist; a typo in @Cacheable fails fast
+        cacheManager.setCacheNames(List.of());
+
+        // UK market data is not cached here; UKDataService refreshes it in the background
+        cacheManager.registerCustomCache("insuranceCalculations",
+            boundedCache(calculationCacheEnabled ? calculationsMaxSize : 0, Duration.ofSeconds(calculationTtlSeconds)));
+        return cacheManager;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> boundedCache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Keys quote results by the canonical request value, detail level and current config
+     * and mortality tables versions rather than object identity.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-            "ukBaseRate", 
-            "ukInflationRate", 
-            "abiMarketData", 
-            "mortalityData"
-        );
+    public KeyGenerator quoteKeyGenerator(CalculationConfigService calculationConfigService,
+                                          MortalityTableService mortalityTableService) {
+        return (target, method, params) -> {
+            CalculationConfigSnapshot config = calculationConfigService.getSnapshot();
+            return QuoteKey.of((InsuranceCalculationRequest) params[0],
+                params.length > 1 ? (DetailLevel) params[1] : DetailLevel.FULL,
+                config.getVersion(), mortalityTableService.versionFor(config));
+        };
     }
-} 
\ No newline at end of file
+}
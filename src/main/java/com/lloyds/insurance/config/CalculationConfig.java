@@ -8,7 +8,7 @@ import java.util.Map;
 
 @Component
 @Configuration
-@ConfigurationProperties(prefix = "calculations")
+@ConfigurationProperties
 public class CalculationConfig {
     
     private Map<String, CalculationType> calculations;
@@ -154,11 +154,19 @@ public class CalculationConfig {
     }
     
     public static class PremiumConfig {
+        private String basis;
+        private Double expenseLoading;
         private Double baseRate;
         private Map<String, Factor> factors;
         private Map<String, Map<String, Double>> factorTables;
         
         // Getters and Setters
+        public String getBasis() { return basis; }
+        public void setBasis(String basis) { this.basis = basis; }
+        
+        public Double getExpenseLoading() { return expenseLoading; }
+        public void setExpenseLoading(Double expenseLoading) { this.expenseLoading = expenseLoading; }
+        
         public Double getBaseRate() { return baseRate; }
         public void setBaseRate(Double baseRate) { this.baseRate = baseRate; }
         
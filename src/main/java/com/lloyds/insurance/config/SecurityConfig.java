@@ -1,7 +1,12 @@
 package com.lloyds.insurance.config;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -17,7 +22,35 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * The flight recorder and shadow endpoints, and every actuator write, can profile the
+     * service or change its behaviour, so they need HTTP Basic credentials with the ACTUATOR
+     * role (spring.security.user). Read-only endpoints such as info and prometheus stay open
+     * for existing scrapers. Actuator requests are left out of the open CORS policy below.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.toAnyEndpoint())
+            .sessionManagement(session -> session
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            )
+            .csrf(csrf -> csrf.disable()) // Stateless Basic auth; cross-origin JSON writes fail CORS preflight
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.to("flightrecorder", "shadow")).hasRole("ACTUATOR")
+                .requestMatchers(HttpMethod.POST).hasRole("ACTUATOR")
+                .requestMatchers(HttpMethod.DELETE).hasRole("ACTUATOR")
+                .anyRequest().permitAll()
+            )
+            .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .sessionManagement(session -> session
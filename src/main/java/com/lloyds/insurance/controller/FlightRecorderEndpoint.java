@@ -0,0 +1,162 @@
+package com.lloyds.insurance.controller;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Starts, stops and dumps a JDK Flight Recorder recording without restarting the service.
+ *
+ * GET /actuator/flightrecorder reports the current recording; POST
+ * /actuator/flightrecorder/start (optionally with {"settings": "default"}),
+ * /actuator/flightrecorder/dump and /actuator/flightrecorder/stop control it. Dumps are
+ * written to insurance.jfr.directory, keeping the newest insurance.jfr.max-files, and can
+ * be opened in JDK Mission Control. Like every actuator endpoint but health, it needs the
+ * ACTUATOR role (see SecurityConfig).
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+
+    private static final String FILE_PREFIX = "insurance-calculator-";
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${insurance.jfr.directory:logs}")
+    private String directory;
+
+    // Older events are discarded so an idle recording cannot fill the disk
+    @Value("${insurance.jfr.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${insurance.jfr.max-files:5}")
+    private int maxFiles;
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("recording", recording != null);
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState().name());
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAge", recording.getMaxAge());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action, @Nullable String settings) {
+        switch (action) {
+            case "start":
+                return start(settings != null ? settings : "profile");
+            case "dump":
+                return dump();
+            case "stop":
+                return stop();
+            default:
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "action must be one of start, dump, stop");
+        }
+    }
+
+    private Map<String, Object> start(String settings) {
+        if (recording != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown JFR settings: " + settings);
+        }
+        Recording started = new Recording(configuration);
+        started.setName("insurance-calculator");
+        started.setToDisk(true);
+        started.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        started.start();
+        recording = started;
+        logger.info("Started flight recording with '{}' settings", settings);
+        return status();
+    }
+
+    private Map<String, Object> dump() {
+        if (recording == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No recording is running");
+        }
+        Path file = Paths.get(directory, FILE_PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        try {
+            Files.createDirectories(file.getParent());
+            recording.dump(file);
+            deleteOldDumps(file.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Dumped flight recording to {}", file.toAbsolutePath());
+        Map<String, Object> result = status();
+        result.put("file", file.toAbsolutePath().toString());
+        return result;
+    }
+
+    // Timestamped names sort oldest first
+    private void deleteOldDumps(Path dir) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dir)) {
+            dumps = files
+                .filter(f -> f.getFileName().toString().startsWith(FILE_PREFIX) && f.getFileName().toString().endsWith(".jfr"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+        for (int i = 0; i < dumps.size() - Math.max(1, maxFiles); i++) {
+            Files.deleteIfExists(dumps.get(i));
+            logger.info("Deleted old flight recording {}", dumps.get(i).toAbsolutePath());
+        }
+    }
+
+    private Map<String, Object> stop() {
+        if (recording == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No recording is running");
+        }
+        recording.close();
+        recording = null;
+        logger.info("Stopped flight recording");
+        return status();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.lloyds.insurance.controller;
 
+import com.lloyds.insurance.dto.BatchCalculationResponse;
+import com.lloyds.insurance.dto.CalculationProgress;
+import com.lloyds.insurance.dto.CoverageSimulationResponse;
+import com.lloyds.insurance.dto.DetailLevel;
 import com.lloyds.insurance.dto.InsuranceCalculationRequest;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse;
-import com.lloyds.insurance.service.InsuranceCalculationService;
+import com.lloyds.insurance.service.BatchCalculationService;
+import com.lloyds.insurance.service.CalculationBulkhead;
+import com.lloyds.insurance.service.CoverageSimulationService;
+import com.lloyds.insurance.service.ProgressService;
+import com.lloyds.insurance.service.RequestValidator;
 import com.lloyds.insurance.service.ConfigurationTestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,17 +32,91 @@ import java.util.Map;
 public class InsuranceController {
 
     @Autowired
-    private InsuranceCalculationService insuranceCalculationService;
+    private CalculationBulkhead calculationBulkhead;
+    
+    @Autowired
+    private BatchCalculationService batchCalculationService;
     
     @Autowired
     private ConfigurationTestService configurationTestService;
+    
+    @Autowired
+    private ProgressService progressService;
+    
+    @Autowired
+    private RequestValidator requestValidator;
+    
+    @Autowired
+    private CoverageSimulationService coverageSimulationService;
 
     @PostMapping("/calculate")
-    public ResponseEntity<InsuranceCalculationResponse> calculateInsurance(@Valid @RequestBody InsuranceCalculationRequest request) {
-        InsuranceCalculationResponse response = insuranceCalculationService.calculateInsurance(request);
+    public ResponseEntity<InsuranceCalculationResponse> calculateInsurance(@RequestBody InsuranceCalculationRequest request,
+                                                                           @RequestParam(value = "detail", required = false) String detail) {
+        List<String> errors = requestValidator.validate(request);
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.join("; ", errors));
+        }
+        InsuranceCalculationResponse response = calculationBulkhead.calculateInsurance(request, detailLevel(detail));
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/simulate")
+    public ResponseEntity<CoverageSimulationResponse> simulateCoverage(@RequestBody InsuranceCalculationRequest request,
+                                                                       @RequestParam(value = "paths", required = false) Integer paths,
+                                                                       @RequestParam(value = "seed", required = false) Long seed,
+                                                                       @RequestParam(value = "progress", required = false) String progress) {
+        List<String> errors = requestValidator.validate(request);
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.join("; ", errors));
+        }
+        return ResponseEntity.ok(coverageSimulationService.simulate(request, paths, seed, progress));
+    }
+
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchCalculationResponse> calculateBatch(InputStream body,
+                                                                   @RequestParam(value = "detail", required = false) String detail,
+                                                                   @RequestParam(value = "progress", required = false) String progress) throws IOException {
+        return ResponseEntity.ok(batchCalculationService.calculateBatchArray(body, detailLevel(detail), progress));
+    }
+
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchCalculationResponse> calculateBatchNdjson(Reader body,
+                                                                         @RequestParam(value = "detail", required = false) String detail,
+                                                                         @RequestParam(value = "progress", required = false) String progress) throws IOException {
+        return ResponseEntity.ok(batchCalculationService.calculateBatch(body, detailLevel(detail), progress));
+    }
+
+    @PostMapping("/progress")
+    public ResponseEntity<Map<String, String>> createProgress(@RequestParam(value = "steps", defaultValue = "100") int steps) {
+        if (steps < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "steps must be at least 1");
+        }
+        return ResponseEntity.ok(Map.of("sessionId", progressService.createProgressSession(steps)));
+    }
+
+    @GetMapping("/progress/{sessionId}")
+    public ResponseEntity<CalculationProgress> getProgress(@PathVariable String sessionId) {
+        CalculationProgress progress = progressService.getProgress(sessionId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(value = "/progress/{sessionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@PathVariable String sessionId) {
+        SseEmitter emitter = progressService.subscribe(sessionId);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown progress session");
+        }
+        return emitter;
+    }
+
+    private static DetailLevel detailLevel(String value) {
+        DetailLevel detail = DetailLevel.fromValue(value);
+        if (detail == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "detail must be one of none, summary, full");
+        }
+        return detail;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Insurance Calculator Service is running");
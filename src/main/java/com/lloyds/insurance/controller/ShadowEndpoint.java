@@ -0,0 +1,50 @@
+package com.lloyds.insurance.controller;
+
+import com.lloyds.insurance.service.ShadowCalculationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shadow comparison of the two calculation engines.
+ *
+ * GET /actuator/shadow reports the sample rate and the most recent quotes on which the
+ * engines diverged; POST /actuator/shadow with {"sampleRate": 0.05} changes how many live
+ * quotes are shadowed until the next restart. Totals are in the insurance.shadow.* metrics.
+ * Samples carry a request fingerprint rather than the request, and like every actuator
+ * endpoint but health this one needs the ACTUATOR role (see SecurityConfig).
+ */
+@Component
+@Endpoint(id = "shadow")
+public class ShadowEndpoint {
+
+    @Autowired
+    private ShadowCalculationService shadowCalculationService;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("sampleRate", shadowCalculationService.getSampleRate());
+        status.put("tolerance", shadowCalculationService.getTolerance());
+        status.put("queueDepth", shadowCalculationService.getQueueDepth());
+        status.put("samples", shadowCalculationService.getSamples());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> sampleRate(double sampleRate) {
+        try {
+            shadowCalculationService.setSampleRate(sampleRate);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return status();
+    }
+}
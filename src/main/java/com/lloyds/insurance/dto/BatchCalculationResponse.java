@@ -0,0 +1,84 @@
+package com.lloyds.insurance.dto;
+
+import java.util.List;
+
+public class BatchCalculationResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long durationMs;
+    private List<BatchItemResult> results;
+
+    public static class BatchItemResult {
+        private int index;
+        private String status; // "OK", "INVALID", "ERROR"
+        private InsuranceCalculationResponse result;
+        private List<String> errors;
+
+        public BatchItemResult() {}
+
+        public BatchItemResult(int index, String status, InsuranceCalculationResponse result, List<String> errors) {
+            this.index = index;
+            this.status = status;
+            this.result = result;
+            this.errors = errors;
+        }
+
+        public static BatchItemResult ok(int index, InsuranceCalculationResponse result) {
+            return new BatchItemResult(index, "OK", result, null);
+        }
+
+        public static BatchItemResult invalid(int index, List<String> errors) {
+            return new BatchItemResult(index, "INVALID", null, errors);
+        }
+
+        public static BatchItemResult error(int index, String error) {
+            return new BatchItemResult(index, "ERROR", null, List.of(error));
+        }
+
+        // Getters and Setters
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public InsuranceCalculationResponse getResult() { return result; }
+        public void setResult(InsuranceCalculationResponse result) { this.result = result; }
+
+        public List<String> getErrors() { return errors; }
+        public void setErrors(List<String> errors) { this.errors = errors; }
+    }
+
+    public BatchCalculationResponse() {}
+
+    public BatchCalculationResponse(List<BatchItemResult> results, long durationMs) {
+        this.results = results;
+        this.durationMs = durationMs;
+        this.total = results.size();
+        for (BatchItemResult item : results) {
+            if ("OK".equals(item.getStatus())) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+        }
+    }
+
+    // Getters and Setters
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public List<BatchItemResult> getResults() { return results; }
+    public void setResults(List<BatchItemResult> results) { this.results = results; }
+}
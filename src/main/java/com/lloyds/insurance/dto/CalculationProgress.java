@@ -2,7 +2,7 @@ package com.lloyds.insurance.dto;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class CalculationProgress {
     
@@ -14,7 +14,7 @@ public class CalculationProgress {
     private double progressPercentage;
     private LocalDateTime startTime;
     private LocalDateTime lastUpdateTime;
-    private List<ProgressStep> completedSteps;
+    private List<ProgressStep> completedSteps; // Appended by the job while subscribers serialise it
     private boolean isComplete;
     private String status; // "STARTING", "IN_PROGRESS", "COMPLETED", "ERROR"
     
@@ -53,7 +53,7 @@ public class CalculationProgress {
     }
     
     public CalculationProgress() {
-        this.completedSteps = new ArrayList<>();
+        this.completedSteps = new CopyOnWriteArrayList<>();
         this.startTime = LocalDateTime.now();
         this.lastUpdateTime = LocalDateTime.now();
         this.status = "STARTING";
@@ -108,7 +108,7 @@ public class CalculationProgress {
     public void setLastUpdateTime(LocalDateTime lastUpdateTime) { this.lastUpdateTime = lastUpdateTime; }
     
     public List<ProgressStep> getCompletedSteps() { return completedSteps; }
-    public void setCompletedSteps(List<ProgressStep> completedSteps) { this.completedSteps = completedSteps; }
+    public void setCompletedSteps(List<ProgressStep> completedSteps) { this.completedSteps = new CopyOnWriteArrayList<>(completedSteps); }
     
     public boolean isComplete() { return isComplete; }
     public void setComplete(boolean complete) { isComplete = complete; }
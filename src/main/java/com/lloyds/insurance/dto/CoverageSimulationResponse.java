@@ -0,0 +1,94 @@
+package com.lloyds.insurance.dto;
+
+public class CoverageSimulationResponse {
+
+    private long seed;
+    private int pathsRequested;
+    private int pathsSimulated;
+    private boolean complete;
+    private long durationMs;
+    private double baseRate;
+    private double inflationRate;
+    private int yearsOfSupport;
+    private int workingYears;
+    private Distribution needsAnalysis;
+    private Distribution humanLifeValue;
+
+    /**
+     * Spread of one method's coverage across the simulated paths, in pounds.
+     */
+    public static class Distribution {
+        private double mean;
+        private double min;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double max;
+
+        public Distribution() {}
+
+        public Distribution(double mean, double min, double p50, double p90, double p99, double max) {
+            this.mean = mean;
+            this.min = min;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        // Getters and Setters
+        public double getMean() { return mean; }
+        public void setMean(double mean) { this.mean = mean; }
+
+        public double getMin() { return min; }
+        public void setMin(double min) { this.min = min; }
+
+        public double getP50() { return p50; }
+        public void setP50(double p50) { this.p50 = p50; }
+
+        public double getP90() { return p90; }
+        public void setP90(double p90) { this.p90 = p90; }
+
+        public double getP99() { return p99; }
+        public void setP99(double p99) { this.p99 = p99; }
+
+        public double getMax() { return max; }
+        public void setMax(double max) { this.max = max; }
+    }
+
+    public CoverageSimulationResponse() {}
+
+    // Getters and Setters
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    public int getPathsRequested() { return pathsRequested; }
+    public void setPathsRequested(int pathsRequested) { this.pathsRequested = pathsRequested; }
+
+    public int getPathsSimulated() { return pathsSimulated; }
+    public void setPathsSimulated(int pathsSimulated) { this.pathsSimulated = pathsSimulated; }
+
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public double getBaseRate() { return baseRate; }
+    public void setBaseRate(double baseRate) { this.baseRate = baseRate; }
+
+    public double getInflationRate() { return inflationRate; }
+    public void setInflationRate(double inflationRate) { this.inflationRate = inflationRate; }
+
+    public int getYearsOfSupport() { return yearsOfSupport; }
+    public void setYearsOfSupport(int yearsOfSupport) { this.yearsOfSupport = yearsOfSupport; }
+
+    public int getWorkingYears() { return workingYears; }
+    public void setWorkingYears(int workingYears) { this.workingYears = workingYears; }
+
+    public Distribution getNeedsAnalysis() { return needsAnalysis; }
+    public void setNeedsAnalysis(Distribution needsAnalysis) { this.needsAnalysis = needsAnalysis; }
+
+    public Distribution getHumanLifeValue() { return humanLifeValue; }
+    public void setHumanLifeValue(Distribution humanLifeValue) { this.humanLifeValue = humanLifeValue; }
+}
@@ -0,0 +1,30 @@
+package com.lloyds.insurance.dto;
+
+/**
+ * How much explanatory prose a quote response carries.
+ *
+ * NONE returns the numbers only, SUMMARY adds the per-method formulas, one-line
+ * explanations and recommendation titles, and FULL is the complete narrative.
+ * Text is rendered lazily when the response is serialised, so it costs nothing
+ * unless it was asked for.
+ */
+public enum DetailLevel {
+    NONE,
+    SUMMARY,
+    FULL;
+
+    /**
+     * Parse a request parameter such as "none" or "Summary"; returns null if unrecognised.
+     */
+    public static DetailLevel fromValue(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        for (DetailLevel level : values()) {
+            if (level.name().equalsIgnoreCase(value.trim())) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
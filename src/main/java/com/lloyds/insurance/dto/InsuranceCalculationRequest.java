@@ -63,6 +63,23 @@ public class InsuranceCalculationRequest {
     // Default constructor
     public InsuranceCalculationRequest() {}
 
+    // Copy constructor
+    public InsuranceCalculationRequest(InsuranceCalculationRequest other) {
+        this.age = other.age;
+        this.gender = other.gender;
+        this.smoking = other.smoking;
+        this.annualIncome = other.annualIncome;
+        this.monthlyExpenses = other.monthlyExpenses;
+        this.existingCoverage = other.existingCoverage;
+        this.savings = other.savings;
+        this.totalDebts = other.totalDebts;
+        this.funeralCosts = other.funeralCosts;
+        this.dependents = other.dependents;
+        this.educationFund = other.educationFund;
+        this.coveragePeriod = other.coveragePeriod;
+        this.inflationProtection = other.inflationProtection;
+    }
+
     // Getters and Setters
     public Integer getAge() {
         return age;
@@ -2,11 +2,13 @@ package com.lloyds.insurance.dto;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class InsuranceCalculationResponse {
     
     private Double recommendedCoverage;
     private String explanation;
+    private Supplier<String> explanationRenderer;
     private PremiumEstimate premiumEstimate;
     private Map<String, CalculationMethod> calculations;
     private List<Recommendation> recommendations;
@@ -16,6 +18,7 @@ public class InsuranceCalculationResponse {
         private Double monthly;
         private Double annual;
         private String explanation;
+        private Supplier<String> explanationRenderer;
         
         public PremiumEstimate() {}
         
@@ -43,19 +46,29 @@ public class InsuranceCalculationResponse {
         }
         
         public String getExplanation() {
+            if (explanation == null && explanationRenderer != null) {
+                explanation = explanationRenderer.get();
+            }
             return explanation;
         }
         
         public void setExplanation(String explanation) {
             this.explanation = explanation;
         }
+        
+        public void renderExplanationWith(Supplier<String> renderer) {
+            this.explanation = null;
+            this.explanationRenderer = renderer;
+        }
     }
     
     public static class CalculationMethod {
         private Double amount;
         private Double adjustedAmount;
         private String formula;
+        private Supplier<String> formulaRenderer;
         private String explanation;
+        private Supplier<String> explanationRenderer;
         private Map<String, Double> breakdown;
         
         public CalculationMethod() {}
@@ -85,6 +98,9 @@ public class InsuranceCalculationResponse {
         }
         
         public String getFormula() {
+            if (formula == null && formulaRenderer != null) {
+                formula = formulaRenderer.get();
+            }
             return formula;
         }
         
@@ -92,7 +108,15 @@ public class InsuranceCalculationResponse {
             this.formula = formula;
         }
         
+        public void renderFormulaWith(Supplier<String> renderer) {
+            this.formula = null;
+            this.formulaRenderer = renderer;
+        }
+        
         public String getExplanation() {
+            if (explanation == null && explanationRenderer != null) {
+                explanation = explanationRenderer.get();
+            }
             return explanation;
         }
         
@@ -100,6 +124,11 @@ public class InsuranceCalculationResponse {
             this.explanation = explanation;
         }
         
+        public void renderExplanationWith(Supplier<String> renderer) {
+            this.explanation = null;
+            this.explanationRenderer = renderer;
+        }
+        
         public Map<String, Double> getBreakdown() {
             return breakdown;
         }
@@ -112,6 +141,7 @@ public class InsuranceCalculationResponse {
     public static class Recommendation {
         private String title;
         private String description;
+        private Supplier<String> descriptionRenderer;
         
         public Recommendation() {}
         
@@ -120,6 +150,11 @@ public class InsuranceCalculationResponse {
             this.description = description;
         }
         
+        public Recommendation(String title, Supplier<String> descriptionRenderer) {
+            this.title = title;
+            this.descriptionRenderer = descriptionRenderer;
+        }
+        
         // Getters and Setters
         public String getTitle() {
             return title;
@@ -130,6 +165,9 @@ public class InsuranceCalculationResponse {
         }
         
         public String getDescription() {
+            if (description == null && descriptionRenderer != null) {
+                description = descriptionRenderer.get();
+            }
             return description;
         }
         
@@ -151,6 +189,9 @@ public class InsuranceCalculationResponse {
     }
     
     public String getExplanation() {
+        if (explanation == null && explanationRenderer != null) {
+            explanation = explanationRenderer.get();
+        }
         return explanation;
     }
     
@@ -158,6 +199,14 @@ public class InsuranceCalculationResponse {
         this.explanation = explanation;
     }
     
+    /**
+     * Defer building the explanation until it is first read, normally at serialisation.
+     */
+    public void renderExplanationWith(Supplier<String> renderer) {
+        this.explanation = null;
+        this.explanationRenderer = renderer;
+    }
+    
     public PremiumEstimate getPremiumEstimate() {
         return premiumEstimate;
     }
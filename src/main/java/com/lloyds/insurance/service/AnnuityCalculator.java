@@ -0,0 +1,130 @@
+package com.lloyds.insurance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Present values of level and growing annuities, shared by both calculation engines so
+ * that Human Life Value agrees between them.
+ *
+ * For each discount rate a table of annuity-immediate factors a(n) = Σ v^t, t = 1..n, is
+ * computed once; a level annuity is then a single multiply. Tables are built at startup
+ * for the configured rates and on first use for any other rate, and only the most recently
+ * used {@link #MAX_TABLES} are kept, so rates left behind by reloaded configs are dropped.
+ *
+ * Both engines quote Human Life Value in whole pounds. Before that rounding they compute
+ * the same double from the same table, so they agree to the penny and beyond.
+ */
+@Component
+public class AnnuityCalculator {
+
+    /** Discount rate used by the legacy Human Life Value calculation. */
+    public static final double DEFAULT_DISCOUNT_RATE = 0.03;
+
+    /** Longest term held in a precomputed table; longer terms use the closed form. */
+    static final int MAX_TABLE_YEARS = 120;
+
+    /** Discount rates whose tables are kept at once. */
+    static final int MAX_TABLES = 16;
+
+    public enum Timing {
+        /** One payment at the end of each year. */
+        ANNUAL_ARREARS,
+        /** One payment at the start of each year. */
+        ANNUAL_ADVANCE,
+        /** The annual amount paid in twelve instalments at the end of each month. */
+        MONTHLY_ARREARS
+    }
+
+    // Evicted synchronously so the bound holds as soon as a new rate is added
+    private final Cache<Long, DiscountTable> tables = Caffeine.newBuilder()
+        .maximumSize(MAX_TABLES)
+        .executor(Runnable::run)
+        .build();
+
+    @PostConstruct
+    public void init() {
+        precompute(DEFAULT_DISCOUNT_RATE);
+    }
+
+    /**
+     * Build the table for a rate ahead of first use, e.g. when a configured rate changes.
+     */
+    public void precompute(double discountRate) {
+        table(discountRate);
+    }
+
+    /**
+     * Present value of a level annual cash flow paid at the end of each year.
+     */
+    public double presentValue(double annualCashFlow, int years, double discountRate) {
+        return presentValue(annualCashFlow, years, discountRate, Timing.ANNUAL_ARREARS);
+    }
+
+    /**
+     * Present value of a level annual cash flow with the given payment timing.
+     */
+    public double presentValue(double annualCashFlow, int years, double discountRate, Timing timing) {
+        if (years <= 0) {
+            return 0.0;
+        }
+        if (discountRate == 0) {
+            return annualCashFlow * years;
+        }
+        DiscountTable table = table(discountRate);
+        double factor = years <= MAX_TABLE_YEARS
+            ? table.annuityFactors[years]
+            : (1 - Math.pow(1 + discountRate, -years)) / discountRate;
+        switch (timing) {
+            case ANNUAL_ADVANCE:
+                return annualCashFlow * factor * (1 + discountRate);
+            case MONTHLY_ARREARS:
+                return annualCashFlow * factor * table.monthlyRatio;
+            default:
+                return annualCashFlow * factor;
+        }
+    }
+
+    /**
+     * Present value of an annual cash flow that starts at {@code firstPayment} and grows by
+     * {@code growthRate} each year, paid at the end of each year.
+     */
+    public double growingPresentValue(double firstPayment, int years, double discountRate, double growthRate) {
+        if (years <= 0) {
+            return 0.0;
+        }
+        double ratio = (1 + growthRate) / (1 + discountRate);
+        if (Math.abs(ratio - 1.0) < 1e-12) {
+            return firstPayment * years / (1 + discountRate);
+        }
+        return firstPayment / (1 + discountRate) * (1 - Math.pow(ratio, years)) / (1 - ratio);
+    }
+
+    private DiscountTable table(double discountRate) {
+        return tables.get(Double.doubleToLongBits(discountRate), bits -> new DiscountTable(discountRate));
+    }
+
+    long tableCount() {
+        tables.cleanUp();
+        return tables.estimatedSize();
+    }
+
+    private static final class DiscountTable {
+        private final double[] annuityFactors = new double[MAX_TABLE_YEARS + 1];
+        private final double monthlyRatio;
+
+        private DiscountTable(double rate) {
+            double sum = 0.0;
+            for (int year = 1; year <= MAX_TABLE_YEARS; year++) {
+                sum += 1 / Math.pow(1 + rate, year);
+                annuityFactors[year] = sum;
+            }
+            // a(12)/a = i / i(12), where i(12) is the nominal rate convertible monthly
+            double nominalMonthly = 12 * (Math.pow(1 + rate, 1.0 / 12) - 1);
+            monthlyRatio = rate / nominalMonthly;
+        }
+    }
+}
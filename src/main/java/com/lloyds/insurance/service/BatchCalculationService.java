@@ -0,0 +1,317 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.lloyds.insurance.dto.BatchCalculationResponse;
+import com.lloyds.insurance.dto.BatchCalculationResponse.BatchItemResult;
+import com.lloyds.insurance.dto.CalculationProgress;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates many quote requests in one call, fanning the work out over a fixed worker pool.
+ * Each item is validated and calculated independently so a bad row is reported inline
+ * rather than failing the whole batch. Items are calculated through
+ * {@link CalculationBulkhead}, so a batch shares maxConcurrentCalculations with single
+ * quotes; an item the bulkhead turns away or times out is reported as an ERROR.
+ */
+@Service
+public class BatchCalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCalculationService.class);
+
+    // Items per task; keeps scheduling overhead low for large batches
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    @Autowired
+    private CalculationBulkhead calculationBulkhead;
+
+    @Autowired
+    private RequestValidator requestValidator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Value("${insurance.batch.parallelism:0}")
+    private int parallelism;
+
+    @Value("${insurance.batch.max-items:10000}")
+    private int maxItems;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "batch-calc-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = Executors.newFixedThreadPool(threads, threadFactory);
+        logger.info("Batch calculation pool started with {} worker threads", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Calculate a batch supplied as a JSON array.
+     */
+    public BatchCalculationResponse calculateBatch(List<InsuranceCalculationRequest> requests) {
+        return calculateBatch(requests, DetailLevel.FULL);
+    }
+
+    /**
+     * Calculate a batch supplied as a JSON array, with the given explanation detail per item.
+     */
+    public BatchCalculationResponse calculateBatch(List<InsuranceCalculationRequest> requests, DetailLevel detail) {
+        return calculateBatch(requests, detail, null);
+    }
+
+    /**
+     * Calculate a JSON array batch, reporting how many items are done to a progress session
+     * (from {@link ProgressService#createProgressSession()}) when one is given.
+     */
+    public BatchCalculationResponse calculateBatch(List<InsuranceCalculationRequest> requests, DetailLevel detail, String progressId) {
+        try {
+            if (requests == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch body must be a JSON array");
+            }
+            List<BatchItem> items = new ArrayList<>(requests.size());
+            for (InsuranceCalculationRequest request : requests) {
+                items.add(new BatchItem(request, null));
+            }
+            return evaluate(items, detail, progressId);
+        } catch (RuntimeException e) {
+            failProgress(progressId, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Calculate a JSON array batch read straight from the request body. Items are parsed one
+     * at a time, so a batch over insurance.batch.max-items is refused as soon as the limit is
+     * passed rather than after the whole array has been deserialised.
+     */
+    public BatchCalculationResponse calculateBatchArray(InputStream json, DetailLevel detail, String progressId) throws IOException {
+        try {
+            return evaluate(readArray(json), detail, progressId);
+        } catch (IOException | RuntimeException e) {
+            failProgress(progressId, e);
+            throw e;
+        }
+    }
+
+    // Only broken JSON fails the batch; an item of the wrong shape is reported inline
+    private List<BatchItem> readArray(InputStream json) throws IOException {
+        List<BatchItem> items = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch body must be a JSON array");
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch body ends before the array is closed");
+                }
+                checkSize(items.size() + 1);
+                TreeNode node = parser.readValueAsTree();
+                try {
+                    items.add(new BatchItem(objectMapper.treeToValue(node, InsuranceCalculationRequest.class), null));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    items.add(new BatchItem(null, "Malformed item at index " + items.size()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed JSON batch: " + e.getOriginalMessage());
+        }
+        return items;
+    }
+
+    /**
+     * Calculate a batch supplied as newline-delimited JSON, one request per line.
+     * Lines that cannot be parsed are reported inline as INVALID items.
+     */
+    public BatchCalculationResponse calculateBatch(Reader ndjson) throws IOException {
+        return calculateBatch(ndjson, DetailLevel.FULL);
+    }
+
+    /**
+     * Calculate a newline-delimited JSON batch with the given explanation detail per item.
+     */
+    public BatchCalculationResponse calculateBatch(Reader ndjson, DetailLevel detail) throws IOException {
+        return calculateBatch(ndjson, detail, null);
+    }
+
+    /**
+     * Calculate a newline-delimited JSON batch, reporting progress to the given session if any.
+     */
+    public BatchCalculationResponse calculateBatch(Reader ndjson, DetailLevel detail, String progressId) throws IOException {
+        try {
+            return evaluate(readLines(ndjson), detail, progressId);
+        } catch (IOException | RuntimeException e) {
+            failProgress(progressId, e);
+            throw e;
+        }
+    }
+
+    private List<BatchItem> readLines(Reader ndjson) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(InsuranceCalculationRequest.class);
+        List<BatchItem> items = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(ndjson);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkSize(items.size() + 1);
+            try {
+                items.add(new BatchItem(reader.readValue(line), null));
+            } catch (IOException e) {
+                items.add(new BatchItem(null, "Malformed JSON on line " + lineNumber));
+            }
+        }
+        return items;
+    }
+
+    private BatchCalculationResponse evaluate(List<BatchItem> items, DetailLevel detail, String progressId) {
+        checkSize(items.size());
+        long start = System.currentTimeMillis();
+        BatchProgress progress = progressId != null ? new BatchProgress(progressId, items.size()) : null;
+
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        int workers = Math.max(1, parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (items.size() + workers - 1) / workers);
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(items.size(), from + chunkSize);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    results[i] = evaluateItem(i, items.get(i), detail);
+                    if (progress != null) {
+                        progress.itemDone();
+                    }
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+
+        long elapsed = System.currentTimeMillis() - start;
+        if (progress != null) {
+            progress.finished(elapsed);
+        }
+        return new BatchCalculationResponse(Arrays.asList(results), elapsed);
+    }
+
+    // Ends the session's progress streams now rather than at the stream timeout
+    private void failProgress(String progressId, Exception e) {
+        if (progressId != null) {
+            String reason = e instanceof ResponseStatusException ? ((ResponseStatusException) e).getReason() : null;
+            progressService.errorProgress(progressId, reason != null ? reason : "Batch calculation failed");
+        }
+    }
+
+    private BatchItemResult evaluateItem(int index, BatchItem item, DetailLevel detail) {
+        if (item.parseError != null) {
+            return BatchItemResult.invalid(index, List.of(item.parseError));
+        }
+        List<String> errors = requestValidator.validate(item.request);
+        if (!errors.isEmpty()) {
+            return BatchItemResult.invalid(index, errors);
+        }
+
+        try {
+            return BatchItemResult.ok(index, calculationBulkhead.calculateInsurance(item.request, detail));
+        } catch (CalculationRejectedException e) {
+            return BatchItemResult.error(index, e.getReason());
+        } catch (RuntimeException e) {
+            logger.warn("Batch item {} failed: {}", index, e.getMessage());
+            return BatchItemResult.error(index, "Calculation failed");
+        }
+    }
+
+    private void checkSize(int size) {
+        if (size > maxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Batch exceeds the maximum of " + maxItems + " items");
+        }
+    }
+
+    /**
+     * Reports completed items to a progress session, scaled to the session's step count.
+     * Updates go out every {@link #MIN_CHUNK_SIZE} items; ProgressService conflates them for
+     * slow subscribers, so a large batch never waits on a client.
+     */
+    private final class BatchProgress {
+        private final String sessionId;
+        private final int total;
+        private final int steps;
+        private final AtomicInteger done = new AtomicInteger();
+
+        private BatchProgress(String sessionId, int total) {
+            CalculationProgress session = progressService.getProgress(sessionId);
+            this.sessionId = sessionId;
+            this.total = total;
+            this.steps = session != null ? session.getTotalSteps() : 1;
+            progressService.updateProgress(sessionId, 0, "Calculating quotes", "0 of " + total);
+        }
+
+        private void itemDone() {
+            int completed = done.incrementAndGet();
+            if (completed % MIN_CHUNK_SIZE == 0 && completed < total) {
+                // The final step is only reported once the whole batch has been assembled
+                int step = Math.min(steps - 1, (int) ((long) completed * steps / total));
+                progressService.updateProgress(sessionId, step, "Calculating quotes", completed + " of " + total);
+            }
+        }
+
+        private void finished(long elapsedMs) {
+            progressService.addCompletedStep(sessionId, "Calculating quotes", total + " quotes calculated", elapsedMs, true);
+            progressService.updateProgress(sessionId, steps, "Complete", total + " of " + total);
+        }
+    }
+
+    private static final class BatchItem {
+        private final InsuranceCalculationRequest request;
+        private final String parseError;
+
+        private BatchItem(InsuranceCalculationRequest request, String parseError) {
+            this.request = request;
+            this.parseError = parseError;
+        }
+    }
+}
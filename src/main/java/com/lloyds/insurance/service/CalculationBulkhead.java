@@ -0,0 +1,166 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for single quotes, sized from calculations.insurance.performance.
+ *
+ * At most maxConcurrentCalculations quotes run at once, with a bounded queue behind them.
+ * When both are full a quote is rejected straight away instead of waiting on Tomcat's
+ * queue, and a quote that is not finished within the timeout is cancelled; either way the
+ * caller gets a 503 with Retry-After. Queued quotes that reach a worker after their
+ * deadline are dropped without being calculated. Answered quotes are offered to
+ * {@link ShadowCalculationService}, which drops them while any quote is queued here.
+ */
+@Service
+public class CalculationBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculationBulkhead.class);
+
+    // Used when calculation-config.yml does not set the performance limits
+    private static final int DEFAULT_MAX_CONCURRENT = 100;
+    private static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+
+    @Autowired
+    private CalculationConfig calculationConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShadowCalculationService shadowCalculationService;
+
+    // Quotes allowed to wait for a worker once all maxConcurrentCalculations are busy
+    @Value("${insurance.bulkhead.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${insurance.bulkhead.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private long timeoutMillis;
+    private Counter rejected;
+    private Counter timeouts;
+
+    @PostConstruct
+    public void init() {
+        CalculationConfig.PerformanceConfig performance = calculationConfig.getCalculations().get("insurance").getPerformance();
+        int maxConcurrent = performance != null && performance.getMaxConcurrentCalculations() != null
+            ? performance.getMaxConcurrentCalculations() : DEFAULT_MAX_CONCURRENT;
+        long timeout = performance != null && performance.getTimeout() != null
+            ? performance.getTimeout() : DEFAULT_TIMEOUT_MILLIS;
+        start(maxConcurrent, queueCapacity, timeout);
+    }
+
+    void start(int maxConcurrent, int queueCapacity, long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "quote-calc-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("insurance.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Quotes currently being calculated")
+            .register(meterRegistry);
+        Gauge.builder("insurance.bulkhead.queue.depth", executor, e -> e.getQueue().size())
+            .description("Quotes waiting for a calculation slot")
+            .register(meterRegistry);
+        Gauge.builder("insurance.bulkhead.capacity", executor, ThreadPoolExecutor::getMaximumPoolSize)
+            .description("Configured maxConcurrentCalculations")
+            .register(meterRegistry);
+        rejected = Counter.builder("insurance.bulkhead.rejected")
+            .description("Quotes turned away because every slot and queue place was taken")
+            .register(meterRegistry);
+        timeouts = Counter.builder("insurance.bulkhead.timeouts")
+            .description("Quotes cancelled after passing the calculation timeout")
+            .register(meterRegistry);
+        logger.info("Quote bulkhead: {} concurrent, {} queued, {} ms timeout", maxConcurrent, queueCapacity, timeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Calculate a quote within the configured concurrency and time limits.
+     *
+     * @throws CalculationRejectedException if the node is saturated or the deadline passes
+     */
+    public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<InsuranceCalculationResponse> future;
+        try {
+            future = executor.submit(() -> {
+                if (System.nanoTime() - deadline > 0) {
+                    // Waited in the queue past the deadline; the caller has given up or is about to
+                    throw new TimeoutException("Queued past the deadline");
+                }
+                return insuranceCalculationService.calculateInsurance(request, detail);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new CalculationRejectedException("Calculation capacity exhausted", retryAfterSeconds);
+        }
+
+        try {
+            InsuranceCalculationResponse response = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            // Shadow quotes are shed first: none start while live quotes are queued for a slot
+            shadowCalculationService.offer(request, response, !executor.getQueue().isEmpty());
+            return response;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            executor.remove((Runnable) future);
+            timeouts.increment();
+            throw new CalculationRejectedException("Calculation timed out", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CalculationRejectedException("Calculation interrupted", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                timeouts.increment();
+                throw new CalculationRejectedException("Calculation timed out", retryAfterSeconds);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
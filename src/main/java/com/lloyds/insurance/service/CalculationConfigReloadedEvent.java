@@ -0,0 +1,29 @@
+package com.lloyds.insurance.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a changed calculation-config.yml has been checked, compiled and swapped
+ * in, so that anything precomputed from the previous version can be rebuilt.
+ */
+public class CalculationConfigReloadedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CalculationConfigSnapshot previous;
+    private final CalculationConfigSnapshot snapshot;
+
+    public CalculationConfigReloadedEvent(Object publisher, CalculationConfigSnapshot previous, CalculationConfigSnapshot snapshot) {
+        super(publisher);
+        this.previous = previous;
+        this.snapshot = snapshot;
+    }
+
+    public CalculationConfigSnapshot getPrevious() {
+        return previous;
+    }
+
+    public CalculationConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
@@ -0,0 +1,177 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The calculation config currently in use, as an immutable {@link CalculationConfigSnapshot}.
+ *
+ * At startup the snapshot is compiled from the packaged calculation-config.yml. When
+ * insurance.config.path names an external copy, that file is loaded instead and watched:
+ * each change is bound, checked and compiled off the request path, then swapped in with a
+ * single volatile write and announced with a {@link CalculationConfigReloadedEvent}. A file
+ * that fails to load leaves the current version in place. Requests never wait on a reload,
+ * and one already running keeps the snapshot it started with.
+ *
+ * Settings read once at startup (the thread pool and cache sizes under performance) still
+ * need a restart to change.
+ */
+@Service
+public class CalculationConfigService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalculationConfigService.class);
+
+    @Autowired
+    private CalculationConfig calculationConfig;
+
+    @Autowired
+    private AnnuityCalculator annuityCalculator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // External calculation-config.yml to load and watch; blank keeps the packaged copy
+    @Value("${insurance.config.path:}")
+    private String configPath;
+
+    // Editors and deploy tools often write a file in several steps; wait this long for it to settle
+    @Value("${insurance.config.reload-delay-ms:500}")
+    private long reloadDelayMillis;
+
+    private final AtomicReference<CalculationConfigSnapshot> snapshot = new AtomicReference<>();
+
+    // Guards reloads and the content they were loaded from
+    private final Object reloadLock = new Object();
+    private byte[] loadedContent;
+
+    private Counter reloads;
+    private Counter failedReloads;
+
+    private volatile FileWatcher watcher;
+
+    @PostConstruct
+    public void start() throws IOException {
+        install(CalculationConfigSnapshot.compile(1, calculationConfig.getCalculations().get("insurance"),
+            "classpath:calculation-config.yml", annuityCalculator), calculationConfig.getCalculations());
+        reloads = reloadCounter("success");
+        failedReloads = reloadCounter("failure");
+        Gauge.builder("insurance.config.version", snapshot, current -> current.get().getVersion())
+            .description("Version of calculation-config.yml in use; increases with every reload")
+            .register(meterRegistry);
+        if (configPath == null || configPath.isBlank()) {
+            return;
+        }
+        // The external file replaces the packaged one from the start; if it cannot be loaded, startup fails
+        Path path = Path.of(configPath).toAbsolutePath();
+        reload(path);
+        watcher = FileWatcher.start(path, reloadDelayMillis, "calculation-config-watcher", () -> tryReload(path));
+        logger.info("Watching {} for calculation config changes", path);
+    }
+
+    private Counter reloadCounter(String outcome) {
+        return Counter.builder("insurance.config.reloads")
+            .description("Attempts to reload calculation-config.yml")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * The config in use. Read it once per calculation and use that snapshot throughout.
+     */
+    public CalculationConfigSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Load the file, check and compile it, and swap it in as the next version. Content
+     * identical to the current version is ignored. Throws, leaving the current version in
+     * place, if the file cannot be read, bound or compiled.
+     */
+    public CalculationConfigSnapshot reload(Path path) throws IOException {
+        synchronized (reloadLock) {
+            CalculationConfigSnapshot previous = snapshot.get();
+            CalculationConfigSnapshot next;
+            try {
+                byte[] content = Files.readAllBytes(path);
+                if (Arrays.equals(content, loadedContent)) {
+                    return previous;
+                }
+                Map<String, CalculationConfig.CalculationType> calculations = bind(content, path);
+                next = CalculationConfigSnapshot.compile(previous.getVersion() + 1, calculations.get("insurance"),
+                    path.toString(), annuityCalculator);
+                install(next, calculations);
+                loadedContent = content;
+            } catch (IOException | RuntimeException e) {
+                failedReloads.increment();
+                throw e;
+            }
+            reloads.increment();
+            logger.info("Loaded calculation config version {} from {}", next.getVersion(), path);
+            eventPublisher.publishEvent(new CalculationConfigReloadedEvent(this, previous, next));
+            return next;
+        }
+    }
+
+    private void install(CalculationConfigSnapshot next, Map<String, CalculationConfig.CalculationType> calculations) {
+        // Annuity tables for a new discount rate are built before any quote can use it
+        annuityCalculator.precompute(next.getRateTables().discountRate());
+        // Anything still reading the bound properties sees the same version
+        calculationConfig.setCalculations(calculations);
+        snapshot.set(next);
+    }
+
+    private static Map<String, CalculationConfig.CalculationType> bind(byte[] content, Path path) {
+        try {
+            List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load(path.toString(), new ByteArrayResource(content, path.toString()));
+            return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("calculations", Bindable.mapOf(String.class, CalculationConfig.CalculationType.class))
+                .orElseThrow(() -> new IllegalStateException("No calculations section"));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Cannot read " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void tryReload(Path path) {
+        try {
+            reload(path);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Rejected calculation config change in {}, keeping version {}: {}",
+                path, snapshot.get().getVersion(), e.getMessage());
+        }
+    }
+}
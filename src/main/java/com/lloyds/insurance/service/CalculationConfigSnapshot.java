@@ -0,0 +1,132 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One loaded version of calculation-config.yml with everything compiled from it: the
+ * rate tables, each method's formula and the request validation rules.
+ *
+ * {@link CalculationConfigService} swaps in a new snapshot when the file changes. A
+ * calculation reads the snapshot once and uses it throughout, so it finishes on the
+ * config it started with even if a reload happens meanwhile. The bound config is never
+ * modified after loading.
+ */
+public final class CalculationConfigSnapshot {
+
+    private final long version;
+    private final CalculationConfig.CalculationType insurance;
+    private final RateTables rateTables;
+    private final Formula[] formulas;
+    private final Formula.Variable[] variables;
+    private final RequestValidator.Rules validation;
+    private final String source;
+    private final Instant loadedAt;
+
+    private CalculationConfigSnapshot(long version, CalculationConfig.CalculationType insurance, String source,
+                                      AnnuityCalculator annuityCalculator) {
+        this.version = version;
+        this.insurance = insurance;
+        this.rateTables = RateTables.compile(insurance);
+        List<CalculationConfig.CalculationMethod> methods = insurance.getMethods();
+        this.formulas = new Formula[methods.size()];
+        Set<Formula.Variable> used = EnumSet.noneOf(Formula.Variable.class);
+        for (int i = 0; i < formulas.length; i++) {
+            CalculationConfig.CalculationMethod method = methods.get(i);
+            try {
+                formulas[i] = Formula.compile(method.getFormula(), annuityCalculator);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("calculations.insurance.methods[" + method.getName() + "].formula: "
+                    + e.getMessage(), e);
+            }
+            used.addAll(formulas[i].getVariables());
+        }
+        this.variables = used.toArray(new Formula.Variable[0]);
+        this.validation = RequestValidator.Rules.compile(insurance.getValidation());
+        this.source = source;
+        this.loadedAt = Instant.now();
+    }
+
+    /**
+     * Check and compile the "insurance" calculation type. Fails with an
+     * IllegalStateException naming the first problem found.
+     */
+    static CalculationConfigSnapshot compile(long version, CalculationConfig.CalculationType insurance, String source,
+                                             AnnuityCalculator annuityCalculator) {
+        if (insurance == null) {
+            throw new IllegalStateException("calculations.insurance is missing");
+        }
+        require(insurance.getMethods() != null && !insurance.getMethods().isEmpty(), "methods");
+        require(insurance.getPremium() != null && insurance.getPremium().getBaseRate() != null
+            && insurance.getPremium().getFactors() != null, "premium");
+        CalculationConfig.RecommendationConfig recommendation = insurance.getRecommendation();
+        require(recommendation != null && recommendation.getWeights() != null && recommendation.getLimits() != null
+            && recommendation.getRounding() != null && recommendation.getRounding().getMethod() != null, "recommendation");
+        CalculationConfig.Rounding rounding = recommendation.getRounding();
+        require(!rounding.getMethod().equals("nearest") || rounding.getIncrement() != null && rounding.getIncrement() > 0,
+            "recommendation.rounding.increment");
+        require(insurance.getDataSources() != null, "dataSources");
+        try {
+            return new CalculationConfigSnapshot(version, insurance, source, annuityCalculator);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("calculations.insurance could not be compiled: " + e, e);
+        }
+    }
+
+    private static void require(boolean present, String section) {
+        if (!present) {
+            throw new IllegalStateException("calculations.insurance." + section + " is missing or incomplete");
+        }
+    }
+
+    /**
+     * Increases by one with every successful load, starting at 1.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public CalculationConfig.CalculationType getInsurance() {
+        return insurance;
+    }
+
+    public RateTables getRateTables() {
+        return rateTables;
+    }
+
+    /**
+     * The compiled formula of each method, in configured method order.
+     */
+    public Formula getFormula(int method) {
+        return formulas[method];
+    }
+
+    /**
+     * Slots for every variable the formulas use, filled from one request.
+     */
+    public double[] bindVariables(InsuranceCalculationRequest request) {
+        return Formula.bind(variables, request, rateTables);
+    }
+
+    RequestValidator.Rules getValidation() {
+        return validation;
+    }
+
+    /**
+     * Where the config was loaded from.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,129 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event types for the calculation engines and market data refresh.
+ *
+ * Callers create an event, call begin() before the work and fill in the fields only when
+ * shouldCommit() is true. With no recording running, shouldCommit() is false and the JIT
+ * removes the event allocation, so the instrumentation costs nothing. Recordings are
+ * started and dumped through the flightrecorder actuator endpoint
+ * ({@link com.lloyds.insurance.controller.FlightRecorderEndpoint}).
+ */
+public final class CalculationEvents {
+
+    private CalculationEvents() {
+    }
+
+    /**
+     * Ten-year age band such as "30-39", so events group without exposing exact ages.
+     */
+    static String ageBand(Integer age) {
+        if (age == null) {
+            return "unknown";
+        }
+        int lower = age / 10 * 10;
+        return lower + "-" + (lower + 9);
+    }
+
+    /**
+     * Copy the request dimensions shared by the quote events.
+     */
+    static void describe(QuoteEvent event, String engine, InsuranceCalculationRequest request) {
+        event.engine = engine;
+        event.ageBand = ageBand(request.getAge());
+        event.gender = request.getGender();
+        event.smoking = request.getSmoking();
+        event.term = request.getCoveragePeriod();
+    }
+
+    @Category({"Insurance", "Calculation"})
+    @StackTrace(false)
+    public abstract static class QuoteEvent extends Event {
+        @Label("Engine")
+        @Description("legacy or configurable")
+        String engine;
+
+        @Label("Age Band")
+        String ageBand;
+
+        @Label("Gender")
+        String gender;
+
+        @Label("Smoking")
+        String smoking;
+
+        @Label("Term")
+        @Description("Coverage period in years, or 'whole'")
+        String term;
+    }
+
+    @Name("com.lloyds.insurance.QuoteCalculated")
+    @Label("Quote Calculated")
+    @Description("One quote calculated end to end (cache hits are not calculated)")
+    public static final class QuoteCalculated extends QuoteEvent {
+        @Label("Detail Level")
+        String detail;
+
+        @Label("Recommended Coverage")
+        double recommendedCoverage;
+    }
+
+    @Name("com.lloyds.insurance.PremiumEstimated")
+    @Label("Premium Estimated")
+    public static final class PremiumEstimated extends QuoteEvent {
+        @Label("Coverage")
+        double coverage;
+
+        @Label("Annual Premium")
+        double annualPremium;
+
+        @Label("From Quote Grid")
+        @Description("Answered from the precomputed grid rather than calculated")
+        boolean fromGrid;
+    }
+
+    @Name("com.lloyds.insurance.CacheMiss")
+    @Label("Quote Cache Miss")
+    @Description("A quote not found in the result cache, so it was calculated")
+    public static final class CacheMiss extends QuoteEvent {
+        @Label("Cache")
+        String cache;
+    }
+
+    @Name("com.lloyds.insurance.MarketDataRefreshed")
+    @Label("Market Data Refreshed")
+    @Category({"Insurance", "Market Data"})
+    @StackTrace(false)
+    public static final class MarketDataRefreshed extends Event {
+        @Label("Source")
+        String source;
+
+        @Label("URL")
+        String url;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Changed")
+        @Description("The fetched value differed from the one in use")
+        boolean changed;
+
+        @Label("Response Length")
+        @Description("Characters in the response body")
+        int responseLength;
+
+        @Label("Breaker State")
+        String breakerState;
+
+        @Label("Error")
+        String error;
+    }
+}
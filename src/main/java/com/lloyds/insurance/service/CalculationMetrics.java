@@ -0,0 +1,102 @@
+package com.lloyds.insurance.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage timers for both calculation engines.
+ *
+ * Every timer is registered up front and held in a field, so recording a stage is a
+ * System.nanoTime() call and Timer.record() with no tag or map allocation per quote. The
+ * SLO buckets published to Prometheus are configured under
+ * management.metrics.distribution.slo in application.yml.
+ */
+@Component
+public class CalculationMetrics {
+
+    public static final String QUOTE_TIMER = "insurance.calculation";
+    public static final String STAGE_TIMER = "insurance.calculation.stage";
+    public static final String METHOD_TIMER = "insurance.calculation.method";
+
+    private final Engine legacy;
+    private final Engine configurable;
+
+    public CalculationMetrics(MeterRegistry meterRegistry) {
+        this.legacy = new Engine(meterRegistry, "legacy");
+        this.configurable = new Engine(meterRegistry, "configurable");
+    }
+
+    public Engine legacy() {
+        return legacy;
+    }
+
+    public Engine configurable() {
+        return configurable;
+    }
+
+    /**
+     * Record the time since {@code startNanos} and return the current time, so consecutive
+     * stages can be timed from a single running mark.
+     */
+    public static long lap(Timer timer, long startNanos) {
+        long now = System.nanoTime();
+        timer.record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Timers for one engine, tagged engine=legacy or engine=configurable.
+     */
+    public static final class Engine {
+
+        private final MeterRegistry meterRegistry;
+        private final String engine;
+        private final Map<String, Timer> methods = new ConcurrentHashMap<>();
+
+        final Timer quote;
+        final Timer performCalculations;
+        final Timer calculateRecommendedCoverage;
+        final Timer estimatePremium;
+        final Timer generateRecommendations;
+
+        private Engine(MeterRegistry meterRegistry, String engine) {
+            this.meterRegistry = meterRegistry;
+            this.engine = engine;
+            this.quote = Timer.builder(QUOTE_TIMER)
+                .description("Whole quote calculation, excluding cache hits")
+                .tag("engine", engine)
+                .register(meterRegistry);
+            this.performCalculations = stage("performCalculations");
+            this.calculateRecommendedCoverage = stage("calculateRecommendedCoverage");
+            this.estimatePremium = stage("estimatePremium");
+            this.generateRecommendations = stage("generateRecommendations");
+        }
+
+        private Timer stage(String stage) {
+            return Timer.builder(STAGE_TIMER)
+                .description("One stage of a quote calculation")
+                .tags("engine", engine, "stage", stage)
+                .register(meterRegistry);
+        }
+
+        /**
+         * Timer for one calculation method such as dime or human-life-value; registered on
+         * first use, then a plain map lookup.
+         */
+        public Timer method(String method) {
+            Timer timer = methods.get(method);
+            if (timer == null) {
+                timer = methods.computeIfAbsent(method, name -> Timer.builder(METHOD_TIMER)
+                    .description("One coverage calculation method")
+                    .tags("engine", engine, "method", name)
+                    .register(meterRegistry));
+            }
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.lloyds.insurance.service;
+
+/**
+ * Minimal circuit breaker for one external data source.
+ *
+ * After {@code failureThreshold} consecutive failures the breaker opens and calls are
+ * skipped for {@code openMillis}. The first call after that runs as a trial (half-open):
+ * success closes the breaker, failure opens it again for another full period.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Whether a call may go ahead now; moves an expired open breaker to half-open.
+     */
+    public synchronized boolean allowRequest(long nowMillis) {
+        if (state == State.OPEN) {
+            if (nowMillis - openedAt < openMillis) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure(long nowMillis) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nowMillis;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
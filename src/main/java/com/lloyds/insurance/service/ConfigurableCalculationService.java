@@ -1,6 +1,7 @@
 package com.lloyds.insurance.service;
 
 import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.DetailLevel;
 import com.lloyds.insurance.dto.InsuranceCalculationRequest;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse.CalculationMethod;
@@ -10,66 +11,134 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
 
-import java.text.DecimalFormat;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class ConfigurableCalculationService {
     
-    private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,###");
-    
     @Autowired
-    private CalculationConfig calculationConfig;
+    private CalculationConfigService calculationConfigService;
     
     @Autowired
     private UKDataService ukDataService;
     
-    @Cacheable(value = "insuranceCalculations", key = "#request.hashCode()")
+    @Autowired
+    private AnnuityCalculator annuityCalculator;
+    
+    @Autowired
+    private CalculationMetrics calculationMetrics;
+    
+    @Autowired
+    private MortalityTableService mortalityTableService;
+    
+    private final QuoteCoalescer<InsuranceCalculationResponse> coalescer = new QuoteCoalescer<>();
+    
+    @Cacheable(value = "insuranceCalculations", keyGenerator = "quoteKeyGenerator")
     public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request) {
+        return calculateInsurance(request, DetailLevel.FULL);
+    }
+    
+    @Cacheable(value = "insuranceCalculations", keyGenerator = "quoteKeyGenerator")
+    public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+        // The whole quote is priced with the config version in use when it starts
+        CalculationConfigSnapshot config = calculationConfigService.getSnapshot();
+        // A cache miss seen by several callers at once is calculated only once
+        QuoteKey key = QuoteKey.of(request, detail, config.getVersion(), mortalityTableService.versionFor(config));
+        return coalescer.execute(key, () -> computeInsurance(request, detail, config));
+    }
+    
+    /**
+     * Identical quotes that joined an in-flight calculation instead of running their own.
+     */
+    public long getCoalescedQuotes() {
+        return coalescer.getCoalescedCount();
+    }
+    
+    private InsuranceCalculationResponse computeInsurance(InsuranceCalculationRequest request, DetailLevel detail,
+                                                          CalculationConfigSnapshot snapshot) {
+        
+        CalculationMetrics.Engine metrics = calculationMetrics.configurable();
+        long start = System.nanoTime();
+        CalculationEvents.QuoteCalculated event = new CalculationEvents.QuoteCalculated();
+        event.begin();
+        
+        // Only reached when the result cache had no entry for this quote
+        CalculationEvents.CacheMiss miss = new CalculationEvents.CacheMiss();
+        if (miss.shouldCommit()) {
+            CalculationEvents.describe(miss, "configurable", request);
+            miss.cache = "insuranceCalculations";
+            miss.commit();
+        }
+        // Explanations are rendered when the response is serialised, so they read a private
+        // copy of the request that the caller cannot change in the meantime
+        InsuranceCalculationRequest data = detail == DetailLevel.NONE ? request : new InsuranceCalculationRequest(request);
         
         // Get insurance calculation configuration
-        CalculationConfig.CalculationType config = calculationConfig.getCalculations().get("insurance");
+        CalculationConfig.CalculationType config = snapshot.getInsurance();
         
         // Perform all calculation methods based on configuration
-        Map<String, CalculationMethod> calculations = performCalculations(request, config);
+        Map<String, CalculationMethod> calculations = performCalculations(data, snapshot, detail);
+        long mark = CalculationMetrics.lap(metrics.performCalculations, start);
         
         // Calculate weighted recommendation based on configuration
-        Double recommendedCoverage = calculateRecommendedCoverage(calculations, request, config);
-        
-        // Generate detailed explanation
-        String detailedExplanation = generateRecommendationExplanation(calculations, recommendedCoverage, request, config);
+        Double recommendedCoverage = calculateRecommendedCoverage(calculations, data, config);
+        mark = CalculationMetrics.lap(metrics.calculateRecommendedCoverage, mark);
         
         // Generate premium estimate based on configuration
-        PremiumEstimate premiumEstimate = estimatePremium(recommendedCoverage, request, config);
-        
-        // Generate personalized recommendations
-        List<Recommendation> recommendations = generateRecommendations(calculations, request, config);
+        PremiumEstimate premiumEstimate = estimatePremium(recommendedCoverage, data, snapshot, detail);
+        mark = CalculationMetrics.lap(metrics.estimatePremium, mark);
         
         // Build response
         InsuranceCalculationResponse response = new InsuranceCalculationResponse();
         response.setRecommendedCoverage(recommendedCoverage);
-        response.setExplanation(detailedExplanation);
         response.setPremiumEstimate(premiumEstimate);
         response.setCalculations(calculations);
-        response.setRecommendations(recommendations);
+        
+        // Explanation and recommendations are rendered on demand, only when asked for
+        if (detail != DetailLevel.NONE) {
+            response.renderExplanationWith(() -> generateRecommendationExplanation(calculations, recommendedCoverage, data, config));
+            response.setRecommendations(generateRecommendations(calculations, data, config));
+            CalculationMetrics.lap(metrics.generateRecommendations, mark);
+        }
         
         // Add data source information from configuration
         response.setDataSources(convertDataSourcesToMap(config.getDataSources()));
         
+        CalculationMetrics.lap(metrics.quote, start);
+        if (event.shouldCommit()) {
+            CalculationEvents.describe(event, "configurable", data);
+            event.detail = detail.name();
+            event.recommendedCoverage = recommendedCoverage;
+            event.commit();
+        }
         return response;
     }
     
-    private Map<String, CalculationMethod> performCalculations(InsuranceCalculationRequest data, 
-                                                              CalculationConfig.CalculationType config) {
+    Map<String, CalculationMethod> performCalculations(InsuranceCalculationRequest data, 
+                                                              CalculationConfigSnapshot snapshot,
+                                                              DetailLevel detail) {
         Map<String, CalculationMethod> calculations = new HashMap<>();
-        
-        for (CalculationConfig.CalculationMethod methodConfig : config.getMethods()) {
+        CalculationMetrics.Engine metrics = calculationMetrics.configurable();
+        RateTables rateTables = snapshot.getRateTables();
+        // Every variable the formulas use, looked up once for all methods
+        double[] variables = snapshot.bindVariables(data);
+        
+        List<CalculationConfig.CalculationMethod> methods = snapshot.getInsurance().getMethods();
+        for (int i = 0; i < methods.size(); i++) {
+            CalculationConfig.CalculationMethod methodConfig = methods.get(i);
+            long start = System.nanoTime();
             CalculationMethod method = new CalculationMethod();
-            method.setAmount(calculateMethodAmount(methodConfig, data));
-            method.setFormula(generateFormula(methodConfig, data));
-            method.setExplanation(generateExplanation(methodConfig, data));
-            method.setBreakdown(generateBreakdown(methodConfig, data));
+            double amount = snapshot.getFormula(i).evaluate(variables);
+            method.setAmount(amount);
+            if (detail != DetailLevel.NONE) {
+                method.renderFormulaWith(() -> generateFormula(methodConfig, data, rateTables, amount));
+            }
+            if (detail == DetailLevel.FULL) {
+                method.setExplanation(generateExplanation(methodConfig, data));
+            }
+            method.setBreakdown(generateBreakdown(methodConfig, data, rateTables, amount));
+            CalculationMetrics.lap(metrics.method(methodConfig.getName()), start);
             
             calculations.put(methodConfig.getName(), method);
         }
@@ -77,118 +146,27 @@ public class ConfigurableCalculationService {
         return calculations;
     }
     
-    private Double calculateMethodAmount(CalculationConfig.CalculationMethod methodConfig, 
-                                       InsuranceCalculationRequest data) {
-        switch (methodConfig.getName()) {
-            case "income-replacement":
-                return calculateIncomeReplacement(methodConfig, data);
-            case "dime":
-                return calculateDIME(methodConfig, data);
-            case "needs-analysis":
-                return calculateNeedsAnalysis(methodConfig, data);
-            case "human-life-value":
-                return calculateHumanLifeValue(methodConfig, data);
-            default:
-                return 0.0;
-        }
-    }
-    
-    private Double calculateIncomeReplacement(CalculationConfig.CalculationMethod methodConfig, 
-                                            InsuranceCalculationRequest data) {
-        // Get multiplier from configuration
-        Map<String, Object> multiplierConfig = methodConfig.getMultiplier();
-        int baseMultiplier = ((Number) multiplierConfig.get("base")).intValue();
-        
-        // Apply age adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> adjustments = (Map<String, Object>) multiplierConfig.get("adjustments");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> ageAdjustments = (Map<String, Object>) adjustments.get("age");
-        double ageFactor = getAgeFactor(ageAdjustments, data.getAge());
-        
-        // Apply dependents adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> dependentsAdjustments = (Map<String, Object>) adjustments.get("dependents");
-        double dependentsFactor = getDependentsFactor(dependentsAdjustments, data.getDependents());
-        
-        // Apply coverage period adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> periodAdjustments = (Map<String, Object>) adjustments.get("coveragePeriod");
-        double periodFactor = getPeriodFactor(periodAdjustments, data.getCoveragePeriod());
-        
-        double finalMultiplier = baseMultiplier * ageFactor * dependentsFactor * periodFactor;
-        return data.getAnnualIncome() * finalMultiplier;
-    }
-    
-    private Double calculateDIME(CalculationConfig.CalculationMethod methodConfig, 
-                               InsuranceCalculationRequest data) {
-        // Get income years from configuration
-        Map<String, Object> incomeYearsConfig = methodConfig.getIncomeYears();
-        int incomeYears = ((Number) incomeYearsConfig.get(data.getCoveragePeriod())).intValue();
-        
-        double incomeNeeds = (data.getAnnualIncome() - data.getSpouseIncome()) * incomeYears;
-        return data.getOtherDebts() + incomeNeeds + data.getMortgage() + data.getEducationFund();
-    }
-    
-    private Double calculateNeedsAnalysis(CalculationConfig.CalculationMethod methodConfig, 
-                                        InsuranceCalculationRequest data) {
-        // Get years of support from configuration
-        Map<String, Object> yearsConfig = methodConfig.getYearsOfSupport();
-        int baseYears = ((Number) yearsConfig.get("base")).intValue();
-        
-        // Apply age adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> adjustments = (Map<String, Object>) yearsConfig.get("adjustments");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> ageAdjustments = (Map<String, Object>) adjustments.get("age");
-        int ageYears = getAgeYears(ageAdjustments, data.getAge());
-        
-        // Apply dependents adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> dependentsAdjustments = (Map<String, Object>) adjustments.get("dependents");
-        int dependentsYears = getDependentsYears(dependentsAdjustments, data.getDependents());
-        
-        int yearsOfSupport = Math.min(ageYears, dependentsYears);
-        return data.getMonthlyExpenses() * 12 * yearsOfSupport + data.getFuneralCosts() + 
-               data.getOtherDebts() - data.getSavings();
-    }
-    
-    private Double calculateHumanLifeValue(CalculationConfig.CalculationMethod methodConfig, 
-                                         InsuranceCalculationRequest data) {
-        // Get working years from configuration
-        Map<String, Object> workingYearsConfig = methodConfig.getWorkingYears();
-        int baseYears = ((Number) workingYearsConfig.get("base")).intValue();
-        
-        // Apply age adjustments
-        @SuppressWarnings("unchecked")
-        Map<String, Object> adjustments = (Map<String, Object>) workingYearsConfig.get("adjustments");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> ageAdjustments = (Map<String, Object>) adjustments.get("age");
-        int workingYears = getWorkingYears(ageAdjustments, data.getAge());
-        
-        double discountRate = methodConfig.getDiscountRate();
-        double annualCashFlow = data.getAnnualIncome() - data.getSpouseIncome();
-        
-        return calculatePresentValue(annualCashFlow, workingYears, discountRate);
-    }
-    
     private String generateFormula(CalculationConfig.CalculationMethod methodConfig, 
-                                 InsuranceCalculationRequest data) {
+                                 InsuranceCalculationRequest data, RateTables rateTables, double amount) {
         // Generate formula string based on method and data
         switch (methodConfig.getName()) {
             case "income-replacement":
-                double multiplier = getIncomeMultiplier(methodConfig, data);
-                return String.format("£%s × %.1f = £%s", 
-                    CURRENCY_FORMAT.format(data.getAnnualIncome()), 
-                    multiplier,
-                    CURRENCY_FORMAT.format(data.getAnnualIncome() * multiplier));
+                double multiplier = getIncomeMultiplier(data, rateTables);
+                StringBuilder incomeFormula = new StringBuilder();
+                incomeFormula.append('£');
+                CurrencyFormatter.append(incomeFormula, data.getAnnualIncome()).append(" × ");
+                CurrencyFormatter.appendFixed(incomeFormula, multiplier, 1).append(" = £");
+                CurrencyFormatter.append(incomeFormula, amount);
+                return incomeFormula.toString();
             case "dime":
-                return String.format("£%s + £%s + £%s + £%s = £%s",
-                    CURRENCY_FORMAT.format(data.getOtherDebts()),
-                    CURRENCY_FORMAT.format((data.getAnnualIncome() - data.getSpouseIncome()) * 20),
-                    CURRENCY_FORMAT.format(data.getMortgage()),
-                    CURRENCY_FORMAT.format(data.getEducationFund()),
-                    CURRENCY_FORMAT.format(calculateDIME(methodConfig, data)));
+                StringBuilder dimeFormula = new StringBuilder();
+                dimeFormula.append('£');
+                CurrencyFormatter.append(dimeFormula, data.getOtherDebts()).append(" + £");
+                CurrencyFormatter.append(dimeFormula, getDIMEIncomeNeeds(data, rateTables)).append(" + £");
+                CurrencyFormatter.append(dimeFormula, data.getMortgage()).append(" + £");
+                CurrencyFormatter.append(dimeFormula, data.getEducationFund()).append(" = £");
+                CurrencyFormatter.append(dimeFormula, amount);
+                return dimeFormula.toString();
             default:
                 return methodConfig.getFormula();
         }
@@ -200,21 +178,21 @@ public class ConfigurableCalculationService {
     }
     
     private Map<String, Double> generateBreakdown(CalculationConfig.CalculationMethod methodConfig, 
-                                                InsuranceCalculationRequest data) {
+                                                InsuranceCalculationRequest data, RateTables rateTables, double amount) {
         Map<String, Double> breakdown = new HashMap<>();
         
         switch (methodConfig.getName()) {
             case "income-replacement":
                 breakdown.put("annualIncome", data.getAnnualIncome());
-                breakdown.put("multiplier", getIncomeMultiplier(methodConfig, data));
-                breakdown.put("totalCoverage", calculateIncomeReplacement(methodConfig, data));
+                breakdown.put("multiplier", getIncomeMultiplier(data, rateTables));
+                breakdown.put("totalCoverage", amount);
                 break;
             case "dime":
                 breakdown.put("otherDebts", data.getOtherDebts());
-                breakdown.put("incomeNeeds", (data.getAnnualIncome() - data.getSpouseIncome()) * 20);
+                breakdown.put("incomeNeeds", getDIMEIncomeNeeds(data, rateTables));
                 breakdown.put("mortgage", data.getMortgage());
                 breakdown.put("educationFund", data.getEducationFund());
-                breakdown.put("totalCoverage", calculateDIME(methodConfig, data));
+                breakdown.put("totalCoverage", amount);
                 break;
         }
         
@@ -228,19 +206,26 @@ public class ConfigurableCalculationService {
         double totalWeight = 0.0;
         double weightedSum = 0.0;
         
-        for (Map.Entry<String, CalculationMethod> entry : calculations.entrySet()) {
-            String methodName = entry.getKey();
-            Double weight = weights.get(methodName);
-            if (weight != null) {
-                weightedSum += entry.getValue().getAmount() * weight;
+        // Summed in configured method order, so the result never depends on map iteration order
+        for (CalculationConfig.CalculationMethod methodConfig : config.getMethods()) {
+            Double weight = weights.get(methodConfig.getName());
+            CalculationMethod method = calculations.get(methodConfig.getName());
+            if (weight != null && method != null) {
+                weightedSum += method.getAmount() * weight;
                 totalWeight += weight;
             }
         }
         
         double recommendedAmount = totalWeight > 0 ? weightedSum / totalWeight : 0.0;
-        
+        return limitAndRound(recommendedAmount, config.getRecommendation());
+    }
+    
+    /**
+     * Apply the configured coverage limits and rounding.
+     */
+    static double limitAndRound(double recommendedAmount, CalculationConfig.RecommendationConfig recommendation) {
         // Apply limits from configuration
-        CalculationConfig.Limits limits = config.getRecommendation().getLimits();
+        CalculationConfig.Limits limits = recommendation.getLimits();
         if (limits.getMinimum() != null && recommendedAmount < limits.getMinimum()) {
             recommendedAmount = limits.getMinimum();
         }
@@ -249,7 +234,7 @@ public class ConfigurableCalculationService {
         }
         
         // Apply rounding from configuration
-        CalculationConfig.Rounding rounding = config.getRecommendation().getRounding();
+        CalculationConfig.Rounding rounding = recommendation.getRounding();
         if (rounding.getMethod().equals("nearest")) {
             int increment = rounding.getIncrement();
             recommendedAmount = Math.round(recommendedAmount / increment) * increment;
@@ -258,32 +243,57 @@ public class ConfigurableCalculationService {
         return recommendedAmount;
     }
     
-    private PremiumEstimate estimatePremium(double coverageAmount, 
+    PremiumEstimate estimatePremium(double coverageAmount, 
                                           InsuranceCalculationRequest data,
-                                          CalculationConfig.CalculationType config) {
-        CalculationConfig.PremiumConfig premiumConfig = config.getPremium();
-        double baseRate = premiumConfig.getBaseRate();
-        
-        // Apply factors from configuration
-        double ageFactor = getPremiumFactor(premiumConfig, "age", data.getAge());
-        double smokingFactor = getPremiumFactor(premiumConfig, "smoking", data.getSmoking());
-        double genderFactor = getPremiumFactor(premiumConfig, "gender", data.getGender());
-        double termFactor = getPremiumFactor(premiumConfig, "coveragePeriod", data.getCoveragePeriod());
-        double inflationFactor = getPremiumFactor(premiumConfig, "inflationProtection", data.getInflationProtection());
-        
-        double monthlyRate = baseRate * ageFactor * smokingFactor * genderFactor * termFactor * inflationFactor;
+                                          CalculationConfigSnapshot snapshot,
+                                          DetailLevel detail) {
+        CalculationEvents.PremiumEstimated event = new CalculationEvents.PremiumEstimated();
+        event.begin();
+        RateTables rateTables = snapshot.getRateTables();
+        MortalityTables mortality = rateTables.premiumFromMortality() ? mortalityTableService.getTables() : null;
+        
+        double monthlyRate = monthlyPremiumRate(rateTables, mortality, data.getAge(),
+            RateTables.genderIndex(data.getGender()), RateTables.smokingIndex(data.getSmoking()),
+            RateTables.periodIndex(data.getCoveragePeriod()), RateTables.inflationIndex(data.getInflationProtection()));
         double monthlyPremium = coverageAmount * monthlyRate;
         double annualPremium = monthlyPremium * 12;
+        if (event.shouldCommit()) {
+            CalculationEvents.describe(event, "configurable", data);
+            event.coverage = coverageAmount;
+            event.annualPremium = annualPremium;
+            event.commit();
+        }
         
         PremiumEstimate estimate = new PremiumEstimate();
         estimate.setMonthly(monthlyPremium);
         estimate.setAnnual(annualPremium);
-        estimate.setExplanation("Premium calculated based on coverage amount and risk factors");
+        if (detail != DetailLevel.NONE) {
+            estimate.setExplanation("Premium calculated based on coverage amount and risk factors");
+        }
         
         return estimate;
     }
     
-    private List<Recommendation> generateRecommendations(Map<String, CalculationMethod> calculations, 
+    /**
+     * Monthly premium for £1 of cover, from the factor tables or, when premium.basis is
+     * "mortality", the level term premium in the mortality tables. Shared with
+     * {@link PortfolioRepricer} so both price alike.
+     */
+    static double monthlyPremiumRate(RateTables rateTables, MortalityTables mortality,
+                                     int age, int gender, int smoking, int period, int inflation) {
+        if (rateTables.premiumFromMortality()) {
+            double annualRate = mortality.levelTermPremiumRate(age, gender, smoking, MortalityTables.termYears(period));
+            // Anything the tables do not cover is priced from the factor tables
+            if (!Double.isNaN(annualRate)) {
+                return annualRate * (1 + rateTables.premiumExpenseLoading()) * rateTables.premiumInflationFactor(inflation) / 12;
+            }
+        }
+        return rateTables.premiumBaseRate() * rateTables.premiumAgeFactor(age) * rateTables.premiumSmokingFactor(smoking)
+            * rateTables.premiumGenderFactor(gender) * rateTables.premiumTermFactor(period)
+            * rateTables.premiumInflationFactor(inflation);
+    }
+    
+    List<Recommendation> generateRecommendations(Map<String, CalculationMethod> calculations, 
                                                        InsuranceCalculationRequest data,
                                                        CalculationConfig.CalculationType config) {
         List<Recommendation> recommendations = new ArrayList<>();
@@ -302,91 +312,23 @@ public class ConfigurableCalculationService {
         // Generate explanation based on configuration and calculation results
         // This maintains the same logic as the original implementation
         return "Based on your financial situation and family needs, we recommend £" + 
-               CURRENCY_FORMAT.format(recommendedCoverage) + " in life insurance coverage.";
+               CurrencyFormatter.format(recommendedCoverage) + " in life insurance coverage.";
     }
     
     // Helper methods for factor calculations
-    private double getAgeFactor(Map<String, Object> ageAdjustments, int age) {
-        if (age >= 18 && age <= 30) return ((Number) ageAdjustments.get("18-30")).doubleValue();
-        if (age >= 31 && age <= 50) return ((Number) ageAdjustments.get("31-50")).doubleValue();
-        if (age >= 51 && age <= 80) return ((Number) ageAdjustments.get("51-80")).doubleValue();
-        return 1.0;
-    }
-    
-    private double getDependentsFactor(Map<String, Object> dependentsAdjustments, int dependents) {
-        if (dependents == 0) return ((Number) dependentsAdjustments.get("0")).doubleValue();
-        if (dependents >= 1 && dependents <= 2) return ((Number) dependentsAdjustments.get("1-2")).doubleValue();
-        if (dependents >= 3) return ((Number) dependentsAdjustments.get("3+")).doubleValue();
-        return 1.0;
-    }
-    
-    private double getPeriodFactor(Map<String, Object> periodAdjustments, String period) {
-        Object factor = periodAdjustments.get(period);
-        return factor != null ? ((Number) factor).doubleValue() : 1.0;
-    }
-    
-    private int getAgeYears(Map<String, Object> ageAdjustments, int age) {
-        if (age >= 18 && age <= 30) return ((Number) ageAdjustments.get("18-30")).intValue();
-        if (age >= 31 && age <= 40) return ((Number) ageAdjustments.get("31-40")).intValue();
-        if (age >= 41 && age <= 50) return ((Number) ageAdjustments.get("41-50")).intValue();
-        if (age >= 51 && age <= 60) return ((Number) ageAdjustments.get("51-60")).intValue();
-        if (age >= 61 && age <= 80) return ((Number) ageAdjustments.get("61-80")).intValue();
-        return 20;
-    }
-    
-    private int getDependentsYears(Map<String, Object> dependentsAdjustments, int dependents) {
-        if (dependents == 0) return ((Number) dependentsAdjustments.get("0")).intValue();
-        if (dependents >= 1 && dependents <= 2) return ((Number) dependentsAdjustments.get("1-2")).intValue();
-        if (dependents >= 3) return ((Number) dependentsAdjustments.get("3+")).intValue();
-        return 20;
-    }
-    
-    private int getWorkingYears(Map<String, Object> ageAdjustments, int age) {
-        if (age >= 18 && age <= 30) return ((Number) ageAdjustments.get("18-30")).intValue();
-        if (age >= 31 && age <= 40) return ((Number) ageAdjustments.get("31-40")).intValue();
-        if (age >= 41 && age <= 50) return ((Number) ageAdjustments.get("41-50")).intValue();
-        if (age >= 51 && age <= 60) return ((Number) ageAdjustments.get("51-60")).intValue();
-        if (age >= 61 && age <= 80) return ((Number) ageAdjustments.get("61-80")).intValue();
-        return 20;
-    }
-    
-    private double getIncomeMultiplier(CalculationConfig.CalculationMethod methodConfig, 
-                                     InsuranceCalculationRequest data) {
-        Map<String, Object> multiplierConfig = methodConfig.getMultiplier();
-        int baseMultiplier = ((Number) multiplierConfig.get("base")).intValue();
-        
-        @SuppressWarnings("unchecked")
-        Map<String, Object> adjustments = (Map<String, Object>) multiplierConfig.get("adjustments");
-        @SuppressWarnings("unchecked")
-        Map<String, Object> ageAdjustments = (Map<String, Object>) adjustments.get("age");
-        double ageFactor = getAgeFactor(ageAdjustments, data.getAge());
-        
-        @SuppressWarnings("unchecked")
-        Map<String, Object> dependentsAdjustments = (Map<String, Object>) adjustments.get("dependents");
-        double dependentsFactor = getDependentsFactor(dependentsAdjustments, data.getDependents());
-        
-        @SuppressWarnings("unchecked")
-        Map<String, Object> periodAdjustments = (Map<String, Object>) adjustments.get("coveragePeriod");
-        double periodFactor = getPeriodFactor(periodAdjustments, data.getCoveragePeriod());
-        
-        return baseMultiplier * ageFactor * dependentsFactor * periodFactor;
+    private double getIncomeMultiplier(InsuranceCalculationRequest data, RateTables rateTables) {
+        return rateTables.incomeMultiplier(data.getAge(), data.getDependents(),
+            RateTables.periodIndex(data.getCoveragePeriod()));
     }
     
-    private double getPremiumFactor(CalculationConfig.PremiumConfig premiumConfig, 
-                                  String factorType, Object value) {
-        CalculationConfig.Factor factor = premiumConfig.getFactors().get(factorType);
-        String source = factor.getSource();
-        Map<String, Double> factorTable = premiumConfig.getFactorTables().get(source);
-        
-        Object factorValue = factorTable.get(value.toString());
-        return factorValue != null ? ((Number) factorValue).doubleValue() : 1.0;
+    private double getDIMEIncomeNeeds(InsuranceCalculationRequest data, RateTables rateTables) {
+        int incomeYears = rateTables.dimeIncomeYears(RateTables.periodIndex(data.getCoveragePeriod()));
+        return (data.getAnnualIncome() - data.getSpouseIncome()) * incomeYears;
     }
     
-    private double calculatePresentValue(double annualCashFlow, int years, double discountRate) {
-        if (discountRate == 0) {
-            return annualCashFlow * years;
-        }
-        return annualCashFlow * (1 - Math.pow(1 + discountRate, -years)) / discountRate;
+    double calculatePresentValue(double annualCashFlow, int years, double discountRate) {
+        // Same annuity tables and whole-pound rounding as the legacy engine
+        return Math.round(annuityCalculator.presentValue(annualCashFlow, years, discountRate));
     }
     
     private Map<String, Object> convertDataSourcesToMap(List<CalculationConfig.DataSource> dataSources) {
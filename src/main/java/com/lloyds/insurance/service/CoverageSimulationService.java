@@ -0,0 +1,331 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.CalculationProgress;
+import com.lloyds.insurance.dto.CoverageSimulationResponse;
+import com.lloyds.insurance.dto.CoverageSimulationResponse.Distribution;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monte Carlo view of how much cover a customer needs when interest rates and inflation are
+ * not fixed. Needs analysis assumes flat expenses and Human Life Value a fixed discount rate;
+ * here each path draws yearly rates that mean-revert to the current UK base rate and
+ * inflation from {@link UKDataService}, and the response reports the spread of both amounts.
+ *
+ * Paths are simulated in blocks on a fork-join pool. The work is split in halves down to
+ * single blocks, and each half takes its own {@link SplittableRandom} split from its parent,
+ * so a given seed and path count always draw the same numbers whatever the thread count or
+ * scheduling. A run stops starting new blocks once its time budget is spent and reports the
+ * paths finished so far, so a large run still answers in time; it is marked incomplete.
+ */
+@Service
+public class CoverageSimulationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverageSimulationService.class);
+
+    // Paths per leaf task; also the unit in which a run is cut short
+    static final int BLOCK_SIZE = 1024;
+
+    // Keeps the discount factor finite on paths where rates drift far below zero
+    private static final double MIN_RATE = -0.02;
+
+    @Autowired
+    private UKDataService ukDataService;
+
+    @Autowired
+    private CalculationConfigService calculationConfigService;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Value("${insurance.simulation.parallelism:0}")
+    private int parallelism;
+
+    @Value("${insurance.simulation.default-paths:10000}")
+    private int defaultPaths;
+
+    @Value("${insurance.simulation.max-paths:100000}")
+    private int maxPaths;
+
+    @Value("${insurance.simulation.time-budget-ms:2000}")
+    private long timeBudgetMillis;
+
+    // Yearly standard deviation of the rate and inflation shocks
+    @Value("${insurance.simulation.rate-volatility:0.01}")
+    private double rateVolatility;
+
+    @Value("${insurance.simulation.inflation-volatility:0.01}")
+    private double inflationVolatility;
+
+    // Share of the gap to the current rate closed each year
+    @Value("${insurance.simulation.mean-reversion:0.2}")
+    private double meanReversion;
+
+    // Correlation between the rate and inflation shocks
+    @Value("${insurance.simulation.correlation:0.5}")
+    private double correlation;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("coverage-sim-" + counter.incrementAndGet());
+            return thread;
+        }, null, false);
+        logger.info("Coverage simulation pool started with {} worker threads", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Simulate a validated request. A null path count uses the default and a null seed picks
+     * one at random; the seed used is returned so the run can be repeated. Progress is
+     * reported to the given session if any.
+     */
+    public CoverageSimulationResponse simulate(InsuranceCalculationRequest request, Integer paths, Long seed, String progressId) {
+        return simulate(request, paths, seed, progressId, System.nanoTime() + timeBudgetMillis * 1_000_000);
+    }
+
+    CoverageSimulationResponse simulate(InsuranceCalculationRequest request, Integer paths, Long seed, String progressId,
+                                        long deadlineNanos) {
+        int count = paths != null ? paths : defaultPaths;
+        if (count < 1 || count > maxPaths) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "paths must be between 1 and " + maxPaths);
+        }
+        long runSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        long start = System.currentTimeMillis();
+
+        MarketDataSnapshot market = ukDataService.getSnapshot();
+        RateTables tables = calculationConfigService.getSnapshot().getRateTables();
+        Run run = new Run(request, tables, market, count, progressId, deadlineNanos);
+        pool.invoke(run.new Block(0, count, new SplittableRandom(runSeed)));
+
+        long elapsed = System.currentTimeMillis() - start;
+        CoverageSimulationResponse response = run.response(runSeed, elapsed);
+        if (!response.isComplete()) {
+            logger.info("Coverage simulation stopped at its time budget after {} of {} paths",
+                response.getPathsSimulated(), count);
+        }
+        if (run.progress != null) {
+            run.progress.finished(response.getPathsSimulated(), elapsed);
+        }
+        return response;
+    }
+
+    private static Distribution distribution(double[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+        Arrays.sort(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return new Distribution(Math.round(sum / values.length), Math.round(values[0]),
+            Math.round(percentile(values, 0.50)), Math.round(percentile(values, 0.90)),
+            Math.round(percentile(values, 0.99)), Math.round(values[values.length - 1]));
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static double percentile(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * One simulation: the customer's inputs, the per-path results and which blocks finished.
+     * Each block writes only its own slice, and the pool's join publishes it to the caller.
+     */
+    private final class Run {
+        private final double annualExpenses;
+        private final double annualIncome;
+        private final double lumpSum;
+        private final int yearsOfSupport;
+        private final int workingYears;
+        private final int horizon;
+        private final double baseRate;
+        private final double inflationRate;
+        private final long deadlineNanos;
+        private final double[] needs;
+        private final double[] humanLifeValue;
+        private final boolean[] finished;
+        private final SimulationProgress progress;
+
+        private Run(InsuranceCalculationRequest request, RateTables tables, MarketDataSnapshot market, int paths,
+                    String progressId, long deadlineNanos) {
+            this.annualExpenses = request.getMonthlyExpenses() * 12;
+            this.annualIncome = request.getAnnualIncome();
+            // Paid once, as in needs analysis
+            this.lumpSum = request.getFuneralCosts() + request.getTotalDebts() * Formula.OTHER_DEBTS_SHARE - request.getSavings();
+            this.yearsOfSupport = Math.min(tables.needsAgeYears(request.getAge()),
+                tables.needsDependentsYears(request.getDependents()));
+            this.workingYears = tables.workingYears(request.getAge(), RateTables.periodIndex(request.getCoveragePeriod()));
+            this.horizon = Math.max(yearsOfSupport, workingYears);
+            this.baseRate = market.getBaseRate();
+            this.inflationRate = market.getInflationRate();
+            this.deadlineNanos = deadlineNanos;
+            this.needs = new double[paths];
+            this.humanLifeValue = new double[paths];
+            this.finished = new boolean[(paths + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            this.progress = progressId != null ? new SimulationProgress(progressId, paths) : null;
+        }
+
+        private void simulate(int from, int to, SplittableRandom random) {
+            double shockWeight = Math.sqrt(1 - correlation * correlation);
+            for (int path = from; path < to; path++) {
+                double rate = baseRate;
+                double inflation = inflationRate;
+                double discount = 1;
+                double growth = 1;
+                double expensesValue = 0;
+                double incomeValue = 0;
+                for (int year = 1; year <= horizon; year++) {
+                    // Paid at the end of the year, discounted at that year's rate; the first
+                    // year uses today's rates and expenses
+                    discount /= 1 + rate;
+                    if (year <= yearsOfSupport) {
+                        expensesValue += annualExpenses * growth * discount;
+                    }
+                    if (year <= workingYears) {
+                        incomeValue += annualIncome * discount;
+                    }
+                    growth *= 1 + inflation;
+                    double rateShock = random.nextGaussian();
+                    double inflationShock = correlation * rateShock + shockWeight * random.nextGaussian();
+                    rate = Math.max(MIN_RATE, rate + meanReversion * (baseRate - rate) + rateVolatility * rateShock);
+                    inflation += meanReversion * (inflationRate - inflation) + inflationVolatility * inflationShock;
+                }
+                needs[path] = expensesValue + lumpSum;
+                humanLifeValue[path] = incomeValue;
+            }
+        }
+
+        private CoverageSimulationResponse response(long seed, long elapsedMs) {
+            int simulated = 0;
+            for (int block = 0; block < finished.length; block++) {
+                if (finished[block]) {
+                    simulated += Math.min(BLOCK_SIZE, needs.length - block * BLOCK_SIZE);
+                }
+            }
+            double[] needsDone = new double[simulated];
+            double[] humanLifeValueDone = new double[simulated];
+            int next = 0;
+            for (int block = 0; block < finished.length; block++) {
+                if (finished[block]) {
+                    int from = block * BLOCK_SIZE;
+                    int length = Math.min(BLOCK_SIZE, needs.length - from);
+                    System.arraycopy(needs, from, needsDone, next, length);
+                    System.arraycopy(humanLifeValue, from, humanLifeValueDone, next, length);
+                    next += length;
+                }
+            }
+
+            CoverageSimulationResponse response = new CoverageSimulationResponse();
+            response.setSeed(seed);
+            response.setPathsRequested(needs.length);
+            response.setPathsSimulated(simulated);
+            response.setComplete(simulated == needs.length);
+            response.setDurationMs(elapsedMs);
+            response.setBaseRate(baseRate);
+            response.setInflationRate(inflationRate);
+            response.setYearsOfSupport(yearsOfSupport);
+            response.setWorkingYears(workingYears);
+            response.setNeedsAnalysis(distribution(needsDone));
+            response.setHumanLifeValue(distribution(humanLifeValueDone));
+            return response;
+        }
+
+        /**
+         * Paths [from, to), split in half down to single blocks. The left half always takes
+         * the split stream and the right half keeps its parent's, which fixes the numbers
+         * each block draws.
+         */
+        private final class Block extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final int from;
+            private final int to;
+            private final SplittableRandom random;
+
+            private Block(int from, int to, SplittableRandom random) {
+                this.from = from;
+                this.to = to;
+                this.random = random;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= BLOCK_SIZE) {
+                    if (System.nanoTime() - deadlineNanos >= 0) {
+                        return;
+                    }
+                    simulate(from, to, random);
+                    finished[from / BLOCK_SIZE] = true;
+                    if (progress != null) {
+                        progress.pathsDone(to - from);
+                    }
+                    return;
+                }
+                int blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                int middle = from + blocks / 2 * BLOCK_SIZE;
+                invokeAll(new Block(from, middle, random.split()), new Block(middle, to, random));
+            }
+        }
+    }
+
+    /**
+     * Reports simulated paths to a progress session, scaled to the session's step count,
+     * once per finished block.
+     */
+    private final class SimulationProgress {
+        private final String sessionId;
+        private final int total;
+        private final int steps;
+        private final AtomicInteger done = new AtomicInteger();
+
+        private SimulationProgress(String sessionId, int total) {
+            CalculationProgress session = progressService.getProgress(sessionId);
+            this.sessionId = sessionId;
+            this.total = total;
+            this.steps = session != null ? session.getTotalSteps() : 1;
+            progressService.updateProgress(sessionId, 0, "Simulating paths", "0 of " + total);
+        }
+
+        private void pathsDone(int paths) {
+            int completed = done.addAndGet(paths);
+            if (completed < total) {
+                // The final step is only reported once the distribution has been assembled
+                int step = Math.min(steps - 1, (int) ((long) completed * steps / total));
+                progressService.updateProgress(sessionId, step, "Simulating paths", completed + " of " + total);
+            }
+        }
+
+        private void finished(int simulated, long elapsedMs) {
+            progressService.addCompletedStep(sessionId, "Simulating paths", simulated + " of " + total + " paths simulated",
+                elapsedMs, simulated == total);
+            progressService.updateProgress(sessionId, steps, "Complete", simulated + " of " + total);
+        }
+    }
+}
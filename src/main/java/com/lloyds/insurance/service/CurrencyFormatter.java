@@ -0,0 +1,79 @@
+package com.lloyds.insurance.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats amounts for quote explanations without {@link DecimalFormat} or
+ * {@link String#format}.
+ *
+ * Whole-pound amounts come out exactly as {@code new DecimalFormat("#,###")} prints them in
+ * the UK locale: half-even rounding, comma grouping, and "-0" for negative amounts that
+ * round to zero. The class holds no state, so it is safe to share between request threads,
+ * and digits are written straight into the caller's StringBuilder.
+ */
+public final class CurrencyFormatter {
+
+    // Above this the digits no longer fit a long; such amounts go through DecimalFormat
+    private static final double MAX_FAST_AMOUNT = 1e18;
+
+    private CurrencyFormatter() {
+    }
+
+    /**
+     * Whole pounds with thousands separators, e.g. 1234567.5 → "1,234,568".
+     */
+    public static String format(double amount) {
+        return append(new StringBuilder(16), amount).toString();
+    }
+
+    /**
+     * Append whole pounds with thousands separators and return the builder.
+     */
+    public static StringBuilder append(StringBuilder sb, double amount) {
+        if (Double.isNaN(amount) || Math.abs(amount) >= MAX_FAST_AMOUNT) {
+            return sb.append(new DecimalFormat("#,###", DecimalFormatSymbols.getInstance(Locale.UK)).format(amount));
+        }
+        // Sign bit rather than < 0, so -0.0 prints "-0" as DecimalFormat does
+        if (Double.doubleToRawLongBits(amount) < 0) {
+            sb.append('-');
+        }
+        long pounds = (long) Math.abs(Math.rint(amount));
+
+        long divisor = 1;
+        int digits = 1;
+        while (pounds / divisor >= 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (int remaining = digits; remaining > 0; remaining--) {
+            sb.append((char) ('0' + (pounds / divisor) % 10));
+            if (remaining > 1 && (remaining - 1) % 3 == 0) {
+                sb.append(',');
+            }
+            divisor /= 10;
+        }
+        return sb;
+    }
+
+    /**
+     * Append a value with a fixed number of decimal places, matching {@code %.Nf}: half-up
+     * rounding of the shortest decimal representation, no grouping.
+     */
+    public static StringBuilder appendFixed(StringBuilder sb, double value, int decimals) {
+        if (Double.isNaN(value)) {
+            return sb.append("NaN");
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+            value = -value;
+        }
+        if (Double.isInfinite(value)) {
+            return sb.append("Infinity");
+        }
+        return sb.append(BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+    }
+}
@@ -0,0 +1,64 @@
+package com.lloyds.insurance.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Runs a callback on a daemon thread whenever a file changes.
+ *
+ * Any change in the file's directory counts, since mounted config is often swapped in
+ * through a symlink rather than by writing the file itself. Events are collected for the
+ * settle delay and handled once, and nothing runs while the file is missing mid-replacement.
+ */
+final class FileWatcher implements Closeable {
+
+    private final WatchService watchService;
+
+    private FileWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    static FileWatcher start(Path path, long settleMillis, String threadName, Runnable onChange) throws IOException {
+        WatchService watchService = path.getFileSystem().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread thread = new Thread(() -> watch(watchService, path, settleMillis, onChange), threadName);
+        thread.setDaemon(true);
+        thread.start();
+        return new FileWatcher(watchService);
+    }
+
+    private static void watch(WatchService watchService, Path path, long settleMillis, Runnable onChange) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                key.pollEvents();
+                key.reset();
+                // Fold the rest of a multi-step write into this change
+                Thread.sleep(settleMillis);
+                for (WatchKey more = watchService.poll(); more != null; more = watchService.poll()) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                if (Files.exists(path)) {
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
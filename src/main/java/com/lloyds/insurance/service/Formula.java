@@ -0,0 +1,479 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A calculation method's formula from calculation-config.yml, such as
+ * "monthlyExpenses * 12 * yearsOfSupport + funeralCosts + otherDebts - savings", compiled
+ * into a tree of closures over a slot array.
+ *
+ * Formulas are parsed and type-checked when the config is loaded, so an unknown name, a
+ * wrong argument count or a fractional number of years fails the load rather than a
+ * quote. The request fields and rate-table values a formula may use are the
+ * {@link Variable}s; each has a fixed slot, and a quote fills the slots it needs once
+ * ({@link #bind}) before evaluating every method's formula. Arithmetic is done in double
+ * and in source order, exactly as the same expression written in Java, so a formula
+ * gives bit-for-bit the result of the hand-written method it replaces.
+ *
+ * Grammar: numbers, variables, + - * / with the usual precedence, unary minus,
+ * parentheses and the functions presentValue(amount, years, rate), min(a, b) and max(a, b).
+ */
+public final class Formula {
+
+    /**
+     * Value types. Whole-year counts are INT; "/" always gives a NUMBER, never whole-number
+     * division.
+     */
+    public enum Type {
+        INT,
+        NUMBER
+    }
+
+    /**
+     * Names a formula may use, each with its type and how a quote fills its slot.
+     */
+    public enum Variable {
+        AGE("age", Type.INT),
+        DEPENDENTS("dependents", Type.INT),
+        ANNUAL_INCOME("annualIncome", Type.NUMBER),
+        MONTHLY_EXPENSES("monthlyExpenses", Type.NUMBER),
+        EXISTING_COVERAGE("existingCoverage", Type.NUMBER),
+        SAVINGS("savings", Type.NUMBER),
+        TOTAL_DEBTS("totalDebts", Type.NUMBER),
+        MORTGAGE("mortgage", Type.NUMBER),
+        OTHER_DEBTS("otherDebts", Type.NUMBER),
+        SPOUSE_INCOME("spouseIncome", Type.NUMBER),
+        FUNERAL_COSTS("funeralCosts", Type.NUMBER),
+        EDUCATION_FUND("educationFund", Type.NUMBER),
+        // Rate-table values for this customer
+        MULTIPLIER("multiplier", Type.NUMBER),
+        INCOME_YEARS("incomeYears", Type.INT),
+        INCOME_NEEDS("incomeNeeds", Type.NUMBER),
+        YEARS_OF_SUPPORT("yearsOfSupport", Type.INT),
+        WORKING_YEARS("workingYears", Type.INT),
+        DISCOUNT_RATE("discountRate", Type.NUMBER);
+
+        private final String name;
+        private final Type type;
+
+        Variable(String name, Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        static Variable named(String name) {
+            for (Variable variable : values()) {
+                if (variable.name.equals(name)) {
+                    return variable;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One compiled node: evaluates against the slot array of a quote.
+     */
+    @FunctionalInterface
+    interface Node {
+        double evaluate(double[] slots);
+    }
+
+    private static final int SLOTS = Variable.values().length;
+
+    // Requests only carry totalDebts; this is the split the deprecated mortgage and otherDebts getters assume
+    static final double MORTGAGE_SHARE = 0.7;
+    static final double OTHER_DEBTS_SHARE = 0.3;
+
+    private final String source;
+    private final Type type;
+    private final Node root;
+    private final Set<Variable> variables;
+
+    private Formula(String source, Type type, Node root, Set<Variable> variables) {
+        this.source = source;
+        this.type = type;
+        this.root = root;
+        this.variables = variables;
+    }
+
+    /**
+     * Parse, type-check and compile a formula. presentValue uses the given annuity tables,
+     * rounded to whole pounds as in both engines. Fails with an IllegalStateException
+     * naming the problem and its position.
+     */
+    public static Formula compile(String source, AnnuityCalculator annuityCalculator) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalStateException("Formula is empty");
+        }
+        Parser parser = new Parser(source, annuityCalculator);
+        Typed result = parser.expression();
+        parser.expectEnd();
+        return new Formula(source, result.type, result.node, parser.variables);
+    }
+
+    /**
+     * Fill the slots for the given variables from a request and the rate tables in use.
+     */
+    public static double[] bind(Variable[] variables, InsuranceCalculationRequest request, RateTables tables) {
+        double[] slots = new double[SLOTS];
+        int period = RateTables.periodIndex(request.getCoveragePeriod());
+        for (Variable variable : variables) {
+            slots[variable.ordinal()] = value(variable, request, tables, period);
+        }
+        return slots;
+    }
+
+    // One switch rather than a function per variable, so the whole bind loop inlines
+    private static double value(Variable variable, InsuranceCalculationRequest r, RateTables t, int period) {
+        switch (variable) {
+            case AGE: return r.getAge();
+            case DEPENDENTS: return r.getDependents();
+            case ANNUAL_INCOME: return r.getAnnualIncome();
+            case MONTHLY_EXPENSES: return r.getMonthlyExpenses();
+            case EXISTING_COVERAGE: return r.getExistingCoverage();
+            case SAVINGS: return r.getSavings();
+            case TOTAL_DEBTS: return r.getTotalDebts();
+            case FUNERAL_COSTS: return r.getFuneralCosts();
+            case EDUCATION_FUND: return r.getEducationFund();
+            default: return derived(variable, r.getAge(), r.getDependents(), period, r.getAnnualIncome(), r.getTotalDebts(), t);
+        }
+    }
+
+    /**
+     * A variable that is not a request field as it stands, derived from the fields it depends
+     * on. {@link PortfolioRepricer} fills its columns through this too, so both engines
+     * derive every variable the same way.
+     */
+    static double derived(Variable variable, int age, int dependents, int period, double annualIncome,
+                          double totalDebts, RateTables t) {
+        switch (variable) {
+            case MORTGAGE: return mortgage(totalDebts);
+            case OTHER_DEBTS: return otherDebts(totalDebts);
+            // No longer collected; always zero
+            case SPOUSE_INCOME: return 0.0;
+            case MULTIPLIER: return t.incomeMultiplier(age, dependents, period);
+            case INCOME_YEARS: return t.dimeIncomeYears(period);
+            case INCOME_NEEDS: return incomeNeeds(annualIncome, t.dimeIncomeYears(period));
+            case YEARS_OF_SUPPORT: return yearsOfSupport(t, age, dependents);
+            case WORKING_YEARS: return t.workingYears(age, period);
+            case DISCOUNT_RATE: return t.discountRate();
+            default: throw new IllegalArgumentException(variable.name);
+        }
+    }
+
+    static double mortgage(double totalDebts) {
+        return totalDebts * MORTGAGE_SHARE;
+    }
+
+    static double otherDebts(double totalDebts) {
+        return totalDebts * OTHER_DEBTS_SHARE;
+    }
+
+    static double incomeNeeds(double annualIncome, double incomeYears) {
+        return annualIncome * incomeYears;
+    }
+
+    static int yearsOfSupport(RateTables t, int age, int dependents) {
+        return Math.min(t.needsAgeYears(age), t.needsDependentsYears(dependents));
+    }
+
+    public double evaluate(double[] slots) {
+        return root.evaluate(slots);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The variables this formula reads, which {@link #bind} must fill.
+     */
+    public Set<Variable> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    // A compiled node with its static type; constant is non-null when the value is known at
+    // compile time, and slot is the variable's slot when the node just reads one
+    private static final class Typed {
+        final Type type;
+        final Node node;
+        final Double constant;
+        final int slot;
+
+        Typed(Type type, Node node, Double constant) {
+            this(type, node, constant, -1);
+        }
+
+        Typed(Type type, Node node, Double constant, int slot) {
+            this.type = type;
+            this.node = node;
+            this.constant = constant;
+            this.slot = slot;
+        }
+
+        static Typed constant(Type type, double value) {
+            return new Typed(type, slots -> value, value);
+        }
+
+        static Typed variable(Variable variable) {
+            int slot = variable.ordinal();
+            return new Typed(variable.type, slots -> slots[slot], null, slot);
+        }
+    }
+
+    /**
+     * Recursive descent over the formula text, compiling as it parses.
+     */
+    private static final class Parser {
+        private final String source;
+        private final AnnuityCalculator annuityCalculator;
+        private final Set<Variable> variables = EnumSet.noneOf(Variable.class);
+        private int position;
+
+        Parser(String source, AnnuityCalculator annuityCalculator) {
+            this.source = source;
+            this.annuityCalculator = annuityCalculator;
+        }
+
+        // expression := term (("+" | "-") term)*
+        Typed expression() {
+            Typed left = term();
+            for (char op = peek(); op == '+' || op == '-'; op = peek()) {
+                position++;
+                left = binary(op, left, term());
+            }
+            return left;
+        }
+
+        // term := unary (("*" | "/") unary)*
+        private Typed term() {
+            Typed left = unary();
+            for (char op = peek(); op == '*' || op == '/'; op = peek()) {
+                position++;
+                left = binary(op, left, unary());
+            }
+            return left;
+        }
+
+        // unary := "-" unary | primary
+        private Typed unary() {
+            if (peek() == '-') {
+                position++;
+                Typed operand = unary();
+                if (operand.constant != null) {
+                    return Typed.constant(operand.type, -operand.constant);
+                }
+                Node node = operand.node;
+                return new Typed(operand.type, slots -> -node.evaluate(slots), null);
+            }
+            return primary();
+        }
+
+        // primary := number | name | name "(" arguments ")" | "(" expression ")"
+        private Typed primary() {
+            char c = peek();
+            if (c == '(') {
+                position++;
+                Typed inner = expression();
+                expect(')');
+                return inner;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return number();
+            }
+            if (Character.isLetter(c)) {
+                int start = position;
+                String name = name();
+                if (peek() == '(') {
+                    position++;
+                    return function(name, start, arguments());
+                }
+                Variable variable = Variable.named(name);
+                if (variable == null) {
+                    throw error("unknown variable '" + name + "'", start);
+                }
+                variables.add(variable);
+                return Typed.variable(variable);
+            }
+            throw error(c == 0 ? "unexpected end of formula" : "unexpected '" + c + "'", position);
+        }
+
+        private Typed number() {
+            int start = position;
+            while (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                position++;
+            }
+            String text = source.substring(start, position);
+            try {
+                return Typed.constant(text.indexOf('.') < 0 ? Type.INT : Type.NUMBER, Double.parseDouble(text));
+            } catch (NumberFormatException e) {
+                throw error("bad number '" + text + "'", start);
+            }
+        }
+
+        private String name() {
+            int start = position;
+            while (position < source.length() && Character.isLetterOrDigit(source.charAt(position))) {
+                position++;
+            }
+            return source.substring(start, position);
+        }
+
+        private List<Typed> arguments() {
+            List<Typed> arguments = new ArrayList<>(3);
+            if (peek() == ')') {
+                position++;
+                return arguments;
+            }
+            arguments.add(expression());
+            while (peek() == ',') {
+                position++;
+                arguments.add(expression());
+            }
+            expect(')');
+            return arguments;
+        }
+
+        private Typed function(String name, int at, List<Typed> arguments) {
+            switch (name) {
+                case "presentValue": {
+                    arity(name, at, arguments, 3);
+                    if (arguments.get(1).type != Type.INT) {
+                        throw error("presentValue needs a whole number of years", at);
+                    }
+                    Node amount = arguments.get(0).node;
+                    Node years = arguments.get(1).node;
+                    Node rate = arguments.get(2).node;
+                    AnnuityCalculator annuity = annuityCalculator;
+                    return new Typed(Type.NUMBER, slots -> Math.round(annuity.presentValue(amount.evaluate(slots),
+                        (int) years.evaluate(slots), rate.evaluate(slots))), null);
+                }
+                case "min":
+                case "max": {
+                    arity(name, at, arguments, 2);
+                    Typed a = arguments.get(0);
+                    Typed b = arguments.get(1);
+                    Type type = a.type == Type.INT && b.type == Type.INT ? Type.INT : Type.NUMBER;
+                    Node left = a.node;
+                    Node right = b.node;
+                    return name.equals("min")
+                        ? new Typed(type, slots -> Math.min(left.evaluate(slots), right.evaluate(slots)), null)
+                        : new Typed(type, slots -> Math.max(left.evaluate(slots), right.evaluate(slots)), null);
+                }
+                default:
+                    throw error("unknown function '" + name + "'", at);
+            }
+        }
+
+        private void arity(String name, int at, List<Typed> arguments, int expected) {
+            if (arguments.size() != expected) {
+                throw error(name + " takes " + expected + " arguments but was given " + arguments.size(), at);
+            }
+        }
+
+        private static Typed binary(char op, Typed a, Typed b) {
+            Type type = op != '/' && a.type == Type.INT && b.type == Type.INT ? Type.INT : Type.NUMBER;
+            if (a.constant != null && b.constant != null) {
+                return Typed.constant(type, apply(op, a.constant, b.constant));
+            }
+            // Operands that are constants or plain variables are read in place rather than through
+            // another node; most formulas are little more than sums of products of variables
+            Node left = a.node;
+            Node right = b.node;
+            int i = a.slot;
+            int j = b.slot;
+            if (b.constant != null) {
+                double k = b.constant;
+                if (i >= 0) {
+                    switch (op) {
+                        case '+': return new Typed(type, slots -> slots[i] + k, null);
+                        case '-': return new Typed(type, slots -> slots[i] - k, null);
+                        case '*': return new Typed(type, slots -> slots[i] * k, null);
+                        default: return new Typed(type, slots -> slots[i] / k, null);
+                    }
+                }
+                switch (op) {
+                    case '+': return new Typed(type, slots -> left.evaluate(slots) + k, null);
+                    case '-': return new Typed(type, slots -> left.evaluate(slots) - k, null);
+                    case '*': return new Typed(type, slots -> left.evaluate(slots) * k, null);
+                    default: return new Typed(type, slots -> left.evaluate(slots) / k, null);
+                }
+            }
+            if (i >= 0 && j >= 0) {
+                switch (op) {
+                    case '+': return new Typed(type, slots -> slots[i] + slots[j], null);
+                    case '-': return new Typed(type, slots -> slots[i] - slots[j], null);
+                    case '*': return new Typed(type, slots -> slots[i] * slots[j], null);
+                    default: return new Typed(type, slots -> slots[i] / slots[j], null);
+                }
+            }
+            if (j >= 0) {
+                switch (op) {
+                    case '+': return new Typed(type, slots -> left.evaluate(slots) + slots[j], null);
+                    case '-': return new Typed(type, slots -> left.evaluate(slots) - slots[j], null);
+                    case '*': return new Typed(type, slots -> left.evaluate(slots) * slots[j], null);
+                    default: return new Typed(type, slots -> left.evaluate(slots) / slots[j], null);
+                }
+            }
+            switch (op) {
+                case '+': return new Typed(type, slots -> left.evaluate(slots) + right.evaluate(slots), null);
+                case '-': return new Typed(type, slots -> left.evaluate(slots) - right.evaluate(slots), null);
+                case '*': return new Typed(type, slots -> left.evaluate(slots) * right.evaluate(slots), null);
+                default: return new Typed(type, slots -> left.evaluate(slots) / right.evaluate(slots), null);
+            }
+        }
+
+        private static double apply(char op, double a, double b) {
+            switch (op) {
+                case '+': return a + b;
+                case '-': return a - b;
+                case '*': return a * b;
+                default: return a / b;
+            }
+        }
+
+        // Next non-space character without consuming it, or 0 at the end
+        private char peek() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+            return position < source.length() ? source.charAt(position) : 0;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw error("expected '" + c + "'", position);
+            }
+            position++;
+        }
+
+        void expectEnd() {
+            if (peek() != 0) {
+                throw error("unexpected '" + source.charAt(position) + "'", position);
+            }
+        }
+
+        private IllegalStateException error(String message, int at) {
+            return new IllegalStateException("Formula \"" + source + "\": " + message + " at position " + (at + 1));
+        }
+    }
+}
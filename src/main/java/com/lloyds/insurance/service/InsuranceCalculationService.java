@@ -1,21 +1,38 @@
 package com.lloyds.insurance.service;
 
+import com.lloyds.insurance.dto.DetailLevel;
 import com.lloyds.insurance.dto.InsuranceCalculationRequest;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse.CalculationMethod;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse.PremiumEstimate;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse.Recommendation;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 
-import java.text.DecimalFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class InsuranceCalculationService {
     
-    private static final DecimalFormat CURRENCY_FORMAT = new DecimalFormat("#,###");
+    private static final Logger logger = LoggerFactory.getLogger(InsuranceCalculationService.class);
+    
+    // Grid and live premiums are the same product of factors, multiplied in a different order
+    private static final double QUOTE_GRID_TOLERANCE = 1e-9;
+    
+    // Calculation keys in legacy responses and the calculation-config.yml method each corresponds to
+    static final Map<String, String> CONFIG_METHODS = Map.of(
+        "incomeReplacement", "income-replacement",
+        "dime", "dime",
+        "needsBased", "needs-analysis",
+        "humanLifeValue", "human-life-value");
     
     @Autowired
     private UKDataService ukDataService;
@@ -23,41 +40,129 @@ public class InsuranceCalculationService {
     @Autowired
     private ConfigurableCalculationService configurableService;
     
+    @Autowired
+    private AnnuityCalculator annuityCalculator;
+    
+    @Autowired
+    private CalculationMetrics calculationMetrics;
+    
+    @Value("${insurance.quote-grid.enabled:false}")
+    private boolean quoteGridEnabled;
+    
+    // Check every grid premium against the live calculation and serve the live value on a mismatch
+    @Value("${insurance.quote-grid.verify:false}")
+    private boolean quoteGridVerify;
+    
+    private volatile QuoteGrid quoteGrid;
+    
+    private final AtomicLong quoteGridMismatches = new AtomicLong();
+    
+    private final QuoteCoalescer<InsuranceCalculationResponse> coalescer = new QuoteCoalescer<>();
+    
+    /**
+     * Build (or rebuild, after market data or rates change) the precomputed premium grid.
+     */
+    @PostConstruct
+    public void rebuildQuoteGrid() {
+        if (quoteGridEnabled) {
+            long start = System.nanoTime();
+            quoteGrid = QuoteGrid.build(this::annualPremiumRate);
+            logger.info("Built quote grid of {} premium rates in {} ms", quoteGrid.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    /**
+     * Grid premiums are built from the ABI rate and mortality adjustments, so rebuild on refresh.
+     */
+    @EventListener
+    public void onMarketDataUpdated(MarketDataUpdatedEvent event) {
+        MarketDataSnapshot.Source source = event.getUpdatedSource();
+        if (source == MarketDataSnapshot.Source.ABI_RATE || source == MarketDataSnapshot.Source.MORTALITY) {
+            rebuildQuoteGrid();
+        }
+    }
+    
+    /**
+     * Grid premiums that disagreed with the live calculation while verification was on.
+     */
+    public long getQuoteGridMismatches() {
+        return quoteGridMismatches.get();
+    }
+    
     public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request) {
-        // Use original implementation for now
-        // TODO: Enable configurable service once fully tested
+        return calculateInsurance(request, DetailLevel.FULL);
+    }
+    
+    public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+        // Concurrent identical requests (double submits, retries) share one calculation
+        return coalescer.execute(QuoteKey.of(request, detail), () -> computeInsurance(request, detail));
+    }
+    
+    /**
+     * Identical quotes that joined an in-flight calculation instead of running their own.
+     */
+    public long getCoalescedQuotes() {
+        return coalescer.getCoalescedCount();
+    }
+    
+    private InsuranceCalculationResponse computeInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+        // Use original implementation for now; the configurable engine runs in shadow
+        // (ShadowCalculationService) until the two agree
+        CalculationMetrics.Engine metrics = calculationMetrics.legacy();
+        long start = System.nanoTime();
+        CalculationEvents.QuoteCalculated event = new CalculationEvents.QuoteCalculated();
+        event.begin();
+        // Explanations are rendered when the response is serialised, so they read a private
+        // copy of the request that the caller cannot change in the meantime
+        InsuranceCalculationRequest data = detail == DetailLevel.NONE ? request : new InsuranceCalculationRequest(request);
         
         // Perform all calculation methods
-        Map<String, CalculationMethod> calculations = performCalculations(request);
+        Map<String, CalculationMethod> calculations = performCalculations(data, detail);
+        long mark = CalculationMetrics.lap(metrics.performCalculations, start);
         
         // Calculate weighted recommendation
-        Double recommendedCoverage = calculateRecommendedCoverage(calculations, request);
-        
-        // Generate detailed explanation of recommendation
-        String detailedExplanation = generateRecommendationExplanation(calculations, recommendedCoverage, request);
+        Double recommendedCoverage = calculateRecommendedCoverage(calculations, data);
+        mark = CalculationMetrics.lap(metrics.calculateRecommendedCoverage, mark);
         
         // Generate premium estimate
-        PremiumEstimate premiumEstimate = estimatePremium(recommendedCoverage, request);
-        
-        // Generate personalized recommendations
-        List<Recommendation> recommendations = generateRecommendations(calculations, request);
+        PremiumEstimate premiumEstimate = estimatePremium(recommendedCoverage, data, detail);
+        mark = CalculationMetrics.lap(metrics.estimatePremium, mark);
         
         // Build response
         InsuranceCalculationResponse response = new InsuranceCalculationResponse();
         response.setRecommendedCoverage(recommendedCoverage);
-        response.setExplanation(detailedExplanation);
         response.setPremiumEstimate(premiumEstimate);
         response.setCalculations(calculations);
-        response.setRecommendations(recommendations);
+        
+        // Explanation and recommendations are rendered on demand, only when asked for
+        if (detail == DetailLevel.FULL) {
+            response.renderExplanationWith(() -> generateRecommendationExplanation(calculations, recommendedCoverage, data));
+        } else if (detail == DetailLevel.SUMMARY) {
+            response.renderExplanationWith(() -> "Based on four UK calculation methods, we recommend £" +
+                CurrencyFormatter.format(recommendedCoverage) + " in life insurance coverage.");
+        }
+        if (detail != DetailLevel.NONE) {
+            response.setRecommendations(generateRecommendations(calculations, data, detail));
+            CalculationMetrics.lap(metrics.generateRecommendations, mark);
+        }
         
         // Add data source information for transparency
         response.setDataSources(ukDataService.getDataSourceInfo());
         
+        CalculationMetrics.lap(metrics.quote, start);
+        if (event.shouldCommit()) {
+            CalculationEvents.describe(event, "legacy", data);
+            event.detail = detail.name();
+            event.recommendedCoverage = recommendedCoverage;
+            event.commit();
+        }
         return response;
     }
     
-    private Map<String, CalculationMethod> performCalculations(InsuranceCalculationRequest data) {
+    Map<String, CalculationMethod> performCalculations(InsuranceCalculationRequest data, DetailLevel detail) {
         Map<String, CalculationMethod> calculations = new HashMap<>();
+        CalculationMetrics.Engine metrics = calculationMetrics.legacy();
+        long mark = System.nanoTime();
         
         // 1. Income Replacement Method
         int incomeMultiplier = getIncomeMultiplier(data.getAge(), data.getDependents(), data.getCoveragePeriod());
@@ -65,25 +170,13 @@ public class InsuranceCalculationService {
         
         CalculationMethod incomeReplacement = new CalculationMethod();
         incomeReplacement.setAmount(incomeReplacementAmount);
-        incomeReplacement.setFormula(String.format("£%s × %d years = £%s", 
-            CURRENCY_FORMAT.format(data.getAnnualIncome()), 
-            incomeMultiplier,
-            CURRENCY_FORMAT.format(incomeReplacementAmount)));
-        
-        String incomeExplanation = String.format(
-            "Income Replacement Method: This method calculates coverage as a multiple of your annual income. " +
-            "Base multiplier: 10 years. Adjustments: %s. " +
-            "This ensures your family can maintain their lifestyle for %d years without your income.",
-            getMultiplierExplanation(data.getAge(), data.getDependents()),
-            incomeMultiplier
-        );
-        incomeReplacement.setExplanation(incomeExplanation);
         
         Map<String, Double> incomeBreakdown = new HashMap<>();
         incomeBreakdown.put("annualIncome", data.getAnnualIncome());
         incomeBreakdown.put("multiplier", (double) incomeMultiplier);
         incomeBreakdown.put("totalCoverage", incomeReplacementAmount);
         incomeReplacement.setBreakdown(incomeBreakdown);
+        mark = CalculationMetrics.lap(metrics.method(CONFIG_METHODS.get("incomeReplacement")), mark);
         
         // 2. DIME Method (Debt, Income, Mortgage, Education)
         int dimeIncomeYears = getDIMEIncomeYears(data.getCoveragePeriod());
@@ -92,25 +185,6 @@ public class InsuranceCalculationService {
         
         CalculationMethod dime = new CalculationMethod();
         dime.setAmount(dimeAmount);
-        dime.setFormula(String.format("£%s + £%s + £%s = £%s",
-            CURRENCY_FORMAT.format(data.getTotalDebts()),
-            CURRENCY_FORMAT.format(incomeNeeds),
-            CURRENCY_FORMAT.format(data.getEducationFund()),
-            CURRENCY_FORMAT.format(dimeAmount)));
-        
-        String dimeExplanation = String.format(
-            "DIME Method breaks down your needs into three categories:\n" +
-            "• Total Debts (£%s): All outstanding debts including mortgage, loans, credit cards\n" +
-            "• Income (£%s): %d years of income replacement (£%s annual income)\n" +
-            "• Education (£%s): Children's education fund\n" +
-            "This method ensures all major financial obligations are covered.",
-            CURRENCY_FORMAT.format(data.getTotalDebts()),
-            CURRENCY_FORMAT.format(incomeNeeds),
-            dimeIncomeYears,
-            CURRENCY_FORMAT.format(data.getAnnualIncome()),
-            CURRENCY_FORMAT.format(data.getEducationFund())
-        );
-        dime.setExplanation(dimeExplanation);
         
         Map<String, Double> dimeBreakdown = new HashMap<>();
         dimeBreakdown.put("totalDebts", data.getTotalDebts());
@@ -118,6 +192,7 @@ public class InsuranceCalculationService {
         dimeBreakdown.put("education", data.getEducationFund());
         dimeBreakdown.put("total", dimeAmount);
         dime.setBreakdown(dimeBreakdown);
+        mark = CalculationMetrics.lap(metrics.method(CONFIG_METHODS.get("dime")), mark);
         
         // 3. Comprehensive Needs Analysis
         double annualExpenses = data.getMonthlyExpenses() * 12;
@@ -128,33 +203,6 @@ public class InsuranceCalculationService {
         
         CalculationMethod needsBased = new CalculationMethod();
         needsBased.setAmount(needsBasedAmount);
-        needsBased.setFormula(String.format("(£%s × 12 × %d) + £%s + £%s + £%s = £%s",
-            CURRENCY_FORMAT.format(data.getMonthlyExpenses()),
-            yearsOfSupport,
-            CURRENCY_FORMAT.format(immediateNeeds),
-            CURRENCY_FORMAT.format(data.getTotalDebts()),
-            CURRENCY_FORMAT.format(data.getEducationFund()),
-            CURRENCY_FORMAT.format(needsBasedAmount)));
-        
-        String needsExplanation = String.format(
-            "Comprehensive Needs Analysis provides the most detailed calculation:\n" +
-            "• Living Expenses: £%s/month × 12 × %d years = £%s\n" +
-            "• Immediate Needs: £%s funeral costs + £%s (6 months expenses) = £%s\n" +
-            "• Total Debts: £%s (including mortgage, loans, credit cards)\n" +
-            "• Education Fund: £%s\n" +
-            "Years of support calculated based on your age (%d) and dependents (%d).",
-            CURRENCY_FORMAT.format(data.getMonthlyExpenses()),
-            yearsOfSupport,
-            CURRENCY_FORMAT.format(totalExpenseNeeds),
-            CURRENCY_FORMAT.format(data.getFuneralCosts()),
-            CURRENCY_FORMAT.format(data.getMonthlyExpenses() * 6),
-            CURRENCY_FORMAT.format(immediateNeeds),
-            CURRENCY_FORMAT.format(data.getTotalDebts()),
-            CURRENCY_FORMAT.format(data.getEducationFund()),
-            data.getAge(),
-            data.getDependents()
-        );
-        needsBased.setExplanation(needsExplanation);
         
         Map<String, Double> needsBreakdown = new HashMap<>();
         needsBreakdown.put("livingExpenses", totalExpenseNeeds);
@@ -163,6 +211,7 @@ public class InsuranceCalculationService {
         needsBreakdown.put("education", data.getEducationFund());
         needsBreakdown.put("total", needsBasedAmount);
         needsBased.setBreakdown(needsBreakdown);
+        mark = CalculationMetrics.lap(metrics.method(CONFIG_METHODS.get("needsBased")), mark);
         
         // 4. Human Life Value Method (UK Actuarial Standards)
         // Based on UK CMI (Continuous Mortality Investigation) and ABI guidelines
@@ -171,55 +220,121 @@ public class InsuranceCalculationService {
         
         // UK Standard: Use full working years for Human Life Value calculation
         // This represents the true economic value of the individual's life
-        double presentValue = calculatePresentValue(netIncome, workingYears, 0.03);
+        double presentValue = calculatePresentValue(netIncome, workingYears, AnnuityCalculator.DEFAULT_DISCOUNT_RATE);
         
         CalculationMethod humanLifeValue = new CalculationMethod();
         humanLifeValue.setAmount(presentValue);
-        humanLifeValue.setFormula(String.format("PV of £%s over %d years at 3%% discount = £%s",
-            CURRENCY_FORMAT.format(netIncome),
-            workingYears,
-            CURRENCY_FORMAT.format(presentValue)));
-        
-        String hlvExplanation = String.format(
-            "Human Life Value Method (UK Actuarial Standard):\n" +
-            "• Annual Income: £%s\n" +
-            "• Working Years Remaining: 65 - %d = %d years\n" +
-            "• Discount Rate: 3%% (UK long-term inflation + investment return)\n" +
-            "• Present Value Formula: Σ(Annual Income ÷ (1.03)ⁿ) for n=1 to %d\n" +
-            "This represents the true economic value of your life to your family based on UK CMI standards.",
-            CURRENCY_FORMAT.format(data.getAnnualIncome()),
-            data.getAge(),
-            workingYears,
-            workingYears
-        );
-        humanLifeValue.setExplanation(hlvExplanation);
         
         Map<String, Double> hlvBreakdown = new HashMap<>();
         hlvBreakdown.put("netAnnualIncome", netIncome);
         hlvBreakdown.put("workingYears", (double) workingYears);
-        hlvBreakdown.put("discountRate", 0.03);
+        hlvBreakdown.put("discountRate", AnnuityCalculator.DEFAULT_DISCOUNT_RATE);
         hlvBreakdown.put("presentValue", presentValue);
         humanLifeValue.setBreakdown(hlvBreakdown);
         
         // Adjust for existing coverage and assets
         double existingAssets = data.getExistingCoverage() + (data.getSavings() * 0.7);
-        String adjustmentExplanation = String.format(
-            "Existing coverage (£%s) + 70%% of savings (£%s) = £%s total adjustments",
-            CURRENCY_FORMAT.format(data.getExistingCoverage()),
-            CURRENCY_FORMAT.format(data.getSavings() * 0.7),
-            CURRENCY_FORMAT.format(existingAssets)
-        );
         
         incomeReplacement.setAdjustedAmount(Math.max(0, incomeReplacementAmount - existingAssets));
         dime.setAdjustedAmount(Math.max(0, dimeAmount - existingAssets));
         needsBased.setAdjustedAmount(Math.max(0, needsBasedAmount - existingAssets));
         humanLifeValue.setAdjustedAmount(Math.max(0, presentValue - existingAssets));
         
-        // Add adjustment explanation to all methods
-        incomeReplacement.setExplanation(incomeReplacement.getExplanation() + "\n\nAdjustment: " + adjustmentExplanation);
-        dime.setExplanation(dime.getExplanation() + "\n\nAdjustment: " + adjustmentExplanation);
-        needsBased.setExplanation(needsBased.getExplanation() + "\n\nAdjustment: " + adjustmentExplanation);
-        humanLifeValue.setExplanation(humanLifeValue.getExplanation() + "\n\nAdjustment: " + adjustmentExplanation);
+        // Formulas for summary and full detail, explanations for full detail only
+        if (detail != DetailLevel.NONE) {
+            incomeReplacement.renderFormulaWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append('£');
+                CurrencyFormatter.append(text, data.getAnnualIncome()).append(" × ").append(incomeMultiplier).append(" years = £");
+                CurrencyFormatter.append(text, incomeReplacementAmount);
+                return text.toString();
+            });
+            dime.renderFormulaWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append('£');
+                CurrencyFormatter.append(text, data.getTotalDebts()).append(" + £");
+                CurrencyFormatter.append(text, incomeNeeds).append(" + £");
+                CurrencyFormatter.append(text, data.getEducationFund()).append(" = £");
+                CurrencyFormatter.append(text, dimeAmount);
+                return text.toString();
+            });
+            needsBased.renderFormulaWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("(£");
+                CurrencyFormatter.append(text, data.getMonthlyExpenses()).append(" × 12 × ").append(yearsOfSupport).append(") + £");
+                CurrencyFormatter.append(text, immediateNeeds).append(" + £");
+                CurrencyFormatter.append(text, data.getTotalDebts()).append(" + £");
+                CurrencyFormatter.append(text, data.getEducationFund()).append(" = £");
+                CurrencyFormatter.append(text, needsBasedAmount);
+                return text.toString();
+            });
+            humanLifeValue.renderFormulaWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("PV of £");
+                CurrencyFormatter.append(text, netIncome).append(" over ").append(workingYears).append(" years at 3% discount = £");
+                CurrencyFormatter.append(text, presentValue);
+                return text.toString();
+            });
+        }
+        
+        if (detail == DetailLevel.FULL) {
+            incomeReplacement.renderExplanationWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("Income Replacement Method: This method calculates coverage as a multiple of your annual income. ");
+                text.append("Base multiplier: 10 years. Adjustments: ").append(getMultiplierExplanation(data.getAge(), data.getDependents())).append(". ");
+                text.append("This ensures your family can maintain their lifestyle for ").append(incomeMultiplier).append(" years without your income.");
+                appendAdjustment(text, data, existingAssets);
+                return text.toString();
+            });
+            
+            dime.renderExplanationWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("DIME Method breaks down your needs into three categories:\n");
+                text.append("• Total Debts (£");
+                CurrencyFormatter.append(text, data.getTotalDebts()).append("): All outstanding debts including mortgage, loans, credit cards\n");
+                text.append("• Income (£");
+                CurrencyFormatter.append(text, incomeNeeds).append("): ").append(dimeIncomeYears).append(" years of income replacement (£");
+                CurrencyFormatter.append(text, data.getAnnualIncome()).append(" annual income)\n");
+                text.append("• Education (£");
+                CurrencyFormatter.append(text, data.getEducationFund()).append("): Children's education fund\n");
+                text.append("This method ensures all major financial obligations are covered.");
+                appendAdjustment(text, data, existingAssets);
+                return text.toString();
+            });
+            
+            needsBased.renderExplanationWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("Comprehensive Needs Analysis provides the most detailed calculation:\n");
+                text.append("• Living Expenses: £");
+                CurrencyFormatter.append(text, data.getMonthlyExpenses()).append("/month × 12 × ").append(yearsOfSupport).append(" years = £");
+                CurrencyFormatter.append(text, totalExpenseNeeds).append('\n');
+                text.append("• Immediate Needs: £");
+                CurrencyFormatter.append(text, data.getFuneralCosts()).append(" funeral costs + £");
+                CurrencyFormatter.append(text, data.getMonthlyExpenses() * 6).append(" (6 months expenses) = £");
+                CurrencyFormatter.append(text, immediateNeeds).append('\n');
+                text.append("• Total Debts: £");
+                CurrencyFormatter.append(text, data.getTotalDebts()).append(" (including mortgage, loans, credit cards)\n");
+                text.append("• Education Fund: £");
+                CurrencyFormatter.append(text, data.getEducationFund()).append('\n');
+                text.append("Years of support calculated based on your age (").append(data.getAge()).append(") and dependents (").append(data.getDependents()).append(").");
+                appendAdjustment(text, data, existingAssets);
+                return text.toString();
+            });
+            
+            humanLifeValue.renderExplanationWith(() -> {
+                StringBuilder text = new StringBuilder();
+                text.append("Human Life Value Method (UK Actuarial Standard):\n");
+                text.append("• Annual Income: £");
+                CurrencyFormatter.append(text, data.getAnnualIncome()).append('\n');
+                text.append("• Working Years Remaining: 65 - ").append(data.getAge()).append(" = ").append(workingYears).append(" years\n");
+                text.append("• Discount Rate: 3% (UK long-term inflation + investment return)\n");
+                text.append("• Present Value Formula: Σ(Annual Income ÷ (1.03)ⁿ) for n=1 to ").append(workingYears).append('\n');
+                text.append("This represents the true economic value of your life to your family based on UK CMI standards.");
+                appendAdjustment(text, data, existingAssets);
+                return text.toString();
+            });
+        }
+        CalculationMetrics.lap(metrics.method(CONFIG_METHODS.get("humanLifeValue")), mark);
         
         calculations.put("incomeReplacement", incomeReplacement);
         calculations.put("dime", dime);
@@ -229,6 +344,13 @@ public class InsuranceCalculationService {
         return calculations;
     }
     
+    private void appendAdjustment(StringBuilder text, InsuranceCalculationRequest data, double existingAssets) {
+        text.append("\n\nAdjustment: Existing coverage (£");
+        CurrencyFormatter.append(text, data.getExistingCoverage()).append(") + 70% of savings (£");
+        CurrencyFormatter.append(text, data.getSavings() * 0.7).append(") = £");
+        CurrencyFormatter.append(text, existingAssets).append(" total adjustments");
+    }
+    
     private Double calculateRecommendedCoverage(Map<String, CalculationMethod> calculations, InsuranceCalculationRequest data) {
         // UK Actuarial Standard: Weighted approach based on UK insurance industry practices
         // Based on ABI (Association of British Insurers) and UK actuarial guidelines
@@ -294,7 +416,8 @@ public class InsuranceCalculationService {
     private String generateRecommendationExplanation(Map<String, CalculationMethod> calculations, Double recommendedCoverage, InsuranceCalculationRequest data) {
         StringBuilder explanation = new StringBuilder();
         explanation.append("UK LIFE INSURANCE NEEDS ASSESSMENT:\n\n");
-        explanation.append("Your recommended coverage of £").append(CURRENCY_FORMAT.format(recommendedCoverage));
+        explanation.append("Your recommended coverage of £");
+        CurrencyFormatter.append(explanation, recommendedCoverage);
         explanation.append(" is based on UK actuarial best practices and regulatory guidance from the Financial Conduct Authority (FCA).\n\n");
         
         explanation.append("HOW WE CALCULATED YOUR RECOMMENDED COVERAGE:\n\n");
@@ -307,9 +430,8 @@ public class InsuranceCalculationService {
             String methodName = getMethodDisplayName(entry.getKey());
             double amount = method.getAdjustedAmount();
             amounts.add(amount);
-            explanation.append(String.format("• %s: £%s\n",
-                methodName,
-                CURRENCY_FORMAT.format(amount)));
+            explanation.append("• ").append(methodName).append(": £");
+            CurrencyFormatter.append(explanation, amount).append('\n');
         }
         
         explanation.append("\nFINAL CALCULATION PROCESS:\n");
@@ -320,7 +442,8 @@ public class InsuranceCalculationService {
         explanation.append("Step 1: Sort all values in order:\n");
         explanation.append("   [");
         for (int i = 0; i < amounts.size(); i++) {
-            explanation.append("£").append(CURRENCY_FORMAT.format(amounts.get(i)));
+            explanation.append('£');
+            CurrencyFormatter.append(explanation, amounts.get(i));
             if (i < amounts.size() - 1) explanation.append(", ");
         }
         explanation.append("]\n\n");
@@ -337,18 +460,16 @@ public class InsuranceCalculationService {
         if (amounts.size() % 2 == 0) {
             int mid1 = amounts.size() / 2 - 1;
             int mid2 = amounts.size() / 2;
-            explanation.append(String.format("   With %d values, median = (value %d + value %d) ÷ 2\n",
-                amounts.size(), mid1 + 1, mid2 + 1));
-            explanation.append(String.format("   Base Median = (£%s + £%s) ÷ 2 = £%s\n\n",
-                CURRENCY_FORMAT.format(amounts.get(mid1)),
-                CURRENCY_FORMAT.format(amounts.get(mid2)),
-                CURRENCY_FORMAT.format(baseMedian)));
+            explanation.append("   With ").append(amounts.size()).append(" values, median = (value ").append(mid1 + 1).append(" + value ").append(mid2 + 1).append(") ÷ 2\n");
+            explanation.append("   Base Median = (£");
+            CurrencyFormatter.append(explanation, amounts.get(mid1)).append(" + £");
+            CurrencyFormatter.append(explanation, amounts.get(mid2)).append(") ÷ 2 = £");
+            CurrencyFormatter.append(explanation, baseMedian).append("\n\n");
         } else {
             int mid = amounts.size() / 2;
-            explanation.append(String.format("   With %d values, median = middle value (position %d)\n",
-                amounts.size(), mid + 1));
-            explanation.append(String.format("   Base Median = £%s\n\n",
-                CURRENCY_FORMAT.format(baseMedian)));
+            explanation.append("   With ").append(amounts.size()).append(" values, median = middle value (position ").append(mid + 1).append(")\n");
+            explanation.append("   Base Median = £");
+            CurrencyFormatter.append(explanation, baseMedian).append("\n\n");
         }
         
         // Show inflation protection adjustment if applicable
@@ -356,15 +477,15 @@ public class InsuranceCalculationService {
             explanation.append("Step 3: Inflation Protection Adjustment:\n");
             explanation.append("   You selected inflation protection (RPI-linked coverage)\n");
             explanation.append("   UK Inflation Adjustment: +10% initial coverage increase\n");
-            explanation.append(String.format("   This accounts for your growing financial needs over time\n"));
-            explanation.append(String.format("   Final Coverage = £%s × 1.10 = £%s\n\n",
-                CURRENCY_FORMAT.format(baseMedian),
-                CURRENCY_FORMAT.format(recommendedCoverage)));
+            explanation.append("   This accounts for your growing financial needs over time\n");
+            explanation.append("   Final Coverage = £");
+            CurrencyFormatter.append(explanation, baseMedian).append(" × 1.10 = £");
+            CurrencyFormatter.append(explanation, recommendedCoverage).append("\n\n");
         } else {
             explanation.append("Step 3: No Inflation Protection Adjustment:\n");
             explanation.append("   You selected level coverage (no inflation protection)\n");
-            explanation.append(String.format("   Final Coverage = £%s (same as median)\n\n",
-                CURRENCY_FORMAT.format(recommendedCoverage)));
+            explanation.append("   Final Coverage = £");
+            CurrencyFormatter.append(explanation, recommendedCoverage).append(" (same as median)\n\n");
         }
         
         explanation.append("WHY WE USE THE MEDIAN APPROACH:\n");
@@ -504,209 +625,347 @@ public class InsuranceCalculationService {
         }
     }
     
-    private double calculatePresentValue(double annualCashFlow, int years, double discountRate) {
-        double pv = 0.0;
-        for (int year = 1; year <= years; year++) {
-            pv += annualCashFlow / Math.pow(1 + discountRate, year);
+    double calculatePresentValue(double annualCashFlow, int years, double discountRate) {
+        // Shared annuity tables keep both engines' Human Life Value identical
+        return Math.round(annuityCalculator.presentValue(annualCashFlow, years, discountRate));
+    }
+    
+    PremiumEstimate estimatePremium(double coverageAmount, InsuranceCalculationRequest data, DetailLevel detail) {
+        // The precomputed grid answers with one lookup; the step-by-step breakdown is only
+        // worked out when the grid is off, the request falls outside it, or text is rendered
+        CalculationEvents.PremiumEstimated event = new CalculationEvents.PremiumEstimated();
+        event.begin();
+        QuoteGrid grid = quoteGrid;
+        double gridRate = grid != null ? grid.annualRate(data) : Double.NaN;
+        PremiumBreakdown live = null;
+        double finalPremium;
+        if (Double.isNaN(gridRate)) {
+            live = premiumBreakdown(coverageAmount, data);
+            finalPremium = live.finalPremium;
+        } else {
+            finalPremium = coverageAmount * gridRate;
+            if (quoteGridVerify) {
+                live = premiumBreakdown(coverageAmount, data);
+                if (Math.abs(finalPremium - live.finalPremium) > QUOTE_GRID_TOLERANCE * Math.abs(live.finalPremium)) {
+                    quoteGridMismatches.incrementAndGet();
+                    logger.warn("Quote grid premium £{} differs from live £{} for age {}, {}, {}, period {}, inflation {}",
+                        finalPremium, live.finalPremium, data.getAge(), data.getGender(), data.getSmoking(),
+                        data.getCoveragePeriod(), data.getInflationProtection());
+                    finalPremium = live.finalPremium;
+                }
+            }
+        }
+        if (event.shouldCommit()) {
+            CalculationEvents.describe(event, "legacy", data);
+            event.coverage = coverageAmount;
+            event.annualPremium = finalPremium;
+            event.fromGrid = live == null || finalPremium != live.finalPremium;
+            event.commit();
+        }
+        
+        PremiumEstimate estimate = new PremiumEstimate();
+        estimate.setMonthly((double) Math.round(finalPremium / 12.0));
+        estimate.setAnnual((double) Math.round(finalPremium));
+        // The breakdown is worked out now, from the market data the premium was priced on;
+        // only the text is left for serialisation
+        PremiumBreakdown computed = live != null || detail == DetailLevel.NONE ? live : premiumBreakdown(coverageAmount, data);
+        if (detail == DetailLevel.FULL) {
+            estimate.renderExplanationWith(() -> renderPremiumExplanation(computed));
+        } else if (detail == DetailLevel.SUMMARY) {
+            estimate.renderExplanationWith(() -> renderPremiumSummary(computed));
         }
-        return Math.round(pv);
+        return estimate;
     }
     
-    private PremiumEstimate estimatePremium(double coverageAmount, InsuranceCalculationRequest data) {
+    /**
+     * Annual premium for £1 of cover, the value stored in each cell of the quote grid.
+     */
+    double annualPremiumRate(int age, String gender, String smoking, String coveragePeriod, String inflationProtection) {
+        InsuranceCalculationRequest cell = new InsuranceCalculationRequest();
+        cell.setAge(age);
+        cell.setGender(gender);
+        cell.setSmoking(smoking);
+        cell.setCoveragePeriod(coveragePeriod);
+        cell.setInflationProtection(inflationProtection);
+        return premiumBreakdown(1.0, cell).finalPremium;
+    }
+    
+    private PremiumBreakdown premiumBreakdown(double coverageAmount, InsuranceCalculationRequest data) {
         // UK Market-Based Premium Calculation
         // Based on Association of British Insurers (ABI) market data and UK actuarial standards
+        PremiumBreakdown p = new PremiumBreakdown();
+        p.coverageAmount = coverageAmount;
+        p.age = data.getAge();
+        p.gender = data.getGender();
+        p.smoking = data.getSmoking();
+        p.coveragePeriod = data.getCoveragePeriod();
+        p.inflationProtection = data.getInflationProtection();
         
         // Get real-time or fallback ABI rate
-        double abiRate = ukDataService.getABIBaseRate();
-        double basePremium = coverageAmount * abiRate; 
-        
-        StringBuilder premiumExplanation = new StringBuilder();
-        premiumExplanation.append("UK LIFE INSURANCE PREMIUM CALCULATION:\n\n");
-        premiumExplanation.append("This premium estimate is based on current UK market data from the Association of British Insurers (ABI) ");
-        premiumExplanation.append("and follows UK actuarial pricing standards. Here's how your premium is calculated:\n\n");
+        p.abiRate = ukDataService.getABIBaseRate();
+        p.basePremium = coverageAmount * p.abiRate;
         
-        premiumExplanation.append(String.format("1. BASE PREMIUM CALCULATION:\n"));
-        premiumExplanation.append(String.format("   Coverage Amount: £%s\n", CURRENCY_FORMAT.format(coverageAmount)));
-        premiumExplanation.append(String.format("   UK Market Base Rate: %.3f%% of coverage (ABI 2024 data)\n", abiRate * 100));
-        premiumExplanation.append(String.format("   Base Premium = £%s × %.3f%% = £%s\n\n",
-            CURRENCY_FORMAT.format(coverageAmount),
-            abiRate * 100,
-            CURRENCY_FORMAT.format(basePremium)));
-
         // Age factor - based on UK mortality tables (CMI data) with real-time mortality rates
         double mortalityRate = ukDataService.getMortalityRate(data.getAge(), data.getGender());
-        double ageFactor = 1.0;
-        double premiumAfterAge = basePremium;
-        
         if (data.getAge() < 30) {
-            ageFactor = 0.75 * mortalityRate; // Apply mortality adjustment to base factor
-            premiumAfterAge = basePremium * ageFactor;
-            premiumExplanation.append(String.format("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n"));
-            premiumExplanation.append(String.format("   Your Age: %d years (Under 30 - Excellent Risk Category)\n", data.getAge()));
-            premiumExplanation.append(String.format("   UK Age Factor: ×%.3f (includes real-time mortality adjustment)\n", ageFactor));
-            premiumExplanation.append(String.format("   Premium after age adjustment = £%s × %.3f = £%s\n\n",
-                CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
+            p.ageFactor = 0.75 * mortalityRate; // Apply mortality adjustment to base factor
         } else if (data.getAge() < 40) {
-            ageFactor = 1.0 * mortalityRate;
-            premiumAfterAge = basePremium * ageFactor;
-            premiumExplanation.append(String.format("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n"));
-            premiumExplanation.append(String.format("   Your Age: %d years (30-39 - Standard Risk Category)\n", data.getAge()));
-            premiumExplanation.append(String.format("   UK Age Factor: ×%.3f (includes real-time mortality adjustment)\n", ageFactor));
-            premiumExplanation.append(String.format("   Premium after age adjustment = £%s × %.3f = £%s\n\n",
-                CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
+            p.ageFactor = 1.0 * mortalityRate;
         } else if (data.getAge() < 50) {
-            ageFactor = 1.4 * mortalityRate;
-            premiumAfterAge = basePremium * ageFactor;
-            premiumExplanation.append(String.format("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n"));
-            premiumExplanation.append(String.format("   Your Age: %d years (40-49 - Moderate Risk Category)\n", data.getAge()));
-            premiumExplanation.append(String.format("   UK Age Factor: ×%.3f (includes real-time mortality adjustment)\n", ageFactor));
-            premiumExplanation.append(String.format("   Premium after age adjustment = £%s × %.3f = £%s\n\n",
-                CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
+            p.ageFactor = 1.4 * mortalityRate;
         } else if (data.getAge() < 60) {
-            ageFactor = 2.2 * mortalityRate;
-            premiumAfterAge = basePremium * ageFactor;
-            premiumExplanation.append(String.format("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n"));
-            premiumExplanation.append(String.format("   Your Age: %d years (50-59 - Higher Risk Category)\n", data.getAge()));
-            premiumExplanation.append(String.format("   UK Age Factor: ×%.3f (includes real-time mortality adjustment)\n", ageFactor));
-            premiumExplanation.append(String.format("   Premium after age adjustment = £%s × %.3f = £%s\n\n",
-                CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
+            p.ageFactor = 2.2 * mortalityRate;
         } else {
-            ageFactor = 3.5 * mortalityRate;
-            premiumAfterAge = basePremium * ageFactor;
-            premiumExplanation.append(String.format("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n"));
-            premiumExplanation.append(String.format("   Your Age: %d years (60+ - High Risk Category)\n", data.getAge()));
-            premiumExplanation.append(String.format("   UK Age Factor: ×%.3f (includes real-time mortality adjustment)\n", ageFactor));
-            premiumExplanation.append(String.format("   Premium after age adjustment = £%s × %.3f = £%s\n\n",
-                CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
+            p.ageFactor = 3.5 * mortalityRate;
         }
+        p.premiumAfterAge = p.basePremium * p.ageFactor;
         
         // Gender factor - based on UK actuarial data
-        double genderFactor = 1.0;
-        double premiumAfterGender = premiumAfterAge;
+        p.genderFactor = 1.0;
         if ("female".equals(data.getGender())) {
-            genderFactor = 0.88; // UK data: women live 3.7 years longer on average
-            premiumAfterGender = premiumAfterAge * genderFactor;
-            premiumExplanation.append(String.format("3. GENDER ADJUSTMENT (UK ONS Life Expectancy Data):\n"));
-            premiumExplanation.append(String.format("   Gender: Female\n"));
-            premiumExplanation.append(String.format("   UK Gender Factor: ×%.2f (12%% discount - 3.7 years longer life expectancy)\n", genderFactor));
-            premiumExplanation.append(String.format("   Premium after gender adjustment = £%s × %.2f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterAge), genderFactor, CURRENCY_FORMAT.format(premiumAfterGender)));
-        } else {
-            premiumExplanation.append(String.format("3. GENDER ADJUSTMENT (UK ONS Life Expectancy Data):\n"));
-            premiumExplanation.append(String.format("   Gender: Male\n"));
-            premiumExplanation.append(String.format("   UK Gender Factor: ×%.1f (baseline - standard life expectancy)\n", genderFactor));
-            premiumExplanation.append(String.format("   Premium after gender adjustment = £%s × %.1f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterAge), genderFactor, CURRENCY_FORMAT.format(premiumAfterGender)));
+            p.genderFactor = 0.88; // UK data: women live 3.7 years longer on average
         }
+        p.premiumAfterGender = p.premiumAfterAge * p.genderFactor;
         
         // Smoking factor - based on UK health data
-        double smokingFactor = 1.0;
-        double premiumAfterSmoking = premiumAfterGender;
+        p.smokingFactor = 1.0;
         if ("smoker".equals(data.getSmoking())) {
-            smokingFactor = 1.8; // UK data: 80% increase for smokers
-            premiumAfterSmoking = premiumAfterGender * smokingFactor;
-            premiumExplanation.append(String.format("4. SMOKING ADJUSTMENT (UK NHS Health Data):\n"));
-            premiumExplanation.append(String.format("   Smoking Status: Current Smoker\n"));
-            premiumExplanation.append(String.format("   UK Smoking Factor: ×%.1f (80%% increase - reduces life expectancy by 10 years)\n", smokingFactor));
-            premiumExplanation.append(String.format("   Premium after smoking adjustment = £%s × %.1f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterGender), smokingFactor, CURRENCY_FORMAT.format(premiumAfterSmoking)));
+            p.smokingFactor = 1.8; // UK data: 80% increase for smokers
         } else if ("ex-smoker".equals(data.getSmoking())) {
-            smokingFactor = 1.15; // UK data: 15% increase for ex-smokers
-            premiumAfterSmoking = premiumAfterGender * smokingFactor;
-            premiumExplanation.append(String.format("4. SMOKING ADJUSTMENT (UK NHS Health Data):\n"));
-            premiumExplanation.append(String.format("   Smoking Status: Ex-Smoker (quit 12+ months ago)\n"));
-            premiumExplanation.append(String.format("   UK Smoking Factor: ×%.2f (15%% increase - residual health impact)\n", smokingFactor));
-            premiumExplanation.append(String.format("   Premium after smoking adjustment = £%s × %.2f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterGender), smokingFactor, CURRENCY_FORMAT.format(premiumAfterSmoking)));
-        } else {
-            premiumExplanation.append(String.format("4. SMOKING ADJUSTMENT (UK NHS Health Data):\n"));
-            premiumExplanation.append(String.format("   Smoking Status: Non-Smoker\n"));
-            premiumExplanation.append(String.format("   UK Smoking Factor: ×%.1f (no adjustment - optimal health category)\n", smokingFactor));
-            premiumExplanation.append(String.format("   Premium after smoking adjustment = £%s × %.1f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterGender), smokingFactor, CURRENCY_FORMAT.format(premiumAfterSmoking)));
+            p.smokingFactor = 1.15; // UK data: 15% increase for ex-smokers
         }
+        p.premiumAfterSmoking = p.premiumAfterGender * p.smokingFactor;
         
         // Term factor - based on UK insurance market data
-        double termFactor = 1.0;
-        double premiumAfterTerm = premiumAfterSmoking;
-        
         if ("whole".equals(data.getCoveragePeriod())) {
-            termFactor = 2.8; // UK market data: whole life costs 2.8x term insurance
-            premiumAfterTerm = premiumAfterSmoking * termFactor;
-            premiumExplanation.append(String.format("5. POLICY TYPE ADJUSTMENT (UK Market Data):\n"));
-            premiumExplanation.append(String.format("   Policy Type: Whole Life Insurance\n"));
-            premiumExplanation.append(String.format("   UK Term Factor: ×%.1f (180%% increase - permanent coverage + investment component)\n", termFactor));
-            premiumExplanation.append(String.format("   Premium after policy type adjustment = £%s × %.1f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterSmoking), termFactor, CURRENCY_FORMAT.format(premiumAfterTerm)));
+            p.termFactor = 2.8; // UK market data: whole life costs 2.8x term insurance
         } else {
             // Term factor based on coverage period - shorter terms are cheaper
             int coverageYears = Integer.parseInt(data.getCoveragePeriod());
             if (coverageYears == 10) {
-                termFactor = 0.65; // 10-year term: 35% discount (shortest term, lowest risk)
+                p.termFactor = 0.65; // 10-year term: 35% discount (shortest term, lowest risk)
             } else if (coverageYears == 15) {
-                termFactor = 0.75; // 15-year term: 25% discount
+                p.termFactor = 0.75; // 15-year term: 25% discount
             } else if (coverageYears == 20) {
-                termFactor = 0.85; // 20-year term: 15% discount (most popular choice)
+                p.termFactor = 0.85; // 20-year term: 15% discount (most popular choice)
             } else if (coverageYears == 25) {
-                termFactor = 0.95; // 25-year term: 5% discount
+                p.termFactor = 0.95; // 25-year term: 5% discount
             } else if (coverageYears == 30) {
-                termFactor = 1.0; // 30-year term: baseline (longest term, highest risk)
+                p.termFactor = 1.0; // 30-year term: baseline (longest term, highest risk)
             } else {
-                termFactor = 1.0; // fallback
+                p.termFactor = 1.0; // fallback
             }
-            
-            premiumAfterTerm = premiumAfterSmoking * termFactor;
-            premiumExplanation.append(String.format("5. POLICY TYPE ADJUSTMENT (UK Market Data):\n"));
-            premiumExplanation.append(String.format("   Policy Type: %s-Year Term Life Insurance\n", data.getCoveragePeriod()));
-            
-            if (termFactor < 1.0) {
-                double discountPercent = (1.0 - termFactor) * 100;
-                premiumExplanation.append(String.format("   UK Term Factor: ×%.2f (%.0f%% discount - shorter term = lower risk)\n", termFactor, discountPercent));
-            } else {
-                premiumExplanation.append(String.format("   UK Term Factor: ×%.1f (baseline - longer term = higher risk)\n", termFactor));
-            }
-            
-            premiumExplanation.append(String.format("   Premium after policy type adjustment = £%s × %.2f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterSmoking), termFactor, CURRENCY_FORMAT.format(premiumAfterTerm)));
         }
+        p.premiumAfterTerm = p.premiumAfterSmoking * p.termFactor;
         
         // Inflation protection - based on UK RPI data
-        double inflationFactor = 1.0;
-        double finalPremium = premiumAfterTerm;
+        p.inflationFactor = 1.0;
         if ("yes".equals(data.getInflationProtection())) {
-            inflationFactor = 1.20; // UK market data: 20% increase for RPI-linked policies
-            finalPremium = premiumAfterTerm * inflationFactor;
-            premiumExplanation.append(String.format("6. INFLATION PROTECTION ADJUSTMENT (UK RPI Data):\n"));
-            premiumExplanation.append(String.format("   Inflation Protection: Yes (RPI-Linked)\n"));
-            premiumExplanation.append(String.format("   UK Inflation Factor: ×%.2f (20%% increase - coverage grows with UK inflation)\n", inflationFactor));
-            premiumExplanation.append(String.format("   Final premium = £%s × %.2f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterTerm), inflationFactor, CURRENCY_FORMAT.format(finalPremium)));
+            p.inflationFactor = 1.20; // UK market data: 20% increase for RPI-linked policies
+        }
+        p.finalPremium = p.premiumAfterTerm * p.inflationFactor;
+        return p;
+    }
+    
+    /**
+     * Factors, intermediate premiums and the applicant details behind an estimate, kept so
+     * the explanation can be rendered after the numbers are final.
+     */
+    private static final class PremiumBreakdown {
+        int age;
+        String gender;
+        String smoking;
+        String coveragePeriod;
+        String inflationProtection;
+        double coverageAmount;
+        double abiRate;
+        double basePremium;
+        double ageFactor;
+        double premiumAfterAge;
+        double genderFactor;
+        double premiumAfterGender;
+        double smokingFactor;
+        double premiumAfterSmoking;
+        double termFactor;
+        double premiumAfterTerm;
+        double inflationFactor;
+        double finalPremium;
+    }
+    
+    private static String renderPremiumSummary(PremiumBreakdown p) {
+        StringBuilder text = new StringBuilder();
+        text.append('£');
+        CurrencyFormatter.append(text, p.coverageAmount).append(" × ");
+        CurrencyFormatter.appendFixed(text, p.abiRate * 100, 3).append("% base rate × ");
+        CurrencyFormatter.appendFixed(text, p.ageFactor, 3).append(" age × ");
+        CurrencyFormatter.appendFixed(text, p.genderFactor, 2).append(" gender × ");
+        CurrencyFormatter.appendFixed(text, p.smokingFactor, 2).append(" smoking × ");
+        CurrencyFormatter.appendFixed(text, p.termFactor, 2).append(" policy type × ");
+        CurrencyFormatter.appendFixed(text, p.inflationFactor, 2).append(" inflation = £");
+        CurrencyFormatter.append(text, p.finalPremium).append(" a year");
+        return text.toString();
+    }
+    
+    private static String renderPremiumExplanation(PremiumBreakdown p) {
+        StringBuilder premiumExplanation = new StringBuilder();
+        premiumExplanation.append("UK LIFE INSURANCE PREMIUM CALCULATION:\n\n");
+        premiumExplanation.append("This premium estimate is based on current UK market data from the Association of British Insurers (ABI) ");
+        premiumExplanation.append("and follows UK actuarial pricing standards. Here's how your premium is calculated:\n\n");
+        
+        premiumExplanation.append("1. BASE PREMIUM CALCULATION:\n");
+        premiumExplanation.append("   Coverage Amount: £");
+        CurrencyFormatter.append(premiumExplanation, p.coverageAmount).append('\n');
+        premiumExplanation.append("   UK Market Base Rate: ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.abiRate * 100, 3).append("% of coverage (ABI 2024 data)\n");
+        premiumExplanation.append("   Base Premium = £");
+        CurrencyFormatter.append(premiumExplanation, p.coverageAmount).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.abiRate * 100, 3).append("% = £");
+        CurrencyFormatter.append(premiumExplanation, p.basePremium).append("\n\n");
+        
+        String ageCategory;
+        if (p.age < 30) {
+            ageCategory = "Under 30 - Excellent Risk Category";
+        } else if (p.age < 40) {
+            ageCategory = "30-39 - Standard Risk Category";
+        } else if (p.age < 50) {
+            ageCategory = "40-49 - Moderate Risk Category";
+        } else if (p.age < 60) {
+            ageCategory = "50-59 - Higher Risk Category";
+        } else {
+            ageCategory = "60+ - High Risk Category";
+        }
+        premiumExplanation.append("2. AGE ADJUSTMENT (UK CMI Mortality Data):\n");
+        premiumExplanation.append("   Your Age: ").append(p.age).append(" years (").append(ageCategory).append(")\n");
+        premiumExplanation.append("   UK Age Factor: ×");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.ageFactor, 3).append(" (includes real-time mortality adjustment)\n");
+        premiumExplanation.append("   Premium after age adjustment = £");
+        CurrencyFormatter.append(premiumExplanation, p.basePremium).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.ageFactor, 3).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterAge).append("\n\n");
+        
+        premiumExplanation.append("3. GENDER ADJUSTMENT (UK ONS Life Expectancy Data):\n");
+        if ("female".equals(p.gender)) {
+            premiumExplanation.append("   Gender: Female\n");
+            premiumExplanation.append("   UK Gender Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.genderFactor, 2).append(" (12% discount - 3.7 years longer life expectancy)\n");
+            premiumExplanation.append("   Premium after gender adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterAge).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.genderFactor, 2).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append("\n\n");
+        } else {
+            premiumExplanation.append("   Gender: Male\n");
+            premiumExplanation.append("   UK Gender Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.genderFactor, 1).append(" (baseline - standard life expectancy)\n");
+            premiumExplanation.append("   Premium after gender adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterAge).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.genderFactor, 1).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append("\n\n");
+        }
+        
+        premiumExplanation.append("4. SMOKING ADJUSTMENT (UK NHS Health Data):\n");
+        if ("smoker".equals(p.smoking)) {
+            premiumExplanation.append("   Smoking Status: Current Smoker\n");
+            premiumExplanation.append("   UK Smoking Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 1).append(" (80% increase - reduces life expectancy by 10 years)\n");
+            premiumExplanation.append("   Premium after smoking adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 1).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append("\n\n");
+        } else if ("ex-smoker".equals(p.smoking)) {
+            premiumExplanation.append("   Smoking Status: Ex-Smoker (quit 12+ months ago)\n");
+            premiumExplanation.append("   UK Smoking Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 2).append(" (15% increase - residual health impact)\n");
+            premiumExplanation.append("   Premium after smoking adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 2).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append("\n\n");
         } else {
-            premiumExplanation.append(String.format("6. INFLATION PROTECTION ADJUSTMENT (UK RPI Data):\n"));
-            premiumExplanation.append(String.format("   Inflation Protection: No (Level Coverage)\n"));
-            premiumExplanation.append(String.format("   UK Inflation Factor: ×%.1f (no adjustment - fixed coverage amount)\n", inflationFactor));
-            premiumExplanation.append(String.format("   Final premium = £%s × %.1f = £%s\n\n",
-                CURRENCY_FORMAT.format(premiumAfterTerm), inflationFactor, CURRENCY_FORMAT.format(finalPremium)));
+            premiumExplanation.append("   Smoking Status: Non-Smoker\n");
+            premiumExplanation.append("   UK Smoking Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 1).append(" (no adjustment - optimal health category)\n");
+            premiumExplanation.append("   Premium after smoking adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 1).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append("\n\n");
+        }
+        
+        premiumExplanation.append("5. POLICY TYPE ADJUSTMENT (UK Market Data):\n");
+        if ("whole".equals(p.coveragePeriod)) {
+            premiumExplanation.append("   Policy Type: Whole Life Insurance\n");
+            premiumExplanation.append("   UK Term Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 1).append(" (180% increase - permanent coverage + investment component)\n");
+            premiumExplanation.append("   Premium after policy type adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 1).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append("\n\n");
+        } else {
+            premiumExplanation.append("   Policy Type: ").append(p.coveragePeriod).append("-Year Term Life Insurance\n");
+            if (p.termFactor < 1.0) {
+                double discountPercent = (1.0 - p.termFactor) * 100;
+                premiumExplanation.append("   UK Term Factor: ×");
+                CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 2).append(" (");
+                CurrencyFormatter.appendFixed(premiumExplanation, discountPercent, 0).append("% discount - shorter term = lower risk)\n");
+            } else {
+                premiumExplanation.append("   UK Term Factor: ×");
+                CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 1).append(" (baseline - longer term = higher risk)\n");
+            }
+            premiumExplanation.append("   Premium after policy type adjustment = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 2).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append("\n\n");
+        }
+        
+        premiumExplanation.append("6. INFLATION PROTECTION ADJUSTMENT (UK RPI Data):\n");
+        if ("yes".equals(p.inflationProtection)) {
+            premiumExplanation.append("   Inflation Protection: Yes (RPI-Linked)\n");
+            premiumExplanation.append("   UK Inflation Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.inflationFactor, 2).append(" (20% increase - coverage grows with UK inflation)\n");
+            premiumExplanation.append("   Final premium = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.inflationFactor, 2).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.finalPremium).append("\n\n");
+        } else {
+            premiumExplanation.append("   Inflation Protection: No (Level Coverage)\n");
+            premiumExplanation.append("   UK Inflation Factor: ×");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.inflationFactor, 1).append(" (no adjustment - fixed coverage amount)\n");
+            premiumExplanation.append("   Final premium = £");
+            CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append(" × ");
+            CurrencyFormatter.appendFixed(premiumExplanation, p.inflationFactor, 1).append(" = £");
+            CurrencyFormatter.append(premiumExplanation, p.finalPremium).append("\n\n");
         }
         
         premiumExplanation.append("PREMIUM SUMMARY:\n");
-        premiumExplanation.append(String.format("Final Annual Premium: £%s\n", CURRENCY_FORMAT.format(finalPremium)));
-        premiumExplanation.append(String.format("Monthly Premium: £%s (Annual ÷ 12)\n\n", CURRENCY_FORMAT.format(finalPremium / 12.0)));
+        premiumExplanation.append("Final Annual Premium: £");
+        CurrencyFormatter.append(premiumExplanation, p.finalPremium).append('\n');
+        premiumExplanation.append("Monthly Premium: £");
+        CurrencyFormatter.append(premiumExplanation, p.finalPremium / 12.0).append(" (Annual ÷ 12)\n\n");
         
         premiumExplanation.append("PREMIUM CALCULATION FLOW SUMMARY:\n");
         premiumExplanation.append("Your premium was calculated through 6 sequential steps, where each step builds on the previous result:\n\n");
-        premiumExplanation.append(String.format("Step 1: Base Premium = £%s × %.3f%% = £%s\n",
-            CURRENCY_FORMAT.format(coverageAmount), abiRate * 100, CURRENCY_FORMAT.format(basePremium)));
-        premiumExplanation.append(String.format("Step 2: After Age Adjustment = £%s × %.3f = £%s\n",
-            CURRENCY_FORMAT.format(basePremium), ageFactor, CURRENCY_FORMAT.format(premiumAfterAge)));
-        premiumExplanation.append(String.format("Step 3: After Gender Adjustment = £%s × %.2f = £%s\n",
-            CURRENCY_FORMAT.format(premiumAfterAge), genderFactor, CURRENCY_FORMAT.format(premiumAfterGender)));
-        premiumExplanation.append(String.format("Step 4: After Smoking Adjustment = £%s × %.2f = £%s\n",
-            CURRENCY_FORMAT.format(premiumAfterGender), smokingFactor, CURRENCY_FORMAT.format(premiumAfterSmoking)));
-        premiumExplanation.append(String.format("Step 5: After Policy Type Adjustment = £%s × %.1f = £%s\n",
-            CURRENCY_FORMAT.format(premiumAfterSmoking), termFactor, CURRENCY_FORMAT.format(premiumAfterTerm)));
-        premiumExplanation.append(String.format("Step 6: After Inflation Protection = £%s × %.2f = £%s\n\n",
-            CURRENCY_FORMAT.format(premiumAfterTerm), inflationFactor, CURRENCY_FORMAT.format(finalPremium)));
+        premiumExplanation.append("Step 1: Base Premium = £");
+        CurrencyFormatter.append(premiumExplanation, p.coverageAmount).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.abiRate * 100, 3).append("% = £");
+        CurrencyFormatter.append(premiumExplanation, p.basePremium).append('\n');
+        premiumExplanation.append("Step 2: After Age Adjustment = £");
+        CurrencyFormatter.append(premiumExplanation, p.basePremium).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.ageFactor, 3).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterAge).append('\n');
+        premiumExplanation.append("Step 3: After Gender Adjustment = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterAge).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.genderFactor, 2).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append('\n');
+        premiumExplanation.append("Step 4: After Smoking Adjustment = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterGender).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.smokingFactor, 2).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append('\n');
+        premiumExplanation.append("Step 5: After Policy Type Adjustment = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterSmoking).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.termFactor, 1).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append('\n');
+        premiumExplanation.append("Step 6: After Inflation Protection = £");
+        CurrencyFormatter.append(premiumExplanation, p.premiumAfterTerm).append(" × ");
+        CurrencyFormatter.appendFixed(premiumExplanation, p.inflationFactor, 2).append(" = £");
+        CurrencyFormatter.append(premiumExplanation, p.finalPremium).append("\n\n");
         
         premiumExplanation.append("IMPORTANT: Premium factors are MULTIPLIED (not added) in sequence.\n");
         premiumExplanation.append("Each step uses the result from the previous step, creating a compound effect.\n");
@@ -719,16 +978,11 @@ public class InsuranceCalculationService {
         premiumExplanation.append("• UK regulations require guaranteed premium periods for term policies\n");
         premiumExplanation.append("• Lloyds Banking Group can provide competitive quotes from multiple UK insurers\n");
         premiumExplanation.append("• All calculations comply with UK FCA requirements for transparency and fairness");
-        
-        return new PremiumEstimate(
-            (double) Math.round(finalPremium / 12.0),
-            (double) Math.round(finalPremium),
-            premiumExplanation.toString()
-        );
+        return premiumExplanation.toString();
     }
     
-    private List<Recommendation> generateRecommendations(Map<String, CalculationMethod> calculations, 
-                                                         InsuranceCalculationRequest data) {
+    List<Recommendation> generateRecommendations(Map<String, CalculationMethod> calculations, 
+                                                         InsuranceCalculationRequest data, DetailLevel detail) {
         List<Recommendation> recommendations = new ArrayList<>();
         
         Double recommendedAmount = calculateRecommendedCoverage(calculations, data);
@@ -736,17 +990,16 @@ public class InsuranceCalculationService {
         // SPECIFIC PRODUCT RECOMMENDATIONS BASED ON PROFILE
         
         // Primary product recommendation
-        String primaryProduct = determinePrimaryProduct(data, recommendedAmount);
         recommendations.add(new Recommendation(
             "🎯 Recommended Primary Product",
-            primaryProduct
+            describe(detail, () -> determinePrimaryProduct(data, recommendedAmount))
         ));
         
         // Secondary product recommendations
         if (data.getDependents() > 0) {
             recommendations.add(new Recommendation(
                 "👨‍👩‍👧‍👦 Family Protection Package",
-                String.format("Consider combining your main policy with:\n• Family Income Benefit: Provides monthly payments instead of lump sum\n• Child Benefit Rider: Additional £10,000-£25,000 per child\n• Waiver of Premium: Continues coverage if you become disabled\n• Joint Life Policy: Covers both you and your spouse for efficiency")
+                describe(detail, () -> "Consider combining your main policy with:\n• Family Income Benefit: Provides monthly payments instead of lump sum\n• Child Benefit Rider: Additional £10,000-£25,000 per child\n• Waiver of Premium: Continues coverage if you become disabled\n• Joint Life Policy: Covers both you and your spouse for efficiency")
             ));
         }
         
@@ -756,9 +1009,17 @@ public class InsuranceCalculationService {
             if (mortgagePercentage > 40) {
                 recommendations.add(new Recommendation(
                     "🏠 Mortgage Protection Strategy",
-                    String.format("Your mortgage (£%s) represents %.0f%% of your insurance needs. Consider:\n• Decreasing Term Life: Reduces with mortgage balance (cheaper)\n• Mortgage Protection Insurance: Specifically designed for mortgages\n• Level Term: Provides mortgage coverage plus extra for family\n• Split Strategy: Decreasing term for mortgage + level term for family needs",
-                        CURRENCY_FORMAT.format(data.getMortgage()),
-                        mortgagePercentage)
+                    describe(detail, () -> {
+                        StringBuilder text = new StringBuilder();
+                        text.append("Your mortgage (£");
+                        CurrencyFormatter.append(text, data.getMortgage()).append(") represents ");
+                        CurrencyFormatter.appendFixed(text, mortgagePercentage, 0).append("% of your insurance needs. Consider:\n");
+                        text.append("• Decreasing Term Life: Reduces with mortgage balance (cheaper)\n");
+                        text.append("• Mortgage Protection Insurance: Specifically designed for mortgages\n");
+                        text.append("• Level Term: Provides mortgage coverage plus extra for family\n");
+                        text.append("• Split Strategy: Decreasing term for mortgage + level term for family needs");
+                        return text.toString();
+                    })
                 ));
             }
         }
@@ -767,12 +1028,12 @@ public class InsuranceCalculationService {
         if (data.getAge() < 35) {
             recommendations.add(new Recommendation(
                 "🚀 Young Professional Strategy",
-                "Perfect time to secure long-term protection:\n• 30-Year Level Term: Lock in low rates now, covers until retirement\n• Convertible Term: Option to switch to permanent coverage later\n• Guaranteed Insurability Rider: Increase coverage as income grows\n• Consider whole life if building wealth for inheritance\n• Premium: Likely £20-£50/month for £500k coverage"
+                describe(detail, () -> "Perfect time to secure long-term protection:\n• 30-Year Level Term: Lock in low rates now, covers until retirement\n• Convertible Term: Option to switch to permanent coverage later\n• Guaranteed Insurability Rider: Increase coverage as income grows\n• Consider whole life if building wealth for inheritance\n• Premium: Likely £20-£50/month for £500k coverage")
             ));
         } else if (data.getAge() > 50) {
             recommendations.add(new Recommendation(
                 "⚡ Pre-Retirement Focus",
-                "Optimize coverage for changing needs:\n• 10-15 Year Term: Cover remaining mortgage and pre-pension period\n• Whole Life: If estate planning is important\n• Over 50s Life Insurance: Guaranteed acceptance, smaller amounts\n• Critical Illness Cover: Higher priority at this age\n• Review existing employer benefits before retirement"
+                describe(detail, () -> "Optimize coverage for changing needs:\n• 10-15 Year Term: Cover remaining mortgage and pre-pension period\n• Whole Life: If estate planning is important\n• Over 50s Life Insurance: Guaranteed acceptance, smaller amounts\n• Critical Illness Cover: Higher priority at this age\n• Review existing employer benefits before retirement")
             ));
         }
         
@@ -780,8 +1041,17 @@ public class InsuranceCalculationService {
         if (recommendedAmount > 1000000) {
             recommendations.add(new Recommendation(
                 "💎 High Net Worth Strategy",
-                String.format("With £%s coverage needed, consider:\n• Multiple Insurers: Split across 2-3 companies (£500k each) for security\n• Lloyds Premium Service: Dedicated underwriting for high amounts\n• Trust Arrangement: Avoid 40%% inheritance tax on death benefit\n• Business Protection: If you own a business, consider key person insurance\n• International Coverage: If you travel frequently or live abroad",
-                    CURRENCY_FORMAT.format(recommendedAmount))
+                describe(detail, () -> {
+                    StringBuilder text = new StringBuilder();
+                    text.append("With £");
+                    CurrencyFormatter.append(text, recommendedAmount).append(" coverage needed, consider:\n");
+                    text.append("• Multiple Insurers: Split across 2-3 companies (£500k each) for security\n");
+                    text.append("• Lloyds Premium Service: Dedicated underwriting for high amounts\n");
+                    text.append("• Trust Arrangement: Avoid 40% inheritance tax on death benefit\n");
+                    text.append("• Business Protection: If you own a business, consider key person insurance\n");
+                    text.append("• International Coverage: If you travel frequently or live abroad");
+                    return text.toString();
+                })
             ));
         }
         
@@ -790,7 +1060,7 @@ public class InsuranceCalculationService {
         if (estimatedPremium > (data.getAnnualIncome() * 0.05)) { // More than 5% of income
             recommendations.add(new Recommendation(
                 "💰 Budget-Friendly Options",
-                "If premiums seem high, consider:\n• Term Life vs Whole Life: Term is 3x cheaper\n• Annual vs Monthly: Pay annually for 5-10% discount\n• Healthy Lifestyle Discounts: Non-smoking, fitness tracker programs\n• Employer Group Insurance: Often cheapest option (2-4x salary)\n• Laddering Strategy: Multiple smaller policies with different end dates\n• Review in 5 years: Rates may improve as debts reduce"
+                describe(detail, () -> "If premiums seem high, consider:\n• Term Life vs Whole Life: Term is 3x cheaper\n• Annual vs Monthly: Pay annually for 5-10% discount\n• Healthy Lifestyle Discounts: Non-smoking, fitness tracker programs\n• Employer Group Insurance: Often cheapest option (2-4x salary)\n• Laddering Strategy: Multiple smaller policies with different end dates\n• Review in 5 years: Rates may improve as debts reduce")
             ));
         }
         
@@ -798,25 +1068,32 @@ public class InsuranceCalculationService {
         if ("smoker".equals(data.getSmoking())) {
             recommendations.add(new Recommendation(
                 "🚭 Smoking Cessation Benefits",
-                "Quitting smoking provides massive savings:\n• Current Premium Impact: 100% increase (doubles cost)\n• 12-Month Benefit: Premiums reduce by 50% after 12 months smoke-free\n• Total Savings: Could save £1,000+ per year on premiums\n• Health Benefits: Reduced risk of cancer, heart disease, stroke\n• Support Available: NHS stop smoking services, nicotine replacement\n• Lloyds Wellness Program: Additional discounts for healthy lifestyle"
+                describe(detail, () -> "Quitting smoking provides massive savings:\n• Current Premium Impact: 100% increase (doubles cost)\n• 12-Month Benefit: Premiums reduce by 50% after 12 months smoke-free\n• Total Savings: Could save £1,000+ per year on premiums\n• Health Benefits: Reduced risk of cancer, heart disease, stroke\n• Support Available: NHS stop smoking services, nicotine replacement\n• Lloyds Wellness Program: Additional discounts for healthy lifestyle")
             ));
         }
         
         // Specific Lloyds products and services
         recommendations.add(new Recommendation(
             "🏦 Lloyds Banking Group Advantages",
-            "As a Lloyds customer, you benefit from:\n• Integrated Banking: Link insurance premiums to your account\n• Multi-Product Discounts: Savings when combining with home/car insurance\n• Priority Underwriting: Faster application processing\n• Relationship Pricing: Better rates for existing customers\n• Digital Management: Manage all policies through Lloyds app\n• Claims Support: Dedicated claims team for life insurance\n• Financial Planning: Access to qualified financial advisors"
+            describe(detail, () -> "As a Lloyds customer, you benefit from:\n• Integrated Banking: Link insurance premiums to your account\n• Multi-Product Discounts: Savings when combining with home/car insurance\n• Priority Underwriting: Faster application processing\n• Relationship Pricing: Better rates for existing customers\n• Digital Management: Manage all policies through Lloyds app\n• Claims Support: Dedicated claims team for life insurance\n• Financial Planning: Access to qualified financial advisors")
         ));
         
         // Next steps and process recommendations
         recommendations.add(new Recommendation(
             "📋 Your Next Steps - Lloyds Process",
-            "Ready to proceed? Here's your roadmap:\n\n1. GET QUOTES (This Week)\n   • Lloyds Life Insurance: Get preferred customer rates\n   • Compare 3-5 insurers for best value\n   • Request quotes for coverage\n\n2. MEDICAL UNDERWRITING (Week 2-3)\n   • Basic health questionnaire\n   • Medical exam if over £500k coverage\n   • GP report may be requested\n\n3. POLICY SETUP (Week 4)\n   • Choose beneficiaries\n   • Set up trust if needed\n   • Arrange premium payments\n\n4. ONGOING MANAGEMENT\n   • Review annually\n   • Update after major life events"
+            describe(detail, () -> "Ready to proceed? Here's your roadmap:\n\n1. GET QUOTES (This Week)\n   • Lloyds Life Insurance: Get preferred customer rates\n   • Compare 3-5 insurers for best value\n   • Request quotes for coverage\n\n2. MEDICAL UNDERWRITING (Week 2-3)\n   • Basic health questionnaire\n   • Medical exam if over £500k coverage\n   • GP report may be requested\n\n3. POLICY SETUP (Week 4)\n   • Choose beneficiaries\n   • Set up trust if needed\n   • Arrange premium payments\n\n4. ONGOING MANAGEMENT\n   • Review annually\n   • Update after major life events")
         ));
         
         return recommendations;
     }
     
+    /**
+     * Recommendation descriptions are long prose, so only full detail renders them.
+     */
+    private static Supplier<String> describe(DetailLevel detail, Supplier<String> description) {
+        return detail == DetailLevel.FULL ? description : null;
+    }
+    
     private String determinePrimaryProduct(InsuranceCalculationRequest data, Double recommendedAmount) {
         StringBuilder productRec = new StringBuilder();
         
@@ -824,8 +1101,8 @@ public class InsuranceCalculationService {
         boolean isWholeLife = "whole".equals(data.getCoveragePeriod());
         String term = isWholeLife ? "Whole Life" : data.getCoveragePeriod() + "-Year Term";
         
-        productRec.append(String.format("RECOMMENDED: %s Life Insurance - £%s Coverage\n\n", 
-            term, CURRENCY_FORMAT.format(recommendedAmount)));
+        productRec.append("RECOMMENDED: ").append(term).append(" Life Insurance - £");
+        CurrencyFormatter.append(productRec, recommendedAmount).append(" Coverage\n\n");
         
         // Product features based on profile
         productRec.append("KEY FEATURES FOR YOUR SITUATION:\n");
@@ -856,16 +1133,16 @@ public class InsuranceCalculationService {
         if ("smoker".equals(data.getSmoking())) estimatedMonthly *= 2.0;
         if (isWholeLife) estimatedMonthly *= 3.0;
         
-        productRec.append(String.format("\nESTIMATED PREMIUM: £%s per month\n", 
-            CURRENCY_FORMAT.format(Math.round(estimatedMonthly))));
+        productRec.append('\n');
+        productRec.append("ESTIMATED PREMIUM: £");
+        CurrencyFormatter.append(productRec, Math.round(estimatedMonthly)).append(" per month\n");
         
         productRec.append("\nWHY THIS WORKS FOR YOU:\n");
         if (data.getAge() < 35) {
             productRec.append("• Lock in low rates while young and healthy\n");
         }
         if (data.getDependents() > 0) {
-            productRec.append(String.format("• Protects %d dependent(s) for %s years\n", 
-                data.getDependents(), isWholeLife ? "life" : data.getCoveragePeriod()));
+            productRec.append("• Protects ").append(data.getDependents()).append(" dependent(s) for ").append(isWholeLife ? "life" : data.getCoveragePeriod()).append(" years\n");
         }
         if (data.getMortgage() > 0) {
             productRec.append("• Covers mortgage and provides additional family protection\n");
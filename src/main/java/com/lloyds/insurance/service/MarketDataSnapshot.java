@@ -0,0 +1,226 @@
+package com.lloyds.insurance.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of UK market data used by the calculations: Bank of England base rate,
+ * ONS inflation, ABI premium base rate and mortality adjustments by age and gender.
+ *
+ * {@link UKDataService} swaps in a new snapshot whenever a source refreshes, so a request
+ * reads one consistent set of values with a single volatile load. Each source records
+ * where its value came from and when, and the data-source summary returned with every
+ * quote is built once here rather than per request.
+ */
+public final class MarketDataSnapshot {
+
+    public enum Source {
+        BASE_RATE("baseRate", "Bank of England API", "Static (5.0%)"),
+        INFLATION("inflation", "ONS API", "Static (4.0%)"),
+        ABI_RATE("abiRate", "ABI API", "Static (0.12%)"),
+        MORTALITY("mortality", "CMI API", "Calculated");
+
+        private final String key;
+        private final String liveLabel;
+        private final String fallbackLabel;
+
+        Source(String key, String liveLabel, String fallbackLabel) {
+            this.key = key;
+            this.liveLabel = liveLabel;
+            this.fallbackLabel = fallbackLabel;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public enum Status {
+        /** Built-in value; the source is disabled or has never answered. */
+        FALLBACK,
+        /** Fetched within the source's refresh interval. */
+        LIVE,
+        /** Fetched successfully before, but refreshes are currently failing. */
+        STALE
+    }
+
+    /** Highest age held in the mortality tables; older ages use the last entry. */
+    public static final int MAX_AGE = 120;
+
+    private final boolean realTimeEnabled;
+    private final double baseRate;
+    private final double inflationRate;
+    private final double abiRate;
+    private final double[] maleMortality;
+    private final double[] femaleMortality;
+    private final Map<Source, Status> status;
+    private final Map<Source, Instant> updatedAt;
+    private final Instant createdAt;
+    private final Map<String, Object> sourceInfo;
+
+    private MarketDataSnapshot(boolean realTimeEnabled, double baseRate, double inflationRate, double abiRate,
+                               double[] maleMortality, double[] femaleMortality,
+                               Map<Source, Status> status, Map<Source, Instant> updatedAt) {
+        this.realTimeEnabled = realTimeEnabled;
+        this.baseRate = baseRate;
+        this.inflationRate = inflationRate;
+        this.abiRate = abiRate;
+        this.maleMortality = maleMortality;
+        this.femaleMortality = femaleMortality;
+        this.status = status;
+        this.updatedAt = updatedAt;
+        this.createdAt = Instant.now();
+        this.sourceInfo = buildSourceInfo();
+    }
+
+    /**
+     * Snapshot of built-in values, used until (or instead of) live data.
+     */
+    public static MarketDataSnapshot fallback(boolean realTimeEnabled, double baseRate, double inflationRate, double abiRate) {
+        double[] male = new double[MAX_AGE + 1];
+        double[] female = new double[MAX_AGE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            male[age] = calculatedMortality(age, "male");
+            female[age] = calculatedMortality(age, "female");
+        }
+        Map<Source, Status> status = new EnumMap<>(Source.class);
+        for (Source source : Source.values()) {
+            status.put(source, Status.FALLBACK);
+        }
+        return new MarketDataSnapshot(realTimeEnabled, baseRate, inflationRate, abiRate, male, female,
+            status, new EnumMap<>(Source.class));
+    }
+
+    /**
+     * Mortality adjustment used when no CMI data is available.
+     */
+    public static double calculatedMortality(int age, String gender) {
+        double baseRate = 1.0;
+        if (age > 50) baseRate *= 1.2;
+        if (age > 65) baseRate *= 1.5;
+        if ("MALE".equalsIgnoreCase(gender)) baseRate *= 1.1;
+        return baseRate;
+    }
+
+    public MarketDataSnapshot withBaseRate(double rate, Instant fetchedAt) {
+        return new MarketDataSnapshot(realTimeEnabled, rate, inflationRate, abiRate, maleMortality, femaleMortality,
+            live(Source.BASE_RATE), updated(Source.BASE_RATE, fetchedAt));
+    }
+
+    public MarketDataSnapshot withInflationRate(double rate, Instant fetchedAt) {
+        return new MarketDataSnapshot(realTimeEnabled, baseRate, rate, abiRate, maleMortality, femaleMortality,
+            live(Source.INFLATION), updated(Source.INFLATION, fetchedAt));
+    }
+
+    public MarketDataSnapshot withAbiRate(double rate, Instant fetchedAt) {
+        return new MarketDataSnapshot(realTimeEnabled, baseRate, inflationRate, rate, maleMortality, femaleMortality,
+            live(Source.ABI_RATE), updated(Source.ABI_RATE, fetchedAt));
+    }
+
+    /**
+     * Replace the mortality tables; both arrays are indexed by age and copied.
+     */
+    public MarketDataSnapshot withMortality(double[] male, double[] female, Instant fetchedAt) {
+        return new MarketDataSnapshot(realTimeEnabled, baseRate, inflationRate, abiRate,
+            Arrays.copyOf(male, MAX_AGE + 1), Arrays.copyOf(female, MAX_AGE + 1),
+            live(Source.MORTALITY), updated(Source.MORTALITY, fetchedAt));
+    }
+
+    /**
+     * Mark a source as stale, keeping its last good value.
+     */
+    public MarketDataSnapshot withStale(Source source) {
+        if (status.get(source) != Status.LIVE) {
+            return this;
+        }
+        Map<Source, Status> next = new EnumMap<>(status);
+        next.put(source, Status.STALE);
+        return new MarketDataSnapshot(realTimeEnabled, baseRate, inflationRate, abiRate, maleMortality, femaleMortality,
+            next, updatedAt);
+    }
+
+    private Map<Source, Status> live(Source source) {
+        Map<Source, Status> next = new EnumMap<>(status);
+        next.put(source, Status.LIVE);
+        return next;
+    }
+
+    private Map<Source, Instant> updated(Source source, Instant fetchedAt) {
+        Map<Source, Instant> next = new EnumMap<>(Source.class);
+        next.putAll(updatedAt);
+        next.put(source, fetchedAt);
+        return next;
+    }
+
+    public double getBaseRate() {
+        return baseRate;
+    }
+
+    public double getInflationRate() {
+        return inflationRate;
+    }
+
+    public double getAbiRate() {
+        return abiRate;
+    }
+
+    public double getMortalityRate(int age, String gender) {
+        if (age < 0) {
+            return calculatedMortality(age, gender);
+        }
+        int index = Math.min(age, MAX_AGE);
+        if ("MALE".equalsIgnoreCase(gender)) {
+            return maleMortality[index];
+        }
+        if ("FEMALE".equalsIgnoreCase(gender)) {
+            return femaleMortality[index];
+        }
+        return calculatedMortality(age, gender);
+    }
+
+    public Status getStatus(Source source) {
+        return status.get(source);
+    }
+
+    /**
+     * When the source's current value was fetched, or null for a built-in value.
+     */
+    public Instant getUpdatedAt(Source source) {
+        return updatedAt.get(source);
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Data-source summary returned with every quote.
+     */
+    public Map<String, Object> getSourceInfo() {
+        return sourceInfo;
+    }
+
+    private Map<String, Object> buildSourceInfo() {
+        Map<String, Object> sources = new LinkedHashMap<>();
+        Map<String, Object> statuses = new LinkedHashMap<>();
+        for (Source source : Source.values()) {
+            Status sourceStatus = status.get(source);
+            sources.put(source.key, sourceStatus == Status.FALLBACK ? source.fallbackLabel : source.liveLabel);
+            statuses.put(source.key, sourceStatus.name().toLowerCase());
+        }
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("realTimeEnabled", realTimeEnabled);
+        info.put("lastUpdated", LocalDateTime.ofInstant(createdAt, ZoneId.systemDefault()));
+        info.put("sources", Collections.unmodifiableMap(sources));
+        if (realTimeEnabled) {
+            info.put("status", Collections.unmodifiableMap(statuses));
+        }
+        return Collections.unmodifiableMap(info);
+    }
+}
@@ -0,0 +1,29 @@
+package com.lloyds.insurance.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a refresh changes a market data value, so that anything precomputed
+ * from the old values (such as the quote grid) can be rebuilt.
+ */
+public class MarketDataUpdatedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final MarketDataSnapshot.Source updatedSource;
+    private final MarketDataSnapshot snapshot;
+
+    public MarketDataUpdatedEvent(Object publisher, MarketDataSnapshot.Source updatedSource, MarketDataSnapshot snapshot) {
+        super(publisher);
+        this.updatedSource = updatedSource;
+        this.snapshot = snapshot;
+    }
+
+    public MarketDataSnapshot.Source getUpdatedSource() {
+        return updatedSource;
+    }
+
+    public MarketDataSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
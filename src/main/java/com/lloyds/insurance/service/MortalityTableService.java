@@ -0,0 +1,101 @@
+package com.lloyds.insurance.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The mortality tables in use, as an immutable {@link MortalityTables}.
+ *
+ * The packaged illustrative table is loaded at startup unless insurance.mortality.path
+ * names a tables file, which is then watched and reloaded on change without a restart.
+ * A file that fails to load leaves the current tables in place. Cached quotes are keyed by
+ * the tables version they were priced with (see {@link #versionFor}), so a reload needs no
+ * cache clearing.
+ */
+@Service
+public class MortalityTableService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MortalityTableService.class);
+
+    private static final String PACKAGED_TABLES = "mortality/qx.csv";
+
+    // CSV of qx by age, gender and smoking status; blank uses the packaged table
+    @Value("${insurance.mortality.path:}")
+    private String tablesPath;
+
+    // Interest rate the commutation columns are computed at
+    @Value("${insurance.mortality.interest-rate:0.03}")
+    private double interestRate;
+
+    @Value("${insurance.mortality.reload-delay-ms:500}")
+    private long reloadDelayMillis;
+
+    private final AtomicReference<MortalityTables> tables = new AtomicReference<>();
+
+    private volatile FileWatcher watcher;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (tablesPath == null || tablesPath.isBlank()) {
+            tables.set(MortalityTables.load(new ClassPathResource(PACKAGED_TABLES), interestRate));
+            return;
+        }
+        // An external file replaces the packaged table from the start; if it cannot be loaded, startup fails
+        Path path = Path.of(tablesPath).toAbsolutePath();
+        reload(path);
+        watcher = FileWatcher.start(path, reloadDelayMillis, "mortality-table-watcher", () -> tryReload(path));
+        logger.info("Watching {} for mortality table changes", path);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * The tables in use. Read them once per calculation.
+     */
+    public MortalityTables getTables() {
+        return tables.get();
+    }
+
+    /**
+     * The tables version a quote priced with the given config depends on, or 0 when its
+     * premiums come from the factor tables.
+     */
+    public long versionFor(CalculationConfigSnapshot config) {
+        return config.getRateTables().premiumFromMortality() ? tables.get().getVersion() : 0;
+    }
+
+    /**
+     * Load and swap in a tables file. Throws, keeping the current tables, if it cannot be
+     * read or parsed.
+     */
+    public synchronized MortalityTables reload(Path path) throws IOException {
+        long start = System.nanoTime();
+        MortalityTables next = MortalityTables.load(path, interestRate);
+        tables.set(next);
+        logger.info("Loaded mortality tables from {} (ages {}-{}) in {} ms", path, next.getMinAge(), next.getMaxAge(),
+            (System.nanoTime() - start) / 1_000_000);
+        return next;
+    }
+
+    private void tryReload(Path path) {
+        try {
+            reload(path);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Rejected mortality table change in {}, keeping {}: {}", path, tables.get(), e.getMessage());
+        }
+    }
+}
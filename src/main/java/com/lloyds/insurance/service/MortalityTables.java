@@ -0,0 +1,290 @@
+package com.lloyds.insurance.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CMI-style mortality tables (qx by age for each gender and smoking status) with their
+ * commutation columns precomputed at one interest rate.
+ *
+ * With Dx = v^x lx, Cx = v^(x+1) dx and Nx, Mx, Rx the sums of Dx, Cx and Mx from age x to
+ * the end of the table, the expected present values used for pricing are a few array
+ * loads: a level term assurance is (Mx - Mx+n) / Dx, an annuity-due of premiums
+ * (Nx - Nx+n) / Dx, and a linearly decreasing assurance (n Mx - (Rx+1 - Rx+n+1)) / Dx.
+ *
+ * Tables are read from CSV: comment lines start with "#", the header is "age" followed by
+ * one "gender_smoking" column per {@link RateTables#GENDERS} and {@link RateTables#SMOKING}
+ * combination, and each row gives qx for consecutive ages. A file on disk is memory-mapped
+ * and parsed in place. Instances are immutable and safe to share.
+ */
+public final class MortalityTables {
+
+    // Policy term in years by coverage period ordinal; whole life runs to the end of the table
+    private static final int[] TERM_YEARS = {10, 15, 20, 25, 30, Integer.MAX_VALUE};
+
+    private static final int CLASSES = RateTables.GENDERS.length * RateTables.SMOKING.length;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final String source;
+    private final double interestRate;
+    private final int minAge;
+    private final int maxAge;
+    // Per class, indexed by age; the columns run two ages past the table so that
+    // Mx+n and Rx+n+1 need no bounds checks
+    private final double[][] qx;
+    private final double[][] d;
+    private final double[][] n;
+    private final double[][] m;
+    private final double[][] r;
+    private final Instant loadedAt;
+    private final long version;
+
+    private MortalityTables(String source, double interestRate, int minAge, int maxAge, double[][] qx) {
+        this.source = source;
+        this.interestRate = interestRate;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.qx = qx;
+        this.d = new double[CLASSES][maxAge + 3];
+        this.n = new double[CLASSES][maxAge + 3];
+        this.m = new double[CLASSES][maxAge + 3];
+        this.r = new double[CLASSES][maxAge + 3];
+        double v = 1 / (1 + interestRate);
+        for (int c = 0; c < CLASSES; c++) {
+            double[] c1 = new double[maxAge + 3];
+            double survivors = 1.0;
+            double discount = Math.pow(v, minAge);
+            for (int age = minAge; age <= maxAge; age++) {
+                double q = age == maxAge ? 1.0 : qx[c][age];
+                d[c][age] = discount * survivors;
+                c1[age] = discount * v * survivors * q;
+                survivors *= 1 - q;
+                discount *= v;
+            }
+            for (int age = maxAge; age >= minAge; age--) {
+                n[c][age] = n[c][age + 1] + d[c][age];
+                m[c][age] = m[c][age + 1] + c1[age];
+                r[c][age] = r[c][age + 1] + m[c][age];
+            }
+        }
+        this.loadedAt = Instant.now();
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Memory-map and parse a tables file.
+     */
+    public static MortalityTables load(Path path, double interestRate) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path.toString(), interestRate);
+        }
+    }
+
+    /**
+     * Parse a tables file packaged on the classpath.
+     */
+    public static MortalityTables load(Resource resource, double interestRate) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return parse(ByteBuffer.wrap(in.readAllBytes()), resource.getDescription(), interestRate);
+        }
+    }
+
+    static MortalityTables parse(ByteBuffer buffer, String source, double interestRate) {
+        int[] columns = null;
+        double[][] qx = new double[CLASSES][RateTables.MAX_AGE + 1];
+        int minAge = -1;
+        int lastAge = -1;
+        int line = 0;
+        int limit = buffer.limit();
+        for (int start = 0; start < limit; ) {
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            line++;
+            if (end > start && buffer.get(start) != '#') {
+                if (columns == null) {
+                    columns = header(buffer, start, end, source);
+                } else {
+                    int age = row(buffer, start, end, columns, qx, source, line);
+                    if (minAge < 0) {
+                        minAge = age;
+                    } else if (age != lastAge + 1) {
+                        throw new IllegalStateException(source + " line " + line + ": expected age " + (lastAge + 1)
+                            + " but found " + age);
+                    }
+                    lastAge = age;
+                }
+            }
+            start = next;
+        }
+        if (lastAge < 0) {
+            throw new IllegalStateException(source + " has no mortality rates");
+        }
+        return new MortalityTables(source, interestRate, minAge, lastAge, qx);
+    }
+
+    // Class index for each column after "age"
+    private static int[] header(ByteBuffer buffer, int start, int end, String source) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String[] names = new String(bytes, StandardCharsets.US_ASCII).split(",");
+        if (!names[0].trim().equals("age")) {
+            throw new IllegalStateException(source + ": the first column must be age");
+        }
+        int[] columns = new int[names.length - 1];
+        boolean[] seen = new boolean[CLASSES];
+        for (int i = 1; i < names.length; i++) {
+            String name = names[i].trim();
+            int separator = name.indexOf('_');
+            int gender = separator > 0 ? RateTables.genderIndex(name.substring(0, separator)) : -1;
+            int smoking = separator > 0 ? RateTables.smokingIndex(name.substring(separator + 1)) : -1;
+            if (gender < 0 || smoking < 0) {
+                throw new IllegalStateException(source + ": unknown column '" + name + "'");
+            }
+            columns[i - 1] = classIndex(gender, smoking);
+            seen[columns[i - 1]] = true;
+        }
+        for (int gender = 0; gender < RateTables.GENDERS.length; gender++) {
+            for (int smoking = 0; smoking < RateTables.SMOKING.length; smoking++) {
+                if (!seen[classIndex(gender, smoking)]) {
+                    throw new IllegalStateException(source + ": missing column " + RateTables.GENDERS[gender] + "_"
+                        + RateTables.SMOKING[smoking]);
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static int row(ByteBuffer buffer, int start, int end, int[] columns, double[][] qx, String source, int line) {
+        int field = 0;
+        int age = -1;
+        for (int from = start; from <= end; field++) {
+            int to = from;
+            while (to < end && buffer.get(to) != ',') {
+                to++;
+            }
+            double value = RepricingJob.parseNumber(buffer, from, to);
+            if (field == 0) {
+                if (!(value >= 0 && value <= RateTables.MAX_AGE) || value != Math.floor(value)) {
+                    throw new IllegalStateException(source + " line " + line + ": age must be a whole number up to "
+                        + RateTables.MAX_AGE);
+                }
+                age = (int) value;
+            } else if (field <= columns.length) {
+                if (!(value >= 0 && value <= 1)) {
+                    throw new IllegalStateException(source + " line " + line + ": qx must be between 0 and 1");
+                }
+                qx[columns[field - 1]][age] = value;
+            }
+            from = to + 1;
+        }
+        if (field != columns.length + 1) {
+            throw new IllegalStateException(source + " line " + line + ": expected " + (columns.length + 1)
+                + " fields but found " + field);
+        }
+        return age;
+    }
+
+    private static int classIndex(int gender, int smoking) {
+        return gender * RateTables.SMOKING.length + smoking;
+    }
+
+    /**
+     * Probability of dying within a year at the given age, or NaN outside the table.
+     */
+    public double qx(int age, int gender, int smoking) {
+        if (gender < 0 || smoking < 0 || age < minAge || age > maxAge) {
+            return Double.NaN;
+        }
+        return age == maxAge ? 1.0 : qx[classIndex(gender, smoking)][age];
+    }
+
+    /**
+     * Level annual premium, payable in advance while alive, for £1 of term cover paid at the
+     * end of the year of death. A term past the end of the table is cut short there. NaN
+     * when the age or class is outside the table.
+     */
+    public double levelTermPremiumRate(int age, int gender, int smoking, int years) {
+        if (gender < 0 || smoking < 0 || age < minAge || age > maxAge || years < 1) {
+            return Double.NaN;
+        }
+        int c = classIndex(gender, smoking);
+        int end = expiry(age, years);
+        return (m[c][age] - m[c][end]) / (n[c][age] - n[c][end]);
+    }
+
+    /**
+     * As {@link #levelTermPremiumRate}, for cover that starts at £1 and falls by 1/years each
+     * year, as on a repayment mortgage.
+     */
+    public double decreasingTermPremiumRate(int age, int gender, int smoking, int years) {
+        if (gender < 0 || smoking < 0 || age < minAge || age > maxAge || years < 1) {
+            return Double.NaN;
+        }
+        int c = classIndex(gender, smoking);
+        int end = expiry(age, years);
+        int term = end - age;
+        // Cover falls over the full term even when the table ends first
+        int fullTerm = years == Integer.MAX_VALUE ? term : years;
+        return ((double) fullTerm * m[c][age] - (r[c][age + 1] - r[c][end + 1]) - (fullTerm - term) * m[c][end])
+            / fullTerm / (n[c][age] - n[c][end]);
+    }
+
+    /**
+     * Policy term in years for a coverage period ordinal, or -1 if unknown.
+     */
+    public static int termYears(int period) {
+        return period >= 0 ? TERM_YEARS[period] : -1;
+    }
+
+    private int expiry(int age, int years) {
+        return (int) Math.min((long) age + years, maxAge + 1);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public double getInterestRate() {
+        return interestRate;
+    }
+
+    public int getMinAge() {
+        return minAge;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Distinct for every set of tables loaded in this process, increasing with each load.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "MortalityTables[" + source + ", ages " + minAge + "-" + maxAge + ", i=" + interestRate + "]";
+    }
+}
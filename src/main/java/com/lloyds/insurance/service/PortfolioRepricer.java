@@ -0,0 +1,332 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Reprices a whole book of policies through the same formulas and rate tables as
+ * {@link ConfigurableCalculationService}, column by column instead of one request at a time.
+ *
+ * Policies are held as parallel primitive arrays ({@link Book}) and processed in blocks.
+ * Each block first gathers its table factors into scratch columns, then runs the
+ * arithmetic as plain loops over double arrays with no branches or boxing, which C2
+ * compiles to SIMD instructions. Every expression keeps the per-request engine's
+ * operand order, so results match it exactly.
+ *
+ * The kernels implement the packaged formulas of the four standard methods. A method
+ * added in config, or one whose formula has been changed, is evaluated row by row with
+ * its compiled {@link Formula} instead.
+ */
+@Service
+public class PortfolioRepricer {
+
+    // Rows per block; the scratch columns for one block stay in L2
+    static final int BLOCK_SIZE = 4096;
+
+    // The formula each columnar kernel implements, by method name
+    private static final Map<String, String> KERNELS = Map.of(
+        "income-replacement", "annualIncome * multiplier",
+        "dime", "otherDebts + incomeNeeds + mortgage + educationFund",
+        "needs-analysis", "monthlyExpenses * 12 * yearsOfSupport + funeralCosts + otherDebts - savings",
+        "human-life-value", "presentValue(annualIncome, workingYears, discountRate)");
+
+    @Autowired
+    private CalculationConfigService calculationConfigService;
+
+    @Autowired
+    private AnnuityCalculator annuityCalculator;
+
+    @Autowired
+    private MortalityTableService mortalityTableService;
+
+    /**
+     * Reprice every policy in the book. Blocks run in parallel on the common pool, all
+     * with the config version in use when the call starts.
+     */
+    public Result reprice(Book book) {
+        return reprice(book, book.size);
+    }
+
+    /**
+     * Reprice the first {@code rows} policies, for a book reused across batches.
+     */
+    public Result reprice(Book book, int rows) {
+        if (rows < 0 || rows > book.size) {
+            throw new IllegalArgumentException("rows must be between 0 and " + book.size);
+        }
+        CalculationConfigSnapshot snapshot = calculationConfigService.getSnapshot();
+        RateTables tables = snapshot.getRateTables();
+        CalculationConfig.CalculationType config = snapshot.getInsurance();
+        MortalityTables mortality = tables.premiumFromMortality() ? mortalityTableService.getTables() : null;
+
+        // Methods without a matching kernel get a column of their own, filled from their formula
+        Map<String, Formula> formulas = new LinkedHashMap<>();
+        Set<Formula.Variable> used = EnumSet.noneOf(Formula.Variable.class);
+        List<CalculationConfig.CalculationMethod> methods = config.getMethods();
+        for (int i = 0; i < methods.size(); i++) {
+            Formula formula = snapshot.getFormula(i);
+            String kernel = KERNELS.get(methods.get(i).getName());
+            if (kernel == null || !kernel.equals(formula.getSource().trim())) {
+                formulas.put(methods.get(i).getName(), formula);
+                used.addAll(formula.getVariables());
+            }
+        }
+        Formula.Variable[] variables = used.toArray(new Formula.Variable[0]);
+
+        Result result = new Result(rows, formulas.keySet());
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(rows, from + BLOCK_SIZE);
+            if (!formulas.isEmpty()) {
+                evaluateBlock(book, result, from, to, tables, formulas, variables);
+            }
+            repriceBlock(book, result, from, to, tables, mortality, config);
+        });
+        return result;
+    }
+
+    private static void evaluateBlock(Book book, Result result, int from, int to, RateTables tables,
+                                      Map<String, Formula> formulas, Formula.Variable[] variables) {
+        double[] slots = new double[Formula.Variable.values().length];
+        for (int row = from; row < to; row++) {
+            for (Formula.Variable variable : variables) {
+                slots[variable.ordinal()] = value(variable, book, row, tables);
+            }
+            for (Map.Entry<String, Formula> formula : formulas.entrySet()) {
+                result.formulaColumns.get(formula.getKey())[row] = formula.getValue().evaluate(slots);
+            }
+        }
+    }
+
+    // A formula variable for one row; anything not held as a column is derived by Formula itself
+    private static double value(Formula.Variable variable, Book book, int row, RateTables tables) {
+        switch (variable) {
+            case AGE: return book.age[row];
+            case DEPENDENTS: return book.dependents[row];
+            case ANNUAL_INCOME: return book.annualIncome[row];
+            case MONTHLY_EXPENSES: return book.monthlyExpenses[row];
+            case EXISTING_COVERAGE: return book.existingCoverage[row];
+            case SAVINGS: return book.savings[row];
+            case TOTAL_DEBTS: return book.totalDebts[row];
+            case FUNERAL_COSTS: return book.funeralCosts[row];
+            case EDUCATION_FUND: return book.educationFund[row];
+            default: return Formula.derived(variable, book.age[row], book.dependents[row], book.period[row],
+                book.annualIncome[row], book.totalDebts[row], tables);
+        }
+    }
+
+    private void repriceBlock(Book book, Result result, int from, int to,
+                              RateTables tables, MortalityTables mortality, CalculationConfig.CalculationType config) {
+        int n = to - from;
+        double[] incomeMultiplier = new double[n];
+        double[] dimeYears = new double[n];
+        double[] supportYears = new double[n];
+        double[] monthlyRate = new double[n];
+
+        // Table lookups, one row at a time
+        double discountRate = tables.discountRate();
+        for (int i = 0; i < n; i++) {
+            int row = from + i;
+            int age = book.age[row];
+            int dependents = book.dependents[row];
+            int period = book.period[row];
+            incomeMultiplier[i] = tables.incomeMultiplier(age, dependents, period);
+            dimeYears[i] = tables.dimeIncomeYears(period);
+            supportYears[i] = Formula.yearsOfSupport(tables, age, dependents);
+            monthlyRate[i] = ConfigurableCalculationService.monthlyPremiumRate(tables, mortality, age,
+                book.gender[row], book.smoking[row], period, book.inflation[row]);
+            // Same annuity tables and whole-pound rounding as the per-request engine
+            result.humanLifeValue[row] = Math.round(annuityCalculator.presentValue(book.annualIncome[row],
+                tables.workingYears(age, period), discountRate));
+        }
+
+        // Method amounts
+        for (int i = 0; i < n; i++) {
+            int row = from + i;
+            result.incomeReplacement[row] = book.annualIncome[row] * incomeMultiplier[i];
+        }
+        for (int i = 0; i < n; i++) {
+            int row = from + i;
+            double debts = book.totalDebts[row];
+            result.dime[row] = Formula.otherDebts(debts) + Formula.incomeNeeds(book.annualIncome[row], dimeYears[i])
+                + Formula.mortgage(debts) + book.educationFund[row];
+        }
+        for (int i = 0; i < n; i++) {
+            int row = from + i;
+            result.needsAnalysis[row] = book.monthlyExpenses[row] * 12 * supportYears[i] + book.funeralCosts[row]
+                + Formula.otherDebts(book.totalDebts[row]) - book.savings[row];
+        }
+
+        // Weighted recommendation, in configured method order like the per-request engine
+        CalculationConfig.RecommendationConfig recommendation = config.getRecommendation();
+        Map<String, Double> weights = recommendation.getWeights();
+        double[] weightedSum = new double[n];
+        double totalWeight = 0.0;
+        for (CalculationConfig.CalculationMethod method : config.getMethods()) {
+            Double weight = weights.get(method.getName());
+            if (weight == null) {
+                continue;
+            }
+            // Every configured method has a column, from its kernel or its formula
+            double[] amounts = result.method(method.getName());
+            double w = weight;
+            for (int i = 0; i < n; i++) {
+                weightedSum[i] += amounts[from + i] * w;
+            }
+            totalWeight += weight;
+        }
+        for (int i = 0; i < n; i++) {
+            double recommended = totalWeight > 0 ? weightedSum[i] / totalWeight : 0.0;
+            result.recommendedCoverage[from + i] = ConfigurableCalculationService.limitAndRound(recommended, recommendation);
+        }
+
+        // Premiums
+        for (int i = 0; i < n; i++) {
+            int row = from + i;
+            double monthly = result.recommendedCoverage[row] * monthlyRate[i];
+            result.monthlyPremium[row] = monthly;
+            result.annualPremium[row] = monthly * 12;
+        }
+    }
+
+    /**
+     * A book of policies as parallel columns, one row per policy. Categorical fields hold
+     * {@link RateTables} ordinals, -1 where the value is not recognised.
+     */
+    public static final class Book {
+        final int size;
+        final int[] age;
+        final int[] dependents;
+        final byte[] period;
+        final byte[] gender;
+        final byte[] smoking;
+        final byte[] inflation;
+        final double[] annualIncome;
+        final double[] monthlyExpenses;
+        final double[] existingCoverage;
+        final double[] savings;
+        final double[] totalDebts;
+        final double[] funeralCosts;
+        final double[] educationFund;
+
+        public Book(int size) {
+            this.size = size;
+            this.age = new int[size];
+            this.dependents = new int[size];
+            this.period = new byte[size];
+            this.gender = new byte[size];
+            this.smoking = new byte[size];
+            this.inflation = new byte[size];
+            this.annualIncome = new double[size];
+            this.monthlyExpenses = new double[size];
+            this.existingCoverage = new double[size];
+            this.savings = new double[size];
+            this.totalDebts = new double[size];
+            this.funeralCosts = new double[size];
+            this.educationFund = new double[size];
+        }
+
+        public static Book of(List<InsuranceCalculationRequest> requests) {
+            Book book = new Book(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                book.set(i, requests.get(i));
+            }
+            return book;
+        }
+
+        /**
+         * Copy one request into a row. Fails on the same missing values the per-request
+         * engine does.
+         */
+        public void set(int row, InsuranceCalculationRequest request) {
+            age[row] = request.getAge();
+            dependents[row] = request.getDependents();
+            period[row] = (byte) RateTables.periodIndex(request.getCoveragePeriod());
+            gender[row] = (byte) RateTables.genderIndex(request.getGender());
+            smoking[row] = (byte) RateTables.smokingIndex(request.getSmoking());
+            inflation[row] = (byte) RateTables.inflationIndex(request.getInflationProtection());
+            annualIncome[row] = request.getAnnualIncome();
+            monthlyExpenses[row] = request.getMonthlyExpenses();
+            existingCoverage[row] = request.getExistingCoverage();
+            savings[row] = request.getSavings();
+            totalDebts[row] = request.getTotalDebts();
+            funeralCosts[row] = request.getFuneralCosts();
+            educationFund[row] = request.getEducationFund();
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Repriced amounts as columns, row for row with the {@link Book}.
+     */
+    public static final class Result {
+        final double[] incomeReplacement;
+        final double[] dime;
+        final double[] needsAnalysis;
+        final double[] humanLifeValue;
+        final double[] recommendedCoverage;
+        final double[] monthlyPremium;
+        final double[] annualPremium;
+        final Map<String, double[]> formulaColumns = new LinkedHashMap<>();
+
+        Result(int size, Set<String> formulaMethods) {
+            incomeReplacement = new double[size];
+            dime = new double[size];
+            needsAnalysis = new double[size];
+            humanLifeValue = new double[size];
+            recommendedCoverage = new double[size];
+            monthlyPremium = new double[size];
+            annualPremium = new double[size];
+            for (String method : formulaMethods) {
+                formulaColumns.put(method, new double[size]);
+            }
+        }
+
+        /**
+         * Amounts for one calculation method by its configured name, or null if unknown.
+         */
+        public double[] method(String name) {
+            double[] evaluated = formulaColumns.get(name);
+            if (evaluated != null) {
+                return evaluated;
+            }
+            switch (name) {
+                case "income-replacement":
+                    return incomeReplacement;
+                case "dime":
+                    return dime;
+                case "needs-analysis":
+                    return needsAnalysis;
+                case "human-life-value":
+                    return humanLifeValue;
+                default:
+                    return null;
+            }
+        }
+
+        public double[] getRecommendedCoverage() {
+            return recommendedCoverage;
+        }
+
+        public double[] getMonthlyPremium() {
+            return monthlyPremium;
+        }
+
+        public double[] getAnnualPremium() {
+            return annualPremium;
+        }
+    }
+}
@@ -1,65 +1,376 @@
 package com.lloyds.insurance.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lloyds.insurance.dto.CalculationProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.time.LocalDateTime;
 
+/**
+ * Progress of long-running jobs such as batch quotes, readable by polling or pushed to
+ * subscribers as Server-Sent Events.
+ *
+ * Each subscriber holds at most one pending update. A new update replaces one that has not
+ * been sent yet, so a slow client skips intermediate states and always receives the
+ * latest one, and a job never waits on its subscribers: sending happens on a small
+ * dedicated pool. A write that blocks for longer than insurance.progress.send-timeout-ms
+ * drops its subscriber and is interrupted, so stalled clients cannot hold the pool.
+ *
+ * At most insurance.progress.max-sessions sessions are kept, dropping the least recently
+ * used, and a session nobody has touched for insurance.progress.session-ttl-minutes
+ * expires; see {@link ProgressSessions}. Open streams on a removed session are closed.
+ */
 @Service
 public class ProgressService {
     
-    private final Map<String, CalculationProgress> progressMap = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(ProgressService.class);
+    
+    private ProgressSessions sessions;
+    
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    
+    private final AtomicLong stalledSubscribers = new AtomicLong();
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Threads writing events to subscribers; a stalled client holds one only while its write blocks
+    @Value("${insurance.progress.sender-threads:2}")
+    private int senderThreads;
+    
+    // Longest a single event write may block before the subscriber is dropped
+    @Value("${insurance.progress.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+    
+    // How long a stream stays open, in milliseconds
+    @Value("${insurance.progress.stream-timeout:600000}")
+    private long streamTimeout;
+    
+    @Value("${insurance.progress.max-sessions:10000}")
+    private int maxSessions;
+    
+    // Idle time after which a session is removed
+    @Value("${insurance.progress.session-ttl-minutes:60}")
+    private long sessionTtlMinutes;
+    
+    // Granularity of expiry; a session lives between the TTL and the TTL plus one tick
+    @Value("${insurance.progress.expiry-tick-seconds:10}")
+    private long expiryTickSeconds;
+    
+    private ExecutorService sender;
+    
+    private ScheduledExecutorService expiry;
+    
+    @PostConstruct
+    public void init() {
+        sessions = new ProgressSessions(maxSessions, TimeUnit.MINUTES.toMillis(sessionTtlMinutes),
+            TimeUnit.SECONDS.toMillis(expiryTickSeconds), System::nanoTime, this::closeSubscribers);
+        AtomicInteger counter = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "progress-sse-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiry = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiry.scheduleWithFixedDelay(this::cleanupOldSessions, expiryTickSeconds, expiryTickSeconds, TimeUnit.SECONDS);
+        long stallCheck = Math.max(10, sendTimeoutMillis / 2);
+        expiry.scheduleWithFixedDelay(this::dropStalledSubscribers, stallCheck, stallCheck, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        expiry.shutdownNow();
+        sender.shutdownNow();
+    }
     
     public String createProgressSession() {
+        return createProgressSession(8); // 8 total steps
+    }
+    
+    public String createProgressSession(int totalSteps) {
         String sessionId = UUID.randomUUID().toString();
-        CalculationProgress progress = new CalculationProgress(sessionId, 8); // 8 total steps
-        progressMap.put(sessionId, progress);
+        CalculationProgress progress = new CalculationProgress(sessionId, totalSteps);
+        sessions.add(progress);
         return sessionId;
     }
     
     public CalculationProgress getProgress(String sessionId) {
-        return progressMap.get(sessionId);
+        return sessions.get(sessionId);
     }
     
     public void updateProgress(String sessionId, int step, String stepName, String stepDescription) {
-        CalculationProgress progress = progressMap.get(sessionId);
+        CalculationProgress progress = sessions.get(sessionId);
         if (progress != null) {
-            progress.updateProgress(step, stepName, stepDescription);
+            synchronized (progress) {
+                progress.updateProgress(step, stepName, stepDescription);
+            }
+            publish(progress);
         }
     }
     
     public void addCompletedStep(String sessionId, String name, String description, long durationMs, boolean success) {
-        CalculationProgress progress = progressMap.get(sessionId);
+        CalculationProgress progress = sessions.get(sessionId);
         if (progress != null) {
-            progress.addCompletedStep(name, description, durationMs, success);
+            synchronized (progress) {
+                progress.addCompletedStep(name, description, durationMs, success);
+            }
+            publish(progress);
         }
     }
     
     public void completeProgress(String sessionId) {
-        CalculationProgress progress = progressMap.get(sessionId);
+        CalculationProgress progress = sessions.get(sessionId);
         if (progress != null) {
-            progress.setComplete(true);
-            progress.setStatus("COMPLETED");
-            progress.setLastUpdateTime(LocalDateTime.now());
+            synchronized (progress) {
+                progress.setComplete(true);
+                progress.setStatus("COMPLETED");
+                progress.setLastUpdateTime(LocalDateTime.now());
+            }
+            publish(progress);
         }
     }
     
     public void errorProgress(String sessionId, String errorMessage) {
-        CalculationProgress progress = progressMap.get(sessionId);
+        CalculationProgress progress = sessions.get(sessionId);
         if (progress != null) {
-            progress.setStatus("ERROR");
-            progress.setCurrentStepDescription("Error: " + errorMessage);
-            progress.setLastUpdateTime(LocalDateTime.now());
+            synchronized (progress) {
+                progress.setStatus("ERROR");
+                progress.setCurrentStepDescription("Error: " + errorMessage);
+                progress.setLastUpdateTime(LocalDateTime.now());
+            }
+            publish(progress);
+        }
+    }
+    
+    /**
+     * Stream updates for a session as Server-Sent Events, starting with its current state.
+     * Returns null for an unknown session.
+     */
+    public SseEmitter subscribe(String sessionId) {
+        return subscribe(sessionId, new SseEmitter(streamTimeout));
+    }
+    
+    SseEmitter subscribe(String sessionId, SseEmitter emitter) {
+        CalculationProgress progress = sessions.get(sessionId);
+        if (progress == null) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(sessionId, emitter);
+        subscribers.computeIfAbsent(sessionId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        offer(subscriber, progress);
+        return emitter;
+    }
+    
+    /**
+     * Updates replaced before a slow subscriber received them.
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+    
+    /**
+     * Subscribers dropped because a write to them blocked for longer than the send timeout.
+     */
+    public long getStalledSubscribers() {
+        return stalledSubscribers.get();
+    }
+    
+    private void publish(CalculationProgress progress) {
+        List<Subscriber> listeners = subscribers.get(progress.getSessionId());
+        if (listeners != null) {
+            for (Subscriber subscriber : listeners) {
+                offer(subscriber, progress);
+            }
+        }
+    }
+    
+    private void offer(Subscriber subscriber, CalculationProgress progress) {
+        if (subscriber.pending.getAndSet(progress) != null) {
+            droppedUpdates.incrementAndGet();
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            CalculationProgress progress = subscriber.pending.getAndSet(null);
+            if (progress == null) {
+                subscriber.draining.set(false);
+                // An update may have arrived after the last check but before the flag was cleared
+                if (subscriber.pending.get() == null || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (!send(subscriber, progress)) {
+                return;
+            }
+        }
+    }
+    
+    private boolean send(Subscriber subscriber, CalculationProgress progress) {
+        String json;
+        boolean finished;
+        synchronized (progress) {
+            try {
+                json = objectMapper.writeValueAsString(progress);
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not serialise progress for session {}: {}", subscriber.sessionId, e.getMessage());
+                return true;
+            }
+            finished = progress.isComplete() || "ERROR".equals(progress.getStatus());
+        }
+        try {
+            synchronized (subscriber) {
+                if (subscriber.stalled) {
+                    return false;
+                }
+                subscriber.sendingThread = Thread.currentThread();
+                subscriber.sendStarted = System.nanoTime();
+            }
+            try {
+                subscriber.emitter.send(SseEmitter.event().name("progress").data(json, MediaType.APPLICATION_JSON));
+            } finally {
+                synchronized (subscriber) {
+                    subscriber.sendingThread = null;
+                }
+                // Clear an interrupt from dropStalledSubscribers that landed as the write returned
+                Thread.interrupted();
+            }
+            if (subscriber.stalled) {
+                return false;
+            }
+            if (finished) {
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+                return false;
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports it through onError/onCompletion as well
+            unsubscribe(subscriber);
+            return false;
+        }
+    }
+    
+    /**
+     * Drop subscribers whose current write has blocked past the send timeout, interrupting
+     * the write so the sender thread is freed. Runs on the expiry thread.
+     */
+    void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (List<Subscriber> listeners : subscribers.values()) {
+            for (Subscriber subscriber : listeners) {
+                synchronized (subscriber) {
+                    if (subscriber.sendingThread == null || now - subscriber.sendStarted < timeout) {
+                        continue;
+                    }
+                    subscriber.stalled = true;
+                    subscriber.sendingThread.interrupt();
+                }
+                unsubscribe(subscriber);
+                stalledSubscribers.incrementAndGet();
+                logger.warn("Dropped a progress stream for session {} after a write blocked for over {} ms",
+                    subscriber.sessionId, sendTimeoutMillis);
+                try {
+                    subscriber.emitter.completeWithError(new IOException("Progress client stalled"));
+                } catch (RuntimeException e) {
+                    // Already completed by the container
+                }
+            }
         }
     }
     
+    private void unsubscribe(Subscriber subscriber) {
+        List<Subscriber> listeners = subscribers.get(subscriber.sessionId);
+        if (listeners != null) {
+            listeners.remove(subscriber);
+            if (listeners.isEmpty()) {
+                subscribers.remove(subscriber.sessionId, listeners);
+            }
+        }
+    }
+    
+    int getSubscriberCount(String sessionId) {
+        List<Subscriber> listeners = subscribers.get(sessionId);
+        return listeners != null ? listeners.size() : 0;
+    }
+    
+    int getSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * Remove expired sessions. Runs every expiry tick on its own thread.
+     */
     public void cleanupOldSessions() {
-        // Remove sessions older than 1 hour
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
-        progressMap.entrySet().removeIf(entry -> 
-            entry.getValue().getStartTime().isBefore(cutoff)
-        );
+        try {
+            sessions.expire();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next tick retries
+            logger.warn("Progress session expiry failed: {}", e.getMessage());
+        }
+    }
+    
+    private void closeSubscribers(CalculationProgress progress) {
+        List<Subscriber> listeners = subscribers.remove(progress.getSessionId());
+        if (listeners != null) {
+            for (Subscriber subscriber : listeners) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+    
+    /**
+     * One open stream with room for a single pending update.
+     */
+    private static final class Subscriber {
+        private final String sessionId;
+        private final SseEmitter emitter;
+        private final AtomicReference<CalculationProgress> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Guarded by the subscriber's monitor
+        private Thread sendingThread;
+        private long sendStarted;
+        private volatile boolean stalled;
+    
+        private Subscriber(String sessionId, SseEmitter emitter) {
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.CalculationProgress;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress sessions with a hard size limit and idle expiry, both in constant time.
+ *
+ * Sessions are kept in access order, so going over the limit drops the least recently
+ * used one. Expiry uses a timer wheel: a ring of slots, one per tick, with each session
+ * linked into the slot of the tick it expires in. Using a session moves it to a later
+ * slot, and each tick only visits the sessions due in it, so there is never a scan over
+ * every session.
+ */
+final class ProgressSessions {
+
+    private final int maxSessions;
+    private final long tickNanos;
+    private final long ttlTicks;
+    private final LongSupplier clock;
+    private final Consumer<CalculationProgress> onRemoval;
+
+    // Guarded by itself, as a get reorders it
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Head of each slot's list; a session's slot is its expiry tick modulo the ring size
+    private final Session[] wheel;
+
+    private long currentTick;
+
+    ProgressSessions(int maxSessions, long ttlMillis, long tickMillis, LongSupplier clock, Consumer<CalculationProgress> onRemoval) {
+        if (maxSessions < 1 || tickMillis < 1 || ttlMillis < tickMillis) {
+            throw new IllegalArgumentException("Need at least one session and a TTL of at least one tick");
+        }
+        this.maxSessions = maxSessions;
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.ttlTicks = (ttlMillis + tickMillis - 1) / tickMillis;
+        this.clock = clock;
+        this.onRemoval = onRemoval;
+        // One extra slot so a session expiring a full TTL from now never shares the current slot
+        this.wheel = new Session[(int) ttlTicks + 1];
+        this.currentTick = tick();
+    }
+
+    void add(CalculationProgress progress) {
+        List<CalculationProgress> evicted = new ArrayList<>(1);
+        synchronized (sessions) {
+            Session session = new Session(progress);
+            Session replaced = sessions.put(progress.getSessionId(), session);
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            schedule(session);
+            while (sessions.size() > maxSessions) {
+                Session eldest = sessions.values().iterator().next();
+                sessions.remove(eldest.progress.getSessionId());
+                unlink(eldest);
+                evicted.add(eldest.progress);
+            }
+        }
+        evicted.forEach(onRemoval);
+    }
+
+    /**
+     * Look up a session and push back its expiry.
+     */
+    CalculationProgress get(String sessionId) {
+        synchronized (sessions) {
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                return null;
+            }
+            unlink(session);
+            schedule(session);
+            return session.progress;
+        }
+    }
+
+    /**
+     * Remove the sessions due since the last call. Visits one slot per elapsed tick, and at
+     * most one full turn of the wheel however long it has been.
+     */
+    void expire() {
+        List<CalculationProgress> expired = new ArrayList<>();
+        synchronized (sessions) {
+            long now = tick();
+            long from = Math.max(currentTick + 1, now - wheel.length + 1);
+            for (long t = from; t <= now; t++) {
+                Session session = wheel[slot(t)];
+                while (session != null) {
+                    Session next = session.next;
+                    if (session.expiryTick <= now) {
+                        sessions.remove(session.progress.getSessionId());
+                        unlink(session);
+                        expired.add(session.progress);
+                    }
+                    session = next;
+                }
+            }
+            currentTick = Math.max(currentTick, now);
+        }
+        expired.forEach(onRemoval);
+    }
+
+    int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private long tick() {
+        return Math.floorDiv(clock.getAsLong(), tickNanos);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+
+    private void schedule(Session session) {
+        session.expiryTick = tick() + ttlTicks;
+        int slot = slot(session.expiryTick);
+        session.slot = slot;
+        session.next = wheel[slot];
+        if (session.next != null) {
+            session.next.prev = session;
+        }
+        wheel[slot] = session;
+    }
+
+    private void unlink(Session session) {
+        if (session.slot < 0) {
+            return;
+        }
+        if (session.prev != null) {
+            session.prev.next = session.next;
+        } else {
+            wheel[session.slot] = session.next;
+        }
+        if (session.next != null) {
+            session.next.prev = session.prev;
+        }
+        session.prev = null;
+        session.next = null;
+        session.slot = -1;
+    }
+
+    private static final class Session {
+        private final CalculationProgress progress;
+        private long expiryTick;
+        private int slot = -1;
+        private Session prev;
+        private Session next;
+
+        private Session(CalculationProgress progress) {
+            this.progress = progress;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.lloyds.insurance.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical quotes.
+ *
+ * The first caller for a {@link QuoteKey} computes the result on its own thread; callers
+ * that arrive with an equal key while that computation is running wait for it and share
+ * its result (or its exception) instead of computing again. Nothing is remembered once
+ * the computation finishes, so this complements the result cache rather than replacing it.
+ * Only the map entry for the key is contended; there is no global lock.
+ *
+ * @param <T> result type
+ */
+public final class QuoteCoalescer<T> {
+
+    private final ConcurrentMap<QuoteKey, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Run {@code computation} for {@code key}, or join the identical computation already running.
+     */
+    public T execute(QuoteKey key, Supplier<T> computation) {
+        CompletableFuture<T> own = new CompletableFuture<>();
+        CompletableFuture<T> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return join(running);
+        }
+
+        try {
+            T result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Callers that shared another caller's computation instead of running their own.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Distinct quotes being computed right now.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+
+/**
+ * Annual premium per £1 of cover, precomputed for every combination of the discrete
+ * premium dimensions: age 18–80, gender, smoking status, coverage period and inflation
+ * protection. Dependents do not enter the premium, so they are not a dimension.
+ *
+ * The whole surface is one flat double array (about 4,500 cells), so a premium is a single
+ * index computation and a multiply by the cover amount. Ages are whole years, so every
+ * valid request falls exactly on a grid point and no interpolation is needed. Instances
+ * are immutable; a new grid is built whenever the underlying rates change.
+ */
+public final class QuoteGrid {
+
+    public static final int MIN_AGE = 18;
+    public static final int MAX_AGE = 80;
+
+    private static final int AGES = MAX_AGE - MIN_AGE + 1;
+
+    /**
+     * Annual premium for £1 of cover in one cell of the grid.
+     */
+    @FunctionalInterface
+    public interface RateFunction {
+        double annualRate(int age, String gender, String smoking, String coveragePeriod, String inflationProtection);
+    }
+
+    private final double[] annualRates;
+
+    private QuoteGrid(double[] annualRates) {
+        this.annualRates = annualRates;
+    }
+
+    public static QuoteGrid build(RateFunction rateFunction) {
+        double[] rates = new double[AGES * RateTables.GENDERS.length * RateTables.SMOKING.length
+            * RateTables.PERIODS.length * RateTables.INFLATION.length];
+        for (int age = MIN_AGE; age <= MAX_AGE; age++) {
+            for (int g = 0; g < RateTables.GENDERS.length; g++) {
+                for (int s = 0; s < RateTables.SMOKING.length; s++) {
+                    for (int p = 0; p < RateTables.PERIODS.length; p++) {
+                        for (int i = 0; i < RateTables.INFLATION.length; i++) {
+                            rates[index(age, g, s, p, i)] = rateFunction.annualRate(age, RateTables.GENDERS[g],
+                                RateTables.SMOKING[s], RateTables.PERIODS[p], RateTables.INFLATION[i]);
+                        }
+                    }
+                }
+            }
+        }
+        return new QuoteGrid(rates);
+    }
+
+    /**
+     * Annual premium per £1 of cover, or NaN when the request falls outside the grid.
+     */
+    public double annualRate(InsuranceCalculationRequest request) {
+        Integer age = request.getAge();
+        if (age == null || age < MIN_AGE || age > MAX_AGE) {
+            return Double.NaN;
+        }
+        int gender = RateTables.genderIndex(request.getGender());
+        int smoking = RateTables.smokingIndex(request.getSmoking());
+        int period = RateTables.periodIndex(request.getCoveragePeriod());
+        int inflation = RateTables.inflationIndex(
+            request.getInflationProtection() != null ? request.getInflationProtection() : "no");
+        if (gender < 0 || smoking < 0 || period < 0 || inflation < 0) {
+            return Double.NaN;
+        }
+        return annualRates[index(age, gender, smoking, period, inflation)];
+    }
+
+    /**
+     * Annual premium per £1,000 of cover, as quoted on price-comparison feeds.
+     */
+    public double annualRatePerThousand(InsuranceCalculationRequest request) {
+        return annualRate(request) * 1000.0;
+    }
+
+    public int size() {
+        return annualRates.length;
+    }
+
+    private static int index(int age, int gender, int smoking, int period, int inflation) {
+        int index = age - MIN_AGE;
+        index = index * RateTables.GENDERS.length + gender;
+        index = index * RateTables.SMOKING.length + smoking;
+        index = index * RateTables.PERIODS.length + period;
+        return index * RateTables.INFLATION.length + inflation;
+    }
+}
@@ -0,0 +1,147 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+
+import java.util.Objects;
+
+/**
+ * Canonical, value-based identity of a quote request.
+ *
+ * Built from the normalised request fields so that two requests describing the same
+ * customer produce equal keys, regardless of object identity. Monetary amounts are
+ * quantised to whole pence: anything finer cannot change a quote, while anything coarser
+ * would merge requests whose breakdowns differ. The requested detail level is part of the
+ * key, since a summary response must never be served for a full one. So is the version of
+ * calculation-config.yml the quote is priced with, and of the mortality tables when premiums
+ * come from them, so that a reload leaves results cached under the old version unreachable
+ * without clearing anything. Equality compares
+ * every field, so two keys that happen to share a hash are never confused.
+ */
+public final class QuoteKey {
+
+    // Stands in for a missing monetary value; no real amount quantises to this
+    private static final long ABSENT = Long.MIN_VALUE;
+
+    private final int age;
+    private final int dependents;
+    private final String gender;
+    private final String smoking;
+    private final String coveragePeriod;
+    private final String inflationProtection;
+    private final long annualIncome;
+    private final long monthlyExpenses;
+    private final long existingCoverage;
+    private final long savings;
+    private final long totalDebts;
+    private final long funeralCosts;
+    private final long educationFund;
+    private final DetailLevel detail;
+    private final long configVersion;
+    private final long tablesVersion;
+    private final int hash;
+
+    private QuoteKey(InsuranceCalculationRequest request, DetailLevel detail, long configVersion, long tablesVersion) {
+        this.age = request.getAge() != null ? request.getAge() : -1;
+        this.dependents = request.getDependents() != null ? request.getDependents() : 0;
+        this.gender = request.getGender();
+        this.smoking = request.getSmoking();
+        this.coveragePeriod = request.getCoveragePeriod();
+        this.inflationProtection = request.getInflationProtection() != null ? request.getInflationProtection() : "no";
+        this.annualIncome = pence(request.getAnnualIncome());
+        this.monthlyExpenses = pence(request.getMonthlyExpenses());
+        this.existingCoverage = pence(request.getExistingCoverage());
+        this.savings = pence(request.getSavings());
+        this.totalDebts = pence(request.getTotalDebts());
+        this.funeralCosts = pence(request.getFuneralCosts());
+        this.educationFund = pence(request.getEducationFund());
+        this.detail = detail;
+        this.configVersion = configVersion;
+        this.tablesVersion = tablesVersion;
+        this.hash = computeHash();
+    }
+
+    public static QuoteKey of(InsuranceCalculationRequest request) {
+        return of(request, DetailLevel.FULL);
+    }
+
+    public static QuoteKey of(InsuranceCalculationRequest request, DetailLevel detail) {
+        return of(request, detail, 0);
+    }
+
+    /**
+     * Key for a quote priced with the given {@link CalculationConfigSnapshot} version.
+     */
+    public static QuoteKey of(InsuranceCalculationRequest request, DetailLevel detail, long configVersion) {
+        return of(request, detail, configVersion, 0);
+    }
+
+    /**
+     * Key for a quote priced with the given config version and {@link MortalityTables} version.
+     */
+    public static QuoteKey of(InsuranceCalculationRequest request, DetailLevel detail, long configVersion, long tablesVersion) {
+        return new QuoteKey(request, detail != null ? detail : DetailLevel.FULL, configVersion, tablesVersion);
+    }
+
+    private static long pence(Double amount) {
+        return amount != null ? Math.round(amount * 100.0) : ABSENT;
+    }
+
+    private int computeHash() {
+        int h = age;
+        h = 31 * h + dependents;
+        h = 31 * h + Objects.hashCode(gender);
+        h = 31 * h + Objects.hashCode(smoking);
+        h = 31 * h + Objects.hashCode(coveragePeriod);
+        h = 31 * h + inflationProtection.hashCode();
+        h = 31 * h + Long.hashCode(annualIncome);
+        h = 31 * h + Long.hashCode(monthlyExpenses);
+        h = 31 * h + Long.hashCode(existingCoverage);
+        h = 31 * h + Long.hashCode(savings);
+        h = 31 * h + Long.hashCode(totalDebts);
+        h = 31 * h + Long.hashCode(funeralCosts);
+        h = 31 * h + Long.hashCode(educationFund);
+        h = 31 * h + detail.hashCode();
+        h = 31 * h + Long.hashCode(configVersion);
+        h = 31 * h + Long.hashCode(tablesVersion);
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof QuoteKey)) return false;
+        QuoteKey other = (QuoteKey) o;
+        return hash == other.hash
+            && age == other.age
+            && dependents == other.dependents
+            && annualIncome == other.annualIncome
+            && monthlyExpenses == other.monthlyExpenses
+            && existingCoverage == other.existingCoverage
+            && savings == other.savings
+            && totalDebts == other.totalDebts
+            && funeralCosts == other.funeralCosts
+            && educationFund == other.educationFund
+            && detail == other.detail
+            && configVersion == other.configVersion
+            && tablesVersion == other.tablesVersion
+            && Objects.equals(gender, other.gender)
+            && Objects.equals(smoking, other.smoking)
+            && Objects.equals(coveragePeriod, other.coveragePeriod)
+            && inflationProtection.equals(other.inflationProtection);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "QuoteKey[age=" + age + ", gender=" + gender + ", smoking=" + smoking
+            + ", period=" + coveragePeriod + ", inflation=" + inflationProtection + ", dependents=" + dependents
+            + ", income=" + annualIncome + ", expenses=" + monthlyExpenses + ", existing=" + existingCoverage
+            + ", savings=" + savings + ", debts=" + totalDebts + ", funeral=" + funeralCosts
+            + ", education=" + educationFund + ", detail=" + detail + ", config=" + configVersion + ", tables=" + tablesVersion + "]";
+    }
+}
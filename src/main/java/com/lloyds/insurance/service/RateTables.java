@@ -0,0 +1,332 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate tables compiled from {@link CalculationConfig} into dense primitive arrays.
+ *
+ * The YAML bands ("18-25", "1-2", "3+") are expanded once at load time so that every
+ * factor used on the calculation path is a single array load indexed by age, number of
+ * dependents or coverage period ordinal. Instances are immutable and safe to share.
+ */
+public final class RateTables {
+
+    public static final int MAX_AGE = 120;
+    public static final int MAX_DEPENDENTS = 10;
+
+    // Coverage period ordinals
+    public static final String[] PERIODS = {"10", "15", "20", "25", "30", "whole"};
+    public static final int WHOLE_LIFE = 5;
+
+    // Categorical ordinals used by the premium factor tables
+    public static final String[] GENDERS = {"male", "female"};
+    public static final String[] SMOKING = {"non-smoker", "ex-smoker", "smoker"};
+    public static final String[] INFLATION = {"no", "yes"};
+
+    private static final int RETIREMENT_AGE = 65;
+
+    // Defaults applied when a value falls outside every configured band
+    private static final double DEFAULT_FACTOR = 1.0;
+    private static final int DEFAULT_YEARS = 20;
+
+    // Income replacement
+    private final double incomeBaseMultiplier;
+    private final double[] incomeAgeFactor = new double[MAX_AGE + 1];
+    private final double[] incomeDependentsFactor = new double[MAX_DEPENDENTS + 1];
+    private final double[] incomePeriodFactor = new double[PERIODS.length];
+
+    // DIME
+    private final int[] dimeIncomeYears = new int[PERIODS.length];
+
+    // Needs analysis
+    private final int[] needsAgeYears = new int[MAX_AGE + 1];
+    private final int[] needsDependentsYears = new int[MAX_DEPENDENTS + 1];
+
+    // Human life value, indexed by [period * (MAX_AGE + 1) + age]
+    private final int[] workingYears = new int[PERIODS.length * (MAX_AGE + 1)];
+    private final double discountRate;
+
+    // Premium
+    private final boolean premiumFromMortality;
+    private final double premiumExpenseLoading;
+    private final double premiumBaseRate;
+    private final double[] premiumAgeFactor = new double[MAX_AGE + 1];
+    private final double[] premiumGenderFactor = new double[GENDERS.length];
+    private final double[] premiumSmokingFactor = new double[SMOKING.length];
+    private final double[] premiumTermFactor = new double[PERIODS.length];
+    private final double[] premiumInflationFactor = new double[INFLATION.length];
+
+    private RateTables(CalculationConfig.CalculationType config) {
+        Arrays.fill(incomeAgeFactor, DEFAULT_FACTOR);
+        Arrays.fill(incomeDependentsFactor, DEFAULT_FACTOR);
+        Arrays.fill(incomePeriodFactor, DEFAULT_FACTOR);
+        Arrays.fill(needsAgeYears, DEFAULT_YEARS);
+        Arrays.fill(needsDependentsYears, DEFAULT_YEARS);
+
+        double baseMultiplier = 0.0;
+        double configuredDiscountRate = 0.0;
+        for (CalculationConfig.CalculationMethod method : config.getMethods()) {
+            switch (method.getName()) {
+                case "income-replacement": {
+                    Map<String, Object> multiplier = method.getMultiplier();
+                    baseMultiplier = number(multiplier.get("base"), "income-replacement.multiplier.base");
+                    Map<String, Object> adjustments = section(multiplier, "adjustments");
+                    fillBands(incomeAgeFactor, section(adjustments, "age"));
+                    fillBands(incomeDependentsFactor, section(adjustments, "dependents"));
+                    fillCategories(incomePeriodFactor, PERIODS, section(adjustments, "coveragePeriod"));
+                    break;
+                }
+                case "dime": {
+                    double[] years = new double[PERIODS.length];
+                    fillCategories(years, PERIODS, method.getIncomeYears());
+                    for (int i = 0; i < years.length; i++) {
+                        dimeIncomeYears[i] = (int) years[i];
+                    }
+                    break;
+                }
+                case "needs-analysis": {
+                    Map<String, Object> adjustments = section(method.getYearsOfSupport(), "adjustments");
+                    fillBands(needsAgeYears, section(adjustments, "age"));
+                    fillBands(needsDependentsYears, section(adjustments, "dependents"));
+                    break;
+                }
+                case "human-life-value": {
+                    configuredDiscountRate = method.getDiscountRate() != null ? method.getDiscountRate() : 0.0;
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+        this.incomeBaseMultiplier = baseMultiplier;
+        this.discountRate = configuredDiscountRate;
+
+        // Term policies use the policy term, whole life uses the full working years to 65
+        for (int period = 0; period < PERIODS.length; period++) {
+            for (int age = 0; age <= MAX_AGE; age++) {
+                workingYears[period * (MAX_AGE + 1) + age] = period == WHOLE_LIFE
+                    ? Math.max(0, RETIREMENT_AGE - age)
+                    : Integer.parseInt(PERIODS[period]);
+            }
+        }
+
+        CalculationConfig.PremiumConfig premium = config.getPremium();
+        String basis = premium.getBasis() != null ? premium.getBasis() : "factors";
+        if (!basis.equals("factors") && !basis.equals("mortality")) {
+            throw new IllegalStateException("premium.basis must be 'factors' or 'mortality' but was '" + basis + "'");
+        }
+        this.premiumFromMortality = basis.equals("mortality");
+        this.premiumExpenseLoading = premium.getExpenseLoading() != null ? premium.getExpenseLoading() : 0.0;
+        this.premiumBaseRate = premium.getBaseRate();
+        Arrays.fill(premiumAgeFactor, DEFAULT_FACTOR);
+        fillBands(premiumAgeFactor, premiumTable(premium, "age"));
+        fillCategories(premiumGenderFactor, GENDERS, premiumTable(premium, "gender"));
+        fillCategories(premiumSmokingFactor, SMOKING, premiumTable(premium, "smoking"));
+        fillCategories(premiumTermFactor, PERIODS, premiumTable(premium, "coveragePeriod"));
+        fillCategories(premiumInflationFactor, INFLATION, premiumTable(premium, "inflationProtection"));
+    }
+
+    /**
+     * Compile the rate tables for one calculation type. Fails fast on malformed bands.
+     */
+    public static RateTables compile(CalculationConfig.CalculationType config) {
+        return new RateTables(config);
+    }
+
+    // Ordinal lookups
+
+    public static int periodIndex(String period) {
+        return indexOf(PERIODS, period);
+    }
+
+    public static int genderIndex(String gender) {
+        return indexOf(GENDERS, gender);
+    }
+
+    public static int smokingIndex(String smoking) {
+        return indexOf(SMOKING, smoking);
+    }
+
+    public static int inflationIndex(String inflationProtection) {
+        return indexOf(INFLATION, inflationProtection);
+    }
+
+    // Factor lookups
+
+    public double incomeMultiplier(int age, int dependents, int period) {
+        return incomeBaseMultiplier * incomeAgeFactor(age) * incomeDependentsFactor(dependents) * incomePeriodFactor(period);
+    }
+
+    public double incomeBaseMultiplier() {
+        return incomeBaseMultiplier;
+    }
+
+    public double incomeAgeFactor(int age) {
+        return age >= 0 && age <= MAX_AGE ? incomeAgeFactor[age] : DEFAULT_FACTOR;
+    }
+
+    public double incomeDependentsFactor(int dependents) {
+        return dependents >= 0 ? incomeDependentsFactor[Math.min(dependents, MAX_DEPENDENTS)] : DEFAULT_FACTOR;
+    }
+
+    public double incomePeriodFactor(int period) {
+        return period >= 0 ? incomePeriodFactor[period] : DEFAULT_FACTOR;
+    }
+
+    public int dimeIncomeYears(int period) {
+        return period >= 0 ? dimeIncomeYears[period] : 0;
+    }
+
+    public int needsAgeYears(int age) {
+        return age >= 0 && age <= MAX_AGE ? needsAgeYears[age] : DEFAULT_YEARS;
+    }
+
+    public int needsDependentsYears(int dependents) {
+        return dependents >= 0 ? needsDependentsYears[Math.min(dependents, MAX_DEPENDENTS)] : DEFAULT_YEARS;
+    }
+
+    public int workingYears(int age, int period) {
+        return period >= 0 && age >= 0 && age <= MAX_AGE ? workingYears[period * (MAX_AGE + 1) + age] : DEFAULT_YEARS;
+    }
+
+    public double discountRate() {
+        return discountRate;
+    }
+
+    /**
+     * Whether premiums are priced from the mortality tables rather than the factor tables.
+     */
+    public boolean premiumFromMortality() {
+        return premiumFromMortality;
+    }
+
+    public double premiumExpenseLoading() {
+        return premiumExpenseLoading;
+    }
+
+    public double premiumBaseRate() {
+        return premiumBaseRate;
+    }
+
+    public double premiumAgeFactor(int age) {
+        return age >= 0 && age <= MAX_AGE ? premiumAgeFactor[age] : DEFAULT_FACTOR;
+    }
+
+    public double premiumGenderFactor(int gender) {
+        return gender >= 0 ? premiumGenderFactor[gender] : DEFAULT_FACTOR;
+    }
+
+    public double premiumSmokingFactor(int smoking) {
+        return smoking >= 0 ? premiumSmokingFactor[smoking] : DEFAULT_FACTOR;
+    }
+
+    public double premiumTermFactor(int period) {
+        return period >= 0 ? premiumTermFactor[period] : DEFAULT_FACTOR;
+    }
+
+    public double premiumInflationFactor(int inflation) {
+        return inflation >= 0 ? premiumInflationFactor[inflation] : DEFAULT_FACTOR;
+    }
+
+    // Compilation helpers
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> parent, String name) {
+        Object value = parent != null ? parent.get(name) : null;
+        return value instanceof Map ? (Map<String, Object>) value : Map.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> premiumTable(CalculationConfig.PremiumConfig premium, String factorType) {
+        CalculationConfig.Factor factor = premium.getFactors().get(factorType);
+        if (factor == null) {
+            return Map.of();
+        }
+        Map<String, ?> table = premium.getFactorTables().get(factor.getSource());
+        if (table == null) {
+            throw new IllegalStateException("Premium factor table '" + factor.getSource() + "' is not defined");
+        }
+        return (Map<String, Object>) table;
+    }
+
+    private static double number(Object value, String path) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+        }
+        throw new IllegalStateException("Expected a number for " + path + " but found '" + value + "'");
+    }
+
+    private static void fillCategories(double[] target, String[] keys, Map<String, Object> table) {
+        if (table == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : table.entrySet()) {
+            int index = indexOf(keys, entry.getKey());
+            if (index < 0) {
+                throw new IllegalStateException("Unknown category '" + entry.getKey() + "', expected one of " + List.of(keys));
+            }
+            target[index] = number(entry.getValue(), entry.getKey());
+        }
+    }
+
+    private static void fillBands(double[] target, Map<String, Object> bands) {
+        for (Map.Entry<String, Object> entry : bands.entrySet()) {
+            int[] range = parseBand(entry.getKey(), target.length - 1);
+            Arrays.fill(target, range[0], range[1] + 1, number(entry.getValue(), entry.getKey()));
+        }
+    }
+
+    private static void fillBands(int[] target, Map<String, Object> bands) {
+        for (Map.Entry<String, Object> entry : bands.entrySet()) {
+            int[] range = parseBand(entry.getKey(), target.length - 1);
+            Arrays.fill(target, range[0], range[1] + 1, (int) number(entry.getValue(), entry.getKey()));
+        }
+    }
+
+    /**
+     * Parse a band key such as "18-25", "3+" or "0" into an inclusive [from, to] range.
+     */
+    static int[] parseBand(String key, int max) {
+        try {
+            int from;
+            int to;
+            if (key.endsWith("+")) {
+                from = Integer.parseInt(key.substring(0, key.length() - 1).trim());
+                to = max;
+            } else if (key.indexOf('-') > 0) {
+                int dash = key.indexOf('-');
+                from = Integer.parseInt(key.substring(0, dash).trim());
+                to = Integer.parseInt(key.substring(dash + 1).trim());
+            } else {
+                from = Integer.parseInt(key.trim());
+                to = from;
+            }
+            if (from < 0 || to < from) {
+                throw new IllegalStateException("Invalid band '" + key + "'");
+            }
+            return new int[] {Math.min(from, max), Math.min(to, max)};
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid band '" + key + "'", e);
+        }
+    }
+}
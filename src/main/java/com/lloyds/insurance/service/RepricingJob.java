@@ -0,0 +1,834 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reprices a CSV extract of policies offline through {@link PortfolioRepricer}, without
+ * going through HTTP.
+ *
+ * The header names the columns after the request fields (age, gender, smoking, annualIncome
+ * and so on, plus an optional id). The file is read through memory-mapped windows and parsed
+ * straight from bytes: numbers without an intermediate String, categorical values matched to
+ * their canonical constants. Rows are validated with the API's {@link RequestValidator} and gathered
+ * into batches; while one batch is repriced and written, the next is parsed. A fixed pool of
+ * batches bounds memory whatever the size of the file.
+ *
+ * Fields may be quoted as in RFC 4180, with "" for a quote inside a quoted field, and a
+ * leading UTF-8 byte order mark is skipped. Ids are written back under the same rules. A
+ * quoted field cannot span lines; a row with an unterminated quote is reported as invalid.
+ *
+ * After each batch is written and forced to disk, a checkpoint next to the output records
+ * how far the input and output got. A run over the same input and output resumes from it.
+ */
+@Service
+public class RepricingJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepricingJob.class);
+
+    static final String OUTPUT_HEADER = "id,status,recommendedCoverage,monthlyPremium,annualPremium,"
+        + "incomeReplacement,dime,needsAnalysis,humanLifeValue,errors";
+
+    private static final String[] METHODS = {"income-replacement", "dime", "needs-analysis", "human-life-value"};
+
+    // The header is read a byte at a time, so the byte order mark shows up as three chars
+    private static final String UTF8_BOM = "\u00EF\u00BB\u00BF";
+
+    // One batch being parsed, one being written and one queued between them
+    private static final int BATCHES = 3;
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private enum Column {
+        ID, AGE, GENDER, SMOKING, ANNUAL_INCOME, MONTHLY_EXPENSES, EXISTING_COVERAGE, SAVINGS,
+        TOTAL_DEBTS, FUNERAL_COSTS, DEPENDENTS, EDUCATION_FUND, COVERAGE_PERIOD, INFLATION_PROTECTION, IGNORED
+    }
+
+    private static final Map<String, Column> COLUMNS = Map.ofEntries(
+        Map.entry("id", Column.ID),
+        Map.entry("age", Column.AGE),
+        Map.entry("gender", Column.GENDER),
+        Map.entry("smoking", Column.SMOKING),
+        Map.entry("annualIncome", Column.ANNUAL_INCOME),
+        Map.entry("monthlyExpenses", Column.MONTHLY_EXPENSES),
+        Map.entry("existingCoverage", Column.EXISTING_COVERAGE),
+        Map.entry("savings", Column.SAVINGS),
+        Map.entry("totalDebts", Column.TOTAL_DEBTS),
+        Map.entry("funeralCosts", Column.FUNERAL_COSTS),
+        Map.entry("dependents", Column.DEPENDENTS),
+        Map.entry("educationFund", Column.EDUCATION_FUND),
+        Map.entry("coveragePeriod", Column.COVERAGE_PERIOD),
+        Map.entry("inflationProtection", Column.INFLATION_PROTECTION));
+
+    @Autowired
+    private PortfolioRepricer portfolioRepricer;
+
+    @Autowired
+    private RequestValidator requestValidator;
+
+    @Value("${insurance.repricing.batch-size:65536}")
+    private int batchSize;
+
+    // Size of each memory-mapped view of the input; no line may be longer
+    @Value("${insurance.repricing.window-mb:64}")
+    private int windowMegabytes;
+
+    /**
+     * Reprice every row of {@code input} into {@code output}, resuming from a checkpoint left
+     * by an earlier run over the same files.
+     */
+    public Summary run(Path input, Path output) throws IOException {
+        Path checkpointFile = output.resolveSibling(output.getFileName() + ".checkpoint");
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long modified = Files.getLastModifiedTime(input).toMillis();
+            Header header = readHeader(in, input);
+
+            Checkpoint checkpoint = Checkpoint.load(checkpointFile, size, modified, out.size());
+            Run run = new Run(in, out, header, checkpointFile, size, modified);
+            if (checkpoint != null) {
+                logger.info("Resuming repricing of {} at byte {} after {} rows", input, checkpoint.inputOffset, checkpoint.rows);
+                out.truncate(checkpoint.outputLength);
+                out.position(checkpoint.outputLength);
+                run.rows = checkpoint.rows;
+                run.invalid = checkpoint.invalid;
+                run.parsedRows = checkpoint.rows;
+                run.execute(checkpoint.inputOffset);
+            } else {
+                out.truncate(0);
+                out.position(0);
+                out.write(ByteBuffer.wrap((OUTPUT_HEADER + "\n").getBytes(StandardCharsets.US_ASCII)));
+                run.execute(header.end);
+            }
+            Files.deleteIfExists(checkpointFile);
+            logger.info("Repriced {} rows of {} into {} ({} invalid)", run.rows, input, output, run.invalid);
+            return new Summary(run.rows, run.invalid, checkpoint != null);
+        }
+    }
+
+    private Header readHeader(FileChannel in, Path input) throws IOException {
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(in.position(0)));
+        StringBuilder line = new StringBuilder();
+        int end = 0;
+        int c;
+        while ((c = stream.read()) >= 0) {
+            end++;
+            if (c == '\n') {
+                break;
+            }
+            line.append((char) c);
+        }
+        String text = line.toString();
+        if (text.startsWith(UTF8_BOM)) {
+            text = text.substring(UTF8_BOM.length());
+        }
+        text = text.strip();
+        if (text.isEmpty()) {
+            throw new IOException(input + " has no header row");
+        }
+        List<String> fields = splitHeader(text);
+        if (fields == null) {
+            throw new IOException(input + " has an unterminated quote in its header row");
+        }
+        String[] names = new String[fields.size()];
+        Column[] columns = new Column[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fields.get(i).strip();
+            columns[i] = COLUMNS.getOrDefault(names[i], Column.IGNORED);
+        }
+        return new Header(names, columns, end, Arrays.asList(columns).contains(Column.ID));
+    }
+
+    /**
+     * Split the header row with the same quoting rules as the data rows, or return null if a
+     * quote is left open.
+     */
+    private static List<String> splitHeader(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.toString().isBlank()) {
+                quoted = true;
+                field.setLength(0);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * One pass over the input: parses on the calling thread and reprices and writes on a
+     * single writer thread, in input order.
+     */
+    private final class Run {
+        private final FileChannel in;
+        private final FileChannel channel;
+        private final OutputStream out;
+        private final Header header;
+        private final Path checkpointFile;
+        private final long inputSize;
+        private final long inputModified;
+        private final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(BATCHES);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final StringBuilder line = new StringBuilder(256);
+        private byte[] lineBytes = new byte[256];
+
+        // Written by the writer thread only, read after it finishes
+        private long rows;
+        private long invalid;
+
+        // Parser thread only
+        private long parsedRows;
+
+        private Run(FileChannel in, FileChannel channel, Header header, Path checkpointFile, long inputSize, long inputModified) {
+            this.in = in;
+            this.channel = channel;
+            this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            this.header = header;
+            this.checkpointFile = checkpointFile;
+            this.inputSize = inputSize;
+            this.inputModified = inputModified;
+            for (int i = 0; i < BATCHES; i++) {
+                free.add(new Batch(batchSize));
+            }
+        }
+
+        private void execute(long offset) throws IOException {
+            ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "repricing-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                Future<?> last = null;
+                Batch batch = take();
+                long window = (long) windowMegabytes << 20;
+                while (offset < inputSize) {
+                    long windowEnd = Math.min(inputSize, offset + window);
+                    MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, offset, windowEnd - offset);
+                    int limit = buffer.limit();
+                    if (windowEnd < inputSize) {
+                        // Stop at the last complete line; the next window starts after it
+                        limit = lastIndexOf(buffer, (byte) '\n', limit) + 1;
+                        if (limit == 0) {
+                            throw new IOException("Line at byte " + offset + " is longer than the " + windowMegabytes + " MB window");
+                        }
+                    }
+                    int lineStart = 0;
+                    while (lineStart < limit) {
+                        int newline = indexOf(buffer, (byte) '\n', lineStart, limit);
+                        int next = newline < 0 ? limit : newline + 1;
+                        int contentEnd = newline < 0 ? limit : newline;
+                        if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                            contentEnd--;
+                        }
+                        if (contentEnd > lineStart) {
+                            parseRow(buffer, lineStart, contentEnd, batch, ++parsedRows);
+                        }
+                        lineStart = next;
+                        batch.endOffset = offset + next;
+                        if (batch.rows == batchSize) {
+                            last = submit(writer, batch);
+                            batch = take();
+                        }
+                    }
+                    offset += limit;
+                }
+                if (batch.rows > 0) {
+                    last = submit(writer, batch);
+                } else {
+                    free.add(batch);
+                }
+                if (last != null) {
+                    last.get();
+                }
+                checkFailure();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Repricing interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException("Repricing failed", e.getCause());
+            } finally {
+                writer.shutdownNow();
+            }
+        }
+
+        private Batch take() throws IOException, InterruptedException {
+            checkFailure();
+            Batch batch = free.take();
+            batch.clear();
+            return batch;
+        }
+
+        private Future<?> submit(ExecutorService writer, Batch batch) throws IOException {
+            checkFailure();
+            return writer.submit(() -> {
+                try {
+                    if (failure.get() == null) {
+                        write(batch);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    free.add(batch);
+                }
+            });
+        }
+
+        private void checkFailure() throws IOException {
+            Throwable t = failure.get();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t != null) {
+                throw new IOException("Repricing failed", t);
+            }
+        }
+
+        private void parseRow(ByteBuffer buffer, int start, int end, Batch batch, long rowNumber) {
+            int row = batch.rows++;
+            InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+            String error = null;
+            batch.idStart[row] = batch.idLength;
+            int column = 0;
+            int p = start;
+            while (true) {
+                int s = p;
+                int e;
+                boolean escaped = false;
+                String problem = null;
+                if (p < end && buffer.get(p) == '"') {
+                    // Commas inside quotes are data and "" stands for one quote
+                    s = p + 1;
+                    int q = indexOf(buffer, (byte) '"', s, end);
+                    while (q >= 0 && q + 1 < end && buffer.get(q + 1) == '"') {
+                        escaped = true;
+                        q = indexOf(buffer, (byte) '"', q + 2, end);
+                    }
+                    if (q < 0) {
+                        problem = "unterminated quoted field";
+                        e = end;
+                        p = end;
+                    } else {
+                        e = q;
+                        p = q + 1;
+                        if (p < end && buffer.get(p) != ',') {
+                            problem = "text after a closing quote";
+                            int comma = indexOf(buffer, (byte) ',', p, end);
+                            p = comma < 0 ? end : comma;
+                        }
+                    }
+                } else {
+                    int comma = indexOf(buffer, (byte) ',', p, end);
+                    e = comma < 0 ? end : comma;
+                    p = e;
+                }
+                if (column < header.columns.length) {
+                    if (problem == null) {
+                        problem = setField(header.columns[column], buffer, s, e, escaped, request, batch);
+                    }
+                    if (problem != null && error == null) {
+                        error = header.names[column] + ": " + problem;
+                    }
+                } else if (problem != null && error == null) {
+                    error = problem;
+                }
+                column++;
+                if (p >= end) {
+                    break;
+                }
+                // Step over the comma
+                p++;
+            }
+            batch.idEnd[row] = batch.idLength;
+            if (!header.hasId) {
+                batch.appendId(Long.toString(rowNumber));
+                batch.idEnd[row] = batch.idLength;
+            }
+
+            if (error == null) {
+                List<String> errors = requestValidator.validate(request);
+                error = errors.isEmpty() ? null : String.join("; ", errors);
+            }
+            batch.errors[row] = error;
+            if (error == null) {
+                batch.book.set(row, request);
+            } else {
+                batch.invalid++;
+            }
+        }
+
+        private void write(Batch batch) throws IOException {
+            PortfolioRepricer.Result result = portfolioRepricer.reprice(batch.book, batch.rows);
+            double[][] methods = new double[METHODS.length][];
+            for (int m = 0; m < METHODS.length; m++) {
+                methods[m] = result.method(METHODS[m]);
+            }
+            for (int row = 0; row < batch.rows; row++) {
+                writeId(batch.ids, batch.idStart[row], batch.idEnd[row]);
+                line.setLength(0);
+                String error = batch.errors[row];
+                if (error == null) {
+                    line.append(",OK,").append(result.getRecommendedCoverage()[row])
+                        .append(',').append(result.getMonthlyPremium()[row])
+                        .append(',').append(result.getAnnualPremium()[row]);
+                    for (double[] amounts : methods) {
+                        line.append(',').append(amounts[row]);
+                    }
+                    line.append(",\n");
+                } else {
+                    line.append(",INVALID,,,,,,,,\"").append(error.replace("\"", "\"\"")).append("\"\n");
+                }
+                if (lineBytes.length < line.length()) {
+                    lineBytes = new byte[line.length() * 2];
+                }
+                for (int i = 0; i < line.length(); i++) {
+                    lineBytes[i] = (byte) line.charAt(i);
+                }
+                out.write(lineBytes, 0, line.length());
+            }
+            out.flush();
+            channel.force(false);
+            rows += batch.rows;
+            invalid += batch.invalid;
+            new Checkpoint(inputSize, inputModified, batch.endOffset, channel.position(), rows, invalid).save(checkpointFile);
+        }
+
+        // Quoted only when it has to be, so plain ids are copied straight through
+        private void writeId(byte[] ids, int start, int end) throws IOException {
+            boolean quote = false;
+            for (int i = start; i < end && !quote; i++) {
+                quote = ids[i] == ',' || ids[i] == '"' || ids[i] == '\r' || ids[i] == '\n';
+            }
+            if (!quote) {
+                out.write(ids, start, end - start);
+                return;
+            }
+            out.write('"');
+            for (int i = start; i < end; i++) {
+                if (ids[i] == '"') {
+                    out.write('"');
+                }
+                out.write(ids[i]);
+            }
+            out.write('"');
+        }
+    }
+
+    private static String setField(Column column, ByteBuffer buffer, int start, int end, boolean escaped,
+                                   InsuranceCalculationRequest request, Batch batch) {
+        if (column == Column.ID) {
+            batch.appendId(buffer, start, end, escaped);
+            return null;
+        }
+        if (column == Column.IGNORED || start == end) {
+            // Blank fields keep the request defaults, or fail validation if required
+            return null;
+        }
+        switch (column) {
+            case AGE:
+            case DEPENDENTS: {
+                int value = parseInt(buffer, start, end);
+                if (value == Integer.MIN_VALUE) {
+                    return "not a whole number";
+                }
+                if (column == Column.AGE) {
+                    request.setAge(value);
+                } else {
+                    request.setDependents(value);
+                }
+                return null;
+            }
+            case GENDER:
+                request.setGender(match(buffer, start, end, RateTables.GENDERS));
+                return null;
+            case SMOKING:
+                request.setSmoking(match(buffer, start, end, RateTables.SMOKING));
+                return null;
+            case COVERAGE_PERIOD:
+                request.setCoveragePeriod(match(buffer, start, end, RateTables.PERIODS));
+                return null;
+            case INFLATION_PROTECTION:
+                request.setInflationProtection(match(buffer, start, end, RateTables.INFLATION));
+                return null;
+            default:
+                break;
+        }
+        double value = parseNumber(buffer, start, end);
+        if (Double.isNaN(value)) {
+            return "not a number";
+        }
+        switch (column) {
+            case ANNUAL_INCOME:
+                request.setAnnualIncome(value);
+                break;
+            case MONTHLY_EXPENSES:
+                request.setMonthlyExpenses(value);
+                break;
+            case EXISTING_COVERAGE:
+                request.setExistingCoverage(value);
+                break;
+            case SAVINGS:
+                request.setSavings(value);
+                break;
+            case TOTAL_DEBTS:
+                request.setTotalDebts(value);
+                break;
+            case FUNERAL_COSTS:
+                request.setFuneralCosts(value);
+                break;
+            case EDUCATION_FUND:
+                request.setEducationFund(value);
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * The constant equal to the field's bytes, so known values allocate nothing. Anything
+     * else is decoded as is and left for validation to reject.
+     */
+    static String match(ByteBuffer buffer, int start, int end, String[] values) {
+        for (String value : values) {
+            if (value.length() == end - start && equalsAscii(buffer, start, value)) {
+                return value;
+            }
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean equalsAscii(ByteBuffer buffer, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer.get(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse an optionally signed integer of up to nine digits, or return Integer.MIN_VALUE.
+     */
+    static int parseInt(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a decimal number, or return NaN. Plain decimals with up to 15 significant digits
+     * are converted exactly from their integer digits and scale, giving the same double as
+     * Double.parseDouble; anything else (exponents, longer mantissas) falls back to it.
+     */
+    static double parseNumber(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                if (significant == 15) {
+                    return parseSlowly(buffer, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    significant++;
+                }
+                if (point) {
+                    scale++;
+                }
+                digits = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return parseSlowly(buffer, start, end);
+            }
+        }
+        if (!digits || scale >= POWERS_OF_TEN.length) {
+            return digits ? parseSlowly(buffer, start, end) : Double.NaN;
+        }
+        // Both operands are exact doubles, so the one division is correctly rounded
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private static double parseSlowly(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rows parsed from the input, reused once written.
+     */
+    private static final class Batch {
+        private final PortfolioRepricer.Book book;
+        private final String[] errors;
+        private final int[] idStart;
+        private final int[] idEnd;
+        private byte[] ids = new byte[1 << 16];
+        private int idLength;
+        private int rows;
+        private int invalid;
+        private long endOffset;
+
+        private Batch(int size) {
+            book = new PortfolioRepricer.Book(size);
+            errors = new String[size];
+            idStart = new int[size];
+            idEnd = new int[size];
+        }
+
+        private void clear() {
+            Arrays.fill(errors, 0, rows, null);
+            rows = 0;
+            invalid = 0;
+            idLength = 0;
+        }
+
+        private void appendId(ByteBuffer buffer, int start, int end, boolean escaped) {
+            ensureIdCapacity(end - start);
+            if (!escaped) {
+                buffer.get(start, ids, idLength, end - start);
+                idLength += end - start;
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                byte b = buffer.get(i);
+                ids[idLength++] = b;
+                if (b == '"') {
+                    // Skip the second quote of the "" pair
+                    i++;
+                }
+            }
+        }
+
+        private void appendId(String id) {
+            ensureIdCapacity(id.length());
+            for (int i = 0; i < id.length(); i++) {
+                ids[idLength++] = (byte) id.charAt(i);
+            }
+        }
+
+        private void ensureIdCapacity(int extra) {
+            if (idLength + extra > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, idLength + extra));
+            }
+        }
+    }
+
+    private static final class Header {
+        private final String[] names;
+        private final Column[] columns;
+        private final long end;
+        private final boolean hasId;
+
+        private Header(String[] names, Column[] columns, long end, boolean hasId) {
+            this.names = names;
+            this.columns = columns;
+            this.end = end;
+            this.hasId = hasId;
+        }
+    }
+
+    /**
+     * Progress of a run, valid only for the input file it was taken from.
+     */
+    private static final class Checkpoint {
+        private final long inputSize;
+        private final long inputModified;
+        private final long inputOffset;
+        private final long outputLength;
+        private final long rows;
+        private final long invalid;
+
+        private Checkpoint(long inputSize, long inputModified, long inputOffset, long outputLength, long rows, long invalid) {
+            this.inputSize = inputSize;
+            this.inputModified = inputModified;
+            this.inputOffset = inputOffset;
+            this.outputLength = outputLength;
+            this.rows = rows;
+            this.invalid = invalid;
+        }
+
+        private static Checkpoint load(Path file, long inputSize, long inputModified, long outputSize) throws IOException {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            Properties properties = new Properties();
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            }
+            try {
+                Checkpoint checkpoint = new Checkpoint(
+                    Long.parseLong(properties.getProperty("input.size")),
+                    Long.parseLong(properties.getProperty("input.modified")),
+                    Long.parseLong(properties.getProperty("input.offset")),
+                    Long.parseLong(properties.getProperty("output.length")),
+                    Long.parseLong(properties.getProperty("rows")),
+                    Long.parseLong(properties.getProperty("invalid")));
+                if (checkpoint.inputSize == inputSize && checkpoint.inputModified == inputModified
+                    && checkpoint.outputLength <= outputSize) {
+                    return checkpoint;
+                }
+            } catch (NumberFormatException e) {
+                // Unreadable checkpoint; start again
+            }
+            logger.warn("Ignoring checkpoint {}: the input or output has changed since it was written", file);
+            return null;
+        }
+
+        private void save(Path file) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("input.size", Long.toString(inputSize));
+            properties.setProperty("input.modified", Long.toString(inputModified));
+            properties.setProperty("input.offset", Long.toString(inputOffset));
+            properties.setProperty("output.length", Long.toString(outputLength));
+            properties.setProperty("rows", Long.toString(rows));
+            properties.setProperty("invalid", Long.toString(invalid));
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream stream = Files.newOutputStream(temp)) {
+                properties.store(stream, "Repricing checkpoint");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Totals for a completed run, including rows done before a resume.
+     */
+    public static final class Summary {
+        private final long rows;
+        private final long invalid;
+        private final boolean resumed;
+
+        Summary(long rows, long invalid, boolean resumed) {
+            this.rows = rows;
+            this.invalid = invalid;
+            this.resumed = resumed;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public boolean isResumed() {
+            return resumed;
+        }
+    }
+}
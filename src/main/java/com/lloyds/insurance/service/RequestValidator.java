@@ -0,0 +1,249 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Validates quote requests against the rules under calculations.insurance.validation in
+ * calculation-config.yml, so a rule changes with a config change alone.
+ *
+ * The rules are compiled with each {@link CalculationConfigSnapshot} into arrays of checks
+ * over direct getters and setters: regexes are compiled up front, and a regex that is just
+ * a list of alternatives such as "^(male|female)$" becomes a set lookup. Defaults fill in
+ * missing optional fields before the checks run. The Bean Validation annotations on {@link InsuranceCalculationRequest}
+ * still describe the API schema, but these rules are the ones enforced.
+ */
+@Service
+public class RequestValidator {
+
+    // "^(a|b|c)$" with plain literal alternatives
+    private static final Pattern LITERAL_ALTERNATIVES = Pattern.compile("\\^\\(([\\w -]+(?:\\|[\\w -]+)*)\\)\\$");
+
+    @Autowired
+    private CalculationConfigService calculationConfigService;
+
+    /**
+     * Fill in defaults for missing optional fields, then return one "field: message" error
+     * per broken rule, sorted. An empty list means the request is valid.
+     */
+    public List<String> validate(InsuranceCalculationRequest request) {
+        if (request == null) {
+            return List.of("Request is required");
+        }
+        return calculationConfigService.getSnapshot().getValidation().validate(request);
+    }
+
+    /**
+     * Request fields the rules may name, with direct accessors.
+     */
+    private enum Field {
+        AGE("age", InsuranceCalculationRequest::getAge, (r, v) -> r.setAge((Integer) v)),
+        GENDER("gender", InsuranceCalculationRequest::getGender, (r, v) -> r.setGender((String) v)),
+        SMOKING("smoking", InsuranceCalculationRequest::getSmoking, (r, v) -> r.setSmoking((String) v)),
+        ANNUAL_INCOME("annualIncome", InsuranceCalculationRequest::getAnnualIncome, (r, v) -> r.setAnnualIncome((Double) v)),
+        MONTHLY_EXPENSES("monthlyExpenses", InsuranceCalculationRequest::getMonthlyExpenses, (r, v) -> r.setMonthlyExpenses((Double) v)),
+        EXISTING_COVERAGE("existingCoverage", InsuranceCalculationRequest::getExistingCoverage, (r, v) -> r.setExistingCoverage((Double) v)),
+        SAVINGS("savings", InsuranceCalculationRequest::getSavings, (r, v) -> r.setSavings((Double) v)),
+        TOTAL_DEBTS("totalDebts", InsuranceCalculationRequest::getTotalDebts, (r, v) -> r.setTotalDebts((Double) v)),
+        FUNERAL_COSTS("funeralCosts", InsuranceCalculationRequest::getFuneralCosts, (r, v) -> r.setFuneralCosts((Double) v)),
+        DEPENDENTS("dependents", InsuranceCalculationRequest::getDependents, (r, v) -> r.setDependents((Integer) v)),
+        EDUCATION_FUND("educationFund", InsuranceCalculationRequest::getEducationFund, (r, v) -> r.setEducationFund((Double) v)),
+        COVERAGE_PERIOD("coveragePeriod", InsuranceCalculationRequest::getCoveragePeriod, (r, v) -> r.setCoveragePeriod((String) v)),
+        INFLATION_PROTECTION("inflationProtection", InsuranceCalculationRequest::getInflationProtection, (r, v) -> r.setInflationProtection((String) v));
+
+        private final String name;
+        private final Function<InsuranceCalculationRequest, Object> getter;
+        private final BiConsumer<InsuranceCalculationRequest, Object> setter;
+
+        Field(String name, Function<InsuranceCalculationRequest, Object> getter, BiConsumer<InsuranceCalculationRequest, Object> setter) {
+            this.name = name;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        static Field named(String name, String rule) {
+            for (Field field : values()) {
+                if (field.name.equals(name)) {
+                    return field;
+                }
+            }
+            throw new IllegalStateException("Validation " + rule + " names unknown field '" + name + "'");
+        }
+
+        /**
+         * Convert a configured default to this field's type.
+         */
+        Object convert(Object value) {
+            if (isText()) {
+                return String.valueOf(value);
+            }
+            double number;
+            try {
+                number = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(String.valueOf(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Validation default for '" + name + "' must be a number but was '" + value + "'");
+            }
+            return this == AGE || this == DEPENDENTS ? (Object) (int) number : (Object) number;
+        }
+
+        boolean isText() {
+            return this == GENDER || this == SMOKING || this == COVERAGE_PERIOD || this == INFLATION_PROTECTION;
+        }
+
+        /**
+         * "annualIncome" as "Annual income", for generated messages.
+         */
+        String label() {
+            StringBuilder label = new StringBuilder(name.length() + 4);
+            label.append(Character.toUpperCase(name.charAt(0)));
+            for (int i = 1; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (Character.isUpperCase(c)) {
+                    label.append(' ').append(Character.toLowerCase(c));
+                } else {
+                    label.append(c);
+                }
+            }
+            return label.toString();
+        }
+    }
+
+    /**
+     * One compiled set of rules. Immutable, so it can be replaced while requests use it.
+     */
+    static final class Rules {
+        private final Field[] defaultFields;
+        private final Object[] defaultValues;
+        private final Field[] required;
+        private final String[] requiredMessages;
+        private final Field[] rangeFields;
+        private final double[] minimums;
+        private final double[] maximums;
+        private final String[] rangeMessages;
+        private final Field[] patternFields;
+        private final List<Predicate<String>> patterns;
+        private final String[] patternMessages;
+
+        private Rules(CalculationConfig.ValidationRules config) {
+            Map<String, Object> defaults = config.getDefaults() != null ? config.getDefaults() : Map.of();
+            defaultFields = new Field[defaults.size()];
+            defaultValues = new Object[defaults.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : defaults.entrySet()) {
+                defaultFields[i] = Field.named(entry.getKey(), "default");
+                defaultValues[i] = defaultFields[i].convert(entry.getValue());
+                i++;
+            }
+
+            List<String> requiredNames = config.getRequired() != null ? config.getRequired() : List.of();
+            required = new Field[requiredNames.size()];
+            requiredMessages = new String[requiredNames.size()];
+            for (i = 0; i < required.length; i++) {
+                required[i] = Field.named(requiredNames.get(i), "required");
+                requiredMessages[i] = required[i].name + ": " + required[i].label() + " is required";
+            }
+
+            Map<String, CalculationConfig.Range> ranges = config.getRanges() != null ? config.getRanges() : Map.of();
+            rangeFields = new Field[ranges.size()];
+            minimums = new double[ranges.size()];
+            maximums = new double[ranges.size()];
+            rangeMessages = new String[ranges.size()];
+            i = 0;
+            for (Map.Entry<String, CalculationConfig.Range> entry : ranges.entrySet()) {
+                CalculationConfig.Range range = entry.getValue();
+                rangeFields[i] = Field.named(entry.getKey(), "range");
+                if (rangeFields[i].isText()) {
+                    throw new IllegalStateException("Validation range for '" + entry.getKey() + "' needs a numeric field");
+                }
+                minimums[i] = range.getMin() != null ? range.getMin() : Double.NEGATIVE_INFINITY;
+                maximums[i] = range.getMax() != null ? range.getMax() : Double.POSITIVE_INFINITY;
+                rangeMessages[i] = entry.getKey() + ": " + range.getMessage();
+                i++;
+            }
+
+            Map<String, CalculationConfig.Pattern> configured = config.getPatterns() != null ? config.getPatterns() : Map.of();
+            patternFields = new Field[configured.size()];
+            patterns = new ArrayList<>(configured.size());
+            patternMessages = new String[configured.size()];
+            i = 0;
+            for (Map.Entry<String, CalculationConfig.Pattern> entry : configured.entrySet()) {
+                patternFields[i] = Field.named(entry.getKey(), "pattern");
+                if (!patternFields[i].isText()) {
+                    throw new IllegalStateException("Validation pattern for '" + entry.getKey() + "' needs a text field");
+                }
+                patterns.add(compilePattern(entry.getValue().getRegex()));
+                patternMessages[i] = entry.getKey() + ": " + entry.getValue().getMessage();
+                i++;
+            }
+        }
+
+        static Rules compile(CalculationConfig.ValidationRules config) {
+            return new Rules(config != null ? config : new CalculationConfig.ValidationRules());
+        }
+
+        private static Predicate<String> compilePattern(String regex) {
+            Matcher literals = LITERAL_ALTERNATIVES.matcher(regex);
+            if (literals.matches()) {
+                return Set.of(literals.group(1).split("\\|"))::contains;
+            }
+            Pattern pattern = Pattern.compile(regex);
+            return value -> pattern.matcher(value).matches();
+        }
+
+        List<String> validate(InsuranceCalculationRequest request) {
+            for (int i = 0; i < defaultFields.length; i++) {
+                if (defaultFields[i].getter.apply(request) == null) {
+                    defaultFields[i].setter.accept(request, defaultValues[i]);
+                }
+            }
+
+            List<String> errors = null;
+            for (int i = 0; i < required.length; i++) {
+                Object value = required[i].getter.apply(request);
+                if (value == null || value instanceof String && ((String) value).isBlank()) {
+                    errors = add(errors, requiredMessages[i]);
+                }
+            }
+            for (int i = 0; i < rangeFields.length; i++) {
+                Number value = (Number) rangeFields[i].getter.apply(request);
+                if (value != null) {
+                    double v = value.doubleValue();
+                    // Written so that NaN fails too
+                    if (!(v >= minimums[i] && v <= maximums[i])) {
+                        errors = add(errors, rangeMessages[i]);
+                    }
+                }
+            }
+            for (int i = 0; i < patternFields.length; i++) {
+                String value = (String) patternFields[i].getter.apply(request);
+                if (value != null && !patterns.get(i).test(value)) {
+                    errors = add(errors, patternMessages[i]);
+                }
+            }
+            if (errors == null) {
+                return List.of();
+            }
+            Collections.sort(errors);
+            return errors;
+        }
+
+        private static List<String> add(List<String> errors, String error) {
+            List<String> list = errors != null ? errors : new ArrayList<>(4);
+            list.add(error);
+            return list;
+        }
+    }
+}
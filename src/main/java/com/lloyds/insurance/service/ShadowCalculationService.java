@@ -0,0 +1,328 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse.CalculationMethod;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the configurable engine in the shadow of the legacy one.
+ *
+ * A sampled share of live quotes is recalculated by {@link ConfigurableCalculationService}
+ * on a small pool of low-priority threads after the legacy result has been served, and
+ * the two are compared field by field. Shadow work is shed before anything else: nothing
+ * is started while live quotes are waiting for a slot, and a quote that finds the shadow
+ * queue full is dropped. Divergence is recorded as insurance.shadow.* metrics and the most
+ * recent diverging quotes are kept for /actuator/shadow. Samples hold the compared numbers
+ * and a fingerprint of the request, never the customer's input itself.
+ */
+@Service
+public class ShadowCalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShadowCalculationService.class);
+
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private ConfigurableCalculationService configurableCalculationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Share of live quotes recalculated by the configurable engine; 0 turns shadowing off
+    @Value("${insurance.shadow.sample-rate:0}")
+    private double sampleRate;
+
+    @Value("${insurance.shadow.threads:1}")
+    private int threads;
+
+    @Value("${insurance.shadow.queue-capacity:100}")
+    private int queueCapacity;
+
+    // Relative difference above which a field counts as diverging
+    @Value("${insurance.shadow.tolerance:0.01}")
+    private double tolerance;
+
+    @Value("${insurance.shadow.max-samples:50}")
+    private int maxSamples;
+
+    private ThreadPoolExecutor executor;
+    private Counter matched;
+    private Counter diverged;
+    private Counter failed;
+    private Counter shedForLoad;
+    private Counter shedQueueFull;
+    private final Map<String, DistributionSummary> divergence = new ConcurrentHashMap<>();
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    // Random per process, so a fingerprint cannot be matched against guessed requests
+    private final SecretKeySpec fingerprintKey;
+
+    public ShadowCalculationService() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        fingerprintKey = new SecretKeySpec(key, FINGERPRINT_ALGORITHM);
+    }
+
+    @PostConstruct
+    public void init() {
+        setSampleRate(sampleRate);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "quote-shadow-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("insurance.shadow.queue.depth", executor, e -> e.getQueue().size())
+            .description("Shadow quotes waiting for the configurable engine")
+            .register(meterRegistry);
+        matched = outcome("match");
+        diverged = outcome("diverged");
+        failed = outcome("failed");
+        shedForLoad = shed("load");
+        shedQueueFull = shed("queue-full");
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder("insurance.shadow.quotes")
+            .description("Quotes recalculated by the configurable engine, by how they compared")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private Counter shed(String reason) {
+        return Counter.builder("insurance.shadow.shed")
+            .description("Sampled quotes dropped without a shadow calculation")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Maybe queue a shadow calculation of a quote the legacy engine has answered. Never
+     * blocks; {@code liveQuotesWaiting} sheds it when the live path is short of capacity.
+     */
+    public void offer(InsuranceCalculationRequest request, InsuranceCalculationResponse legacy, boolean liveQuotesWaiting) {
+        double rate = sampleRate;
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        if (liveQuotesWaiting) {
+            shedForLoad.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> compare(request, legacy));
+        } catch (RejectedExecutionException e) {
+            shedQueueFull.increment();
+        }
+    }
+
+    void compare(InsuranceCalculationRequest request, InsuranceCalculationResponse legacy) {
+        InsuranceCalculationResponse configurable;
+        try {
+            // Only the numbers are compared, so skip rendering explanations
+            configurable = configurableCalculationService.calculateInsurance(request, DetailLevel.NONE);
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Configurable engine failed a shadow quote: {}", e.toString());
+            return;
+        }
+        Map<String, Difference> differences = diff(legacy, configurable);
+        boolean diverging = false;
+        for (Map.Entry<String, Difference> entry : differences.entrySet()) {
+            double relative = entry.getValue().getRelative();
+            divergence(entry.getKey()).record(Double.isNaN(relative) ? 1.0 : relative);
+            diverging |= !(relative <= tolerance);
+        }
+        if (!diverging) {
+            matched.increment();
+            return;
+        }
+        diverged.increment();
+        synchronized (samples) {
+            if (samples.size() >= maxSamples) {
+                samples.removeFirst();
+            }
+            samples.addLast(new Sample(Instant.now(), fingerprint(request), differences));
+        }
+    }
+
+    /**
+     * Keyed hash of the request's canonical form: equal for repeats of the same quote within
+     * this process, and meaningless outside it.
+     */
+    String fingerprint(InsuranceCalculationRequest request) {
+        try {
+            Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(fingerprintKey);
+            byte[] digest = mac.doFinal(QuoteKey.of(request, DetailLevel.NONE).toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(FINGERPRINT_ALGORITHM + " unavailable", e);
+        }
+    }
+
+    // Recommended coverage, premiums and each calculation method, keyed by field name
+    static Map<String, Difference> diff(InsuranceCalculationResponse legacy, InsuranceCalculationResponse configurable) {
+        Map<String, Difference> differences = new LinkedHashMap<>();
+        differences.put("recommendedCoverage", new Difference(legacy.getRecommendedCoverage(), configurable.getRecommendedCoverage()));
+        InsuranceCalculationResponse.PremiumEstimate legacyPremium = legacy.getPremiumEstimate();
+        InsuranceCalculationResponse.PremiumEstimate configurablePremium = configurable.getPremiumEstimate();
+        differences.put("premium.monthly", new Difference(legacyPremium != null ? legacyPremium.getMonthly() : null,
+            configurablePremium != null ? configurablePremium.getMonthly() : null));
+        differences.put("premium.annual", new Difference(legacyPremium != null ? legacyPremium.getAnnual() : null,
+            configurablePremium != null ? configurablePremium.getAnnual() : null));
+
+        Map<String, Double> legacyAmounts = new LinkedHashMap<>();
+        if (legacy.getCalculations() != null) {
+            legacy.getCalculations().forEach((key, method) ->
+                legacyAmounts.put(InsuranceCalculationService.CONFIG_METHODS.getOrDefault(key, key), method.getAmount()));
+        }
+        Map<String, CalculationMethod> configurableMethods = configurable.getCalculations() != null
+            ? configurable.getCalculations() : Map.of();
+        legacyAmounts.forEach((name, amount) -> {
+            CalculationMethod method = configurableMethods.get(name);
+            differences.put("method." + name, new Difference(amount, method != null ? method.getAmount() : null));
+        });
+        configurableMethods.forEach((name, method) -> {
+            if (!legacyAmounts.containsKey(name)) {
+                differences.put("method." + name, new Difference(null, method.getAmount()));
+            }
+        });
+        return differences;
+    }
+
+    private DistributionSummary divergence(String field) {
+        DistributionSummary summary = divergence.get(field);
+        if (summary == null) {
+            summary = divergence.computeIfAbsent(field, name -> DistributionSummary.builder("insurance.shadow.divergence")
+                .description("Relative difference between the engines; 1 when only one has a value")
+                .tag("field", name)
+                .register(meterRegistry));
+        }
+        return summary;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+        logger.info("Shadowing {}% of live quotes with the configurable engine", sampleRate * 100);
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * The most recent diverging quotes, oldest first.
+     */
+    public List<Sample> getSamples() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+
+    /**
+     * One quote on which the engines disagreed, with every compared field.
+     */
+    public static final class Sample {
+
+        private final Instant time;
+        private final String requestFingerprint;
+        private final Map<String, Difference> differences;
+
+        Sample(Instant time, String requestFingerprint, Map<String, Difference> differences) {
+            this.time = time;
+            this.requestFingerprint = requestFingerprint;
+            this.differences = differences;
+        }
+
+        public Instant getTime() { return time; }
+        public String getRequestFingerprint() { return requestFingerprint; }
+        public Map<String, Difference> getDifferences() { return differences; }
+    }
+
+    /**
+     * Both engines' value for one field. The relative difference is measured against the
+     * larger magnitude, and is NaN when only one engine has a value.
+     */
+    public static final class Difference {
+
+        private final Double legacy;
+        private final Double configurable;
+
+        Difference(Double legacy, Double configurable) {
+            this.legacy = legacy;
+            this.configurable = configurable;
+        }
+
+        public Double getLegacy() { return legacy; }
+        public Double getConfigurable() { return configurable; }
+
+        public double getRelative() {
+            if (legacy == null || configurable == null) {
+                return legacy == null && configurable == null ? 0.0 : Double.NaN;
+            }
+            double scale = Math.max(Math.abs(legacy), Math.abs(configurable));
+            return scale == 0 ? 0.0 : Math.abs(legacy - configurable) / scale;
+        }
+    }
+}
@@ -1,165 +1,420 @@
 package com.lloyds.insurance.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lloyds.insurance.service.MarketDataSnapshot.Source;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * UK market data for the calculations.
+ *
+ * Request threads only ever read the current {@link MarketDataSnapshot}, which is a single
+ * volatile load and never blocks. When real-time data is enabled, each source is polled
+ * on its own schedule by a background thread; a successful fetch swaps in a new snapshot,
+ * while a failed one keeps serving the last good value (marked stale) until the source
+ * recovers. Each source has its own circuit breaker so a failing endpoint is not hammered.
+ */
 @Service
 public class UKDataService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(UKDataService.class);
-    @Autowired
-    private RestTemplate restTemplate;
-    
+
     // Fallback static values (your current implementation)
     private static final double FALLBACK_BASE_RATE = 0.05; // 5% current UK base rate
     private static final double FALLBACK_INFLATION_RATE = 0.04; // 4% current UK inflation
     private static final double FALLBACK_ABI_RATE = 0.0012; // 0.12% ABI base rate
-    
+
+    // Fetched rates outside this range are rejected as bad data
+    private static final double MIN_RATE = -0.05;
+    private static final double MAX_RATE = 0.5;
+
+    @Autowired
+    private RestTemplateBuilder restTemplateBuilder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${uk.data.enabled:false}")
     private boolean realTimeDataEnabled;
-    
+
     @Value("${uk.data.timeout:5000}")
     private int apiTimeout;
-    
+
+    // Bank of England IADB CSV export; the last row holds the current Bank Rate in percent
+    @Value("${uk.data.sources.base-rate.url:https://www.bankofengland.co.uk/boeapps/database/_iadb-fromshowcolumns.asp?csv.x=yes&Datefrom=01/Jan/2024&Dateto=now&SeriesCodes=IUDBEDR}")
+    private String baseRateUrl;
+
+    @Value("${uk.data.sources.base-rate.refresh-seconds:3600}")
+    private long baseRateRefreshSeconds;
+
+    // ONS time series JSON (CPI annual rate); the last monthly value in percent
+    @Value("${uk.data.sources.inflation.url:https://api.ons.gov.uk/timeseries/d7g7/dataset/mm23/data}")
+    private String inflationUrl;
+
+    @Value("${uk.data.sources.inflation.refresh-seconds:3600}")
+    private long inflationRefreshSeconds;
+
+    // ABI premium base rate as a plain percentage of cover; no public feed, so off by default
+    @Value("${uk.data.sources.abi-rate.url:}")
+    private String abiRateUrl;
+
+    @Value("${uk.data.sources.abi-rate.refresh-seconds:86400}")
+    private long abiRateRefreshSeconds;
+
+    // CMI mortality adjustments as CSV rows of age,male,female; no public feed, so off by default
+    @Value("${uk.data.sources.mortality.url:}")
+    private String mortalityUrl;
+
+    @Value("${uk.data.sources.mortality.refresh-seconds:86400}")
+    private long mortalityRefreshSeconds;
+
+    @Value("${uk.data.circuit-breaker.failure-threshold:3}")
+    private int failureThreshold;
+
+    // Counted in refresh intervals so that an open breaker always skips the next polls
+    @Value("${uk.data.circuit-breaker.open-refreshes:4}")
+    private int openRefreshes;
+
+    private final AtomicReference<MarketDataSnapshot> snapshot = new AtomicReference<>(
+        MarketDataSnapshot.fallback(false, FALLBACK_BASE_RATE, FALLBACK_INFLATION_RATE, FALLBACK_ABI_RATE));
+
+    private final List<SourceRefresh> sources = new ArrayList<>();
+
+    private RestTemplate restTemplate;
+
+    private ScheduledExecutorService scheduler;
+
+    // Lookups are a single volatile read, so they are counted rather than timed
+    private Counter baseRateLookups;
+    private Counter inflationRateLookups;
+    private Counter abiRateLookups;
+    private Counter mortalityLookups;
+    private Counter sourceInfoLookups;
+
+    @PostConstruct
+    public void start() {
+        registerMeters();
+        snapshot.set(MarketDataSnapshot.fallback(realTimeDataEnabled, FALLBACK_BASE_RATE, FALLBACK_INFLATION_RATE, FALLBACK_ABI_RATE));
+        if (!realTimeDataEnabled) {
+            logger.info("Real-time UK market data disabled, using fallback rates");
+            return;
+        }
+        configureSources();
+        if (sources.isEmpty()) {
+            logger.info("Real-time UK market data enabled but no source URLs configured, using fallback rates");
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(sources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "uk-data-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (SourceRefresh source : sources) {
+            scheduler.scheduleWithFixedDelay(() -> refresh(source), 0, source.refreshSeconds, TimeUnit.SECONDS);
+        }
+        logger.info("Refreshing UK market data in the background from {} sources", sources.size());
+    }
+
     /**
-     * Get current UK base rate with fallback to static value
+     * Build the HTTP client and one entry per source with a configured URL, without scheduling anything.
      */
-    @Cacheable(value = "ukBaseRate", unless = "#result == null")
-    public double getCurrentBaseRate() {
-        if (!realTimeDataEnabled) {
-            logger.info("Real-time data disabled, using fallback base rate: {}", FALLBACK_BASE_RATE);
-            return FALLBACK_BASE_RATE;
+    List<SourceRefresh> configureSources() {
+        restTemplate = restTemplateBuilder
+            .setConnectTimeout(Duration.ofMillis(apiTimeout))
+            .setReadTimeout(Duration.ofMillis(apiTimeout))
+            .build();
+        sources.clear();
+        addSource(Source.BASE_RATE, baseRateUrl, baseRateRefreshSeconds);
+        addSource(Source.INFLATION, inflationUrl, inflationRefreshSeconds);
+        addSource(Source.ABI_RATE, abiRateUrl, abiRateRefreshSeconds);
+        addSource(Source.MORTALITY, mortalityUrl, mortalityRefreshSeconds);
+        return sources;
+    }
+
+    void registerMeters() {
+        baseRateLookups = lookupCounter("baseRate");
+        inflationRateLookups = lookupCounter("inflation");
+        abiRateLookups = lookupCounter("abiRate");
+        mortalityLookups = lookupCounter("mortality");
+        sourceInfoLookups = lookupCounter("sourceInfo");
+    }
+
+    private Counter lookupCounter(String data) {
+        return Counter.builder("uk.data.lookups")
+            .description("Market data reads by the calculations")
+            .tag("data", data)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
         }
-        
-        try {
-            // Bank of England API call
-            String url = "https://www.bankofengland.co.uk/boeapps/database/_iadb-fromshowcolumns.asp?csv.x=yes&Datefrom=01/Jan/2024&Dateto=now&SeriesCodes=IUDBEDR";
-            
-            // This is a simplified example - you'd need to parse the CSV response
-            logger.info("Attempting to fetch current base rate from Bank of England API");
-            
-            // For now, return fallback but log the attempt
-            logger.warn("Bank of England API integration not yet implemented, using fallback rate");
-            return FALLBACK_BASE_RATE;
-            
-        } catch (RestClientException e) {
-            logger.error("Failed to fetch current base rate from Bank of England API: {}", e.getMessage());
-            return FALLBACK_BASE_RATE;
-        }
-    }
-    
+    }
+
+    private void addSource(Source source, String url, long refreshSeconds) {
+        if (url != null && !url.isBlank()) {
+            Timer fetches = Timer.builder("uk.data.refresh")
+                .description("Background fetches of one market data source")
+                .tag("source", source.getKey())
+                .register(meterRegistry);
+            long interval = Math.max(1, refreshSeconds);
+            sources.add(new SourceRefresh(source, url, interval,
+                new CircuitBreaker(failureThreshold, TimeUnit.SECONDS.toMillis(interval) * Math.max(1, openRefreshes)), fetches));
+        }
+    }
+
     /**
-     * Get current UK inflation rate with fallback
+     * Get current UK base rate; never blocks on the network
+     */
+    public double getCurrentBaseRate() {
+        baseRateLookups.increment();
+        return snapshot.get().getBaseRate();
+    }
+
+    /**
+     * Get current UK inflation rate; never blocks on the network
      */
-    @Cacheable(value = "ukInflationRate", unless = "#result == null")
     public double getCurrentInflationRate() {
-        if (!realTimeDataEnabled) {
-            logger.info("Real-time data disabled, using fallback inflation rate: {}", FALLBACK_INFLATION_RATE);
-            return FALLBACK_INFLATION_RATE;
-        }
-        
-        try {
-            // ONS API call would go here
-            logger.info("Attempting to fetch current inflation rate from ONS API");
-            
-            // For now, return fallback but log the attempt
-            logger.warn("ONS API integration not yet implemented, using fallback rate");
-            return FALLBACK_INFLATION_RATE;
-            
-        } catch (RestClientException e) {
-            logger.error("Failed to fetch current inflation rate from ONS API: {}", e.getMessage());
-            return FALLBACK_INFLATION_RATE;
-        }
-    }
-    
+        inflationRateLookups.increment();
+        return snapshot.get().getInflationRate();
+    }
+
     /**
-     * Get ABI insurance market data with fallback
+     * Get ABI insurance market base rate; never blocks on the network
      */
-    @Cacheable(value = "abiMarketData", unless = "#result == null")
     public double getABIBaseRate() {
-        if (!realTimeDataEnabled) {
-            logger.info("Real-time data disabled, using fallback ABI rate: {}", FALLBACK_ABI_RATE);
-            return FALLBACK_ABI_RATE;
-        }
-        
-        try {
-            // ABI API call would go here
-            logger.info("Attempting to fetch ABI market data");
-            
-            // For now, return fallback but log the attempt
-            logger.warn("ABI API integration not yet implemented, using fallback rate");
-            return FALLBACK_ABI_RATE;
-            
-        } catch (RestClientException e) {
-            logger.error("Failed to fetch ABI market data: {}", e.getMessage());
-            return FALLBACK_ABI_RATE;
-        }
-    }
-    
+        abiRateLookups.increment();
+        return snapshot.get().getAbiRate();
+    }
+
     /**
-     * Get mortality data for age group with fallback
+     * Get mortality adjustment for age and gender; never blocks on the network
      */
-    @Cacheable(value = "mortalityData", unless = "#result == null")
     public double getMortalityRate(int age, String gender) {
-        if (!realTimeDataEnabled) {
-            // Return static mortality adjustment based on age/gender
-            double baseRate = 1.0;
-            if (age > 50) baseRate *= 1.2;
-            if (age > 65) baseRate *= 1.5;
-            if ("MALE".equalsIgnoreCase(gender)) baseRate *= 1.1;
-            
-            logger.info("Real-time data disabled, using calculated mortality rate: {} for age: {}, gender: {}", 
-                       baseRate, age, gender);
-            return baseRate;
-        }
-        
-        try {
-            // CMI API call would go here
-            logger.info("Attempting to fetch mortality data from CMI for age: {}, gender: {}", age, gender);
-            
-            // For now, return calculated fallback
-            double baseRate = 1.0;
-            if (age > 50) baseRate *= 1.2;
-            if (age > 65) baseRate *= 1.5;
-            if ("MALE".equalsIgnoreCase(gender)) baseRate *= 1.1;
-            
-            logger.warn("CMI API integration not yet implemented, using calculated rate");
-            return baseRate;
-            
-        } catch (RestClientException e) {
-            logger.error("Failed to fetch mortality data: {}", e.getMessage());
-            // Return calculated fallback
-            double baseRate = 1.0;
-            if (age > 50) baseRate *= 1.2;
-            if (age > 65) baseRate *= 1.5;
-            if ("MALE".equalsIgnoreCase(gender)) baseRate *= 1.1;
-            return baseRate;
-        }
-    }
-    
+        mortalityLookups.increment();
+        return snapshot.get().getMortalityRate(age, gender);
+    }
+
+    /**
+     * The market data currently in use.
+     */
+    public MarketDataSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     /**
      * Get data source information for transparency
      */
     public Map<String, Object> getDataSourceInfo() {
-        Map<String, Object> info = new HashMap<>();
-        info.put("realTimeEnabled", realTimeDataEnabled);
-        info.put("lastUpdated", LocalDateTime.now());
-        info.put("sources", Map.of(
-            "baseRate", realTimeDataEnabled ? "Bank of England API" : "Static (5.0%)",
-            "inflation", realTimeDataEnabled ? "ONS API" : "Static (4.0%)",
-            "abiRate", realTimeDataEnabled ? "ABI API" : "Static (0.12%)",
-            "mortality", realTimeDataEnabled ? "CMI API" : "Calculated"
-        ));
-        return info;
-    }
-} 
\ No newline at end of file
+        sourceInfoLookups.increment();
+        return snapshot.get().getSourceInfo();
+    }
+
+    /**
+     * Fetch one source and swap in a snapshot with its new value. Runs on the refresh
+     * threads; failures keep the previous value and count towards the source's breaker.
+     */
+    void refresh(SourceRefresh source) {
+        long now = System.currentTimeMillis();
+        if (!source.breaker.allowRequest(now)) {
+            return;
+        }
+        long start = System.nanoTime();
+        CalculationEvents.MarketDataRefreshed event = new CalculationEvents.MarketDataRefreshed();
+        event.begin();
+        try {
+            String body = restTemplate.getForObject(source.url, String.class);
+            if (body == null || body.isBlank()) {
+                throw new IllegalStateException("empty response");
+            }
+            Instant fetchedAt = Instant.ofEpochMilli(now);
+            MarketDataSnapshot before = snapshot.get();
+            MarketDataSnapshot after = snapshot.updateAndGet(current -> apply(current, source.source, body, fetchedAt));
+            source.breaker.recordSuccess();
+            CalculationMetrics.lap(source.fetches, start);
+            boolean changed = changed(before, after, source.source);
+            if (event.shouldCommit()) {
+                event.success = true;
+                event.changed = changed;
+                event.responseLength = body.length();
+                commit(event, source);
+            }
+            if (changed) {
+                logger.info("UK market data {} updated from {}", source.source.getKey(), source.url);
+                eventPublisher.publishEvent(new MarketDataUpdatedEvent(this, source.source, after));
+            }
+        } catch (Throwable e) {
+            // Anything escaping here would silently cancel the scheduled refresh
+            CalculationMetrics.lap(source.fetches, start);
+            source.breaker.recordFailure(System.currentTimeMillis());
+            snapshot.updateAndGet(current -> current.withStale(source.source));
+            if (event.shouldCommit()) {
+                event.error = e.getMessage();
+                commit(event, source);
+            }
+            logger.warn("Failed to refresh UK market data {} ({}), serving last known value: {}",
+                source.source.getKey(), source.breaker.getState(), e.getMessage());
+        }
+    }
+
+    private static void commit(CalculationEvents.MarketDataRefreshed event, SourceRefresh source) {
+        event.source = source.source.getKey();
+        event.url = source.url;
+        event.breakerState = source.breaker.getState().name();
+        event.commit();
+    }
+
+    private MarketDataSnapshot apply(MarketDataSnapshot current, Source source, String body, Instant fetchedAt) {
+        try {
+            switch (source) {
+                case BASE_RATE:
+                    return current.withBaseRate(checkedRate(parseLastCsvValue(body) / 100.0), fetchedAt);
+                case INFLATION:
+                    return current.withInflationRate(checkedRate(parseOnsLatestValue(body) / 100.0), fetchedAt);
+                case ABI_RATE:
+                    return current.withAbiRate(checkedRate(Double.parseDouble(body.trim()) / 100.0), fetchedAt);
+                default:
+                    return applyMortality(current, body, fetchedAt);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("unreadable response: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean changed(MarketDataSnapshot before, MarketDataSnapshot after, Source source) {
+        switch (source) {
+            case BASE_RATE:
+                return before.getBaseRate() != after.getBaseRate();
+            case INFLATION:
+                return before.getInflationRate() != after.getInflationRate();
+            case ABI_RATE:
+                return before.getAbiRate() != after.getAbiRate();
+            default:
+                for (int age = 0; age <= MarketDataSnapshot.MAX_AGE; age++) {
+                    if (before.getMortalityRate(age, "male") != after.getMortalityRate(age, "male")
+                        || before.getMortalityRate(age, "female") != after.getMortalityRate(age, "female")) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    private static double checkedRate(double rate) {
+        if (Double.isNaN(rate) || rate < MIN_RATE || rate > MAX_RATE) {
+            throw new IllegalStateException("rate out of range: " + rate);
+        }
+        return rate;
+    }
+
+    /**
+     * Last field of the last non-empty line, e.g. the latest row of a Bank of England CSV export.
+     */
+    static double parseLastCsvValue(String csv) {
+        String[] lines = csv.trim().split("\\R");
+        String last = lines[lines.length - 1];
+        return Double.parseDouble(last.substring(last.lastIndexOf(',') + 1).trim());
+    }
+
+    /**
+     * Latest monthly value from an ONS time series response.
+     */
+    double parseOnsLatestValue(String json) throws IOException {
+        JsonNode months = objectMapper.readTree(json).path("months");
+        if (!months.isArray() || months.isEmpty()) {
+            throw new IllegalStateException("no monthly observations");
+        }
+        return Double.parseDouble(months.get(months.size() - 1).path("value").asText());
+    }
+
+    private static MarketDataSnapshot applyMortality(MarketDataSnapshot current, String csv, Instant fetchedAt) {
+        double[] male = new double[MarketDataSnapshot.MAX_AGE + 1];
+        double[] female = new double[MarketDataSnapshot.MAX_AGE + 1];
+        for (int age = 0; age <= MarketDataSnapshot.MAX_AGE; age++) {
+            male[age] = current.getMortalityRate(age, "male");
+            female[age] = current.getMortalityRate(age, "female");
+        }
+        int rows = 0;
+        for (String line : csv.split("\\R")) {
+            String[] fields = line.split(",");
+            if (fields.length < 3 || !fields[0].trim().matches("\\d+")) {
+                continue; // header or blank line
+            }
+            int age = Integer.parseInt(fields[0].trim());
+            double maleFactor = Double.parseDouble(fields[1].trim());
+            double femaleFactor = Double.parseDouble(fields[2].trim());
+            if (age > MarketDataSnapshot.MAX_AGE || !(maleFactor > 0) || !(femaleFactor > 0)) {
+                throw new IllegalStateException("bad mortality row: " + line);
+            }
+            male[age] = maleFactor;
+            female[age] = femaleFactor;
+            rows++;
+        }
+        if (rows == 0) {
+            throw new IllegalStateException("no mortality rows");
+        }
+        return current.withMortality(male, female, fetchedAt);
+    }
+
+    /**
+     * One polled source with its schedule and breaker.
+     */
+    static final class SourceRefresh {
+        private final Source source;
+        private final String url;
+        private final long refreshSeconds;
+        private final CircuitBreaker breaker;
+        private final Timer fetches;
+
+        SourceRefresh(Source source, String url, long refreshSeconds, CircuitBreaker breaker, Timer fetches) {
+            this.source = source;
+            this.url = url;
+            this.refreshSeconds = refreshSeconds;
+            this.breaker = breaker;
+            this.fetches = fetches;
+        }
+
+        CircuitBreaker getBreaker() {
+            return breaker;
+        }
+
+        @Override
+        public String toString() {
+            return source.getKey() + " <- " + url + " every " + refreshSeconds + "s";
+        }
+    }
+}
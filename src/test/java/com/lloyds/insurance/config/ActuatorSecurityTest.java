@@ -0,0 +1,49 @@
+package com.lloyds.insurance.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.security.user.password=test-secret")
+@AutoConfigureMockMvc
+public class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testDiagnosticEndpointsAndWritesNeedCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/info"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics"))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/shadow"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/actuator/flightrecorder/start").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/actuator/shadow").contentType(MediaType.APPLICATION_JSON).content("{\"sampleRate\": 1}"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/shadow").with(httpBasic("actuator", "wrong")))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/shadow").with(httpBasic("actuator", "test-secret")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testActuatorIsNotOpenToOtherOrigins() throws Exception {
+        mockMvc.perform(get("/actuator/shadow").with(httpBasic("actuator", "test-secret"))
+                .header("Origin", "https://example.com"))
+            .andExpect(header().doesNotExist("Access-Control-Allow-Origin"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.lloyds.insurance.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnnuityCalculatorTest {
+
+    private final AnnuityCalculator calculator = new AnnuityCalculator();
+
+    @Test
+    public void testLevelAnnuityMatchesYearByYearDiscounting() {
+        for (int years = 0; years <= 60; years++) {
+            double expected = 0.0;
+            for (int year = 1; year <= years; year++) {
+                expected += 52000.0 / Math.pow(1.03, year);
+            }
+            assertEquals(expected, calculator.presentValue(52000.0, years, 0.03), 0.005, "years=" + years);
+        }
+        assertEquals(52000.0 * 12, calculator.presentValue(52000.0, 12, 0.0), 1e-9);
+    }
+
+    @Test
+    public void testTimingVariants() {
+        double arrears = calculator.presentValue(12000.0, 20, 0.04);
+        assertEquals(arrears * 1.04, calculator.presentValue(12000.0, 20, 0.04, AnnuityCalculator.Timing.ANNUAL_ADVANCE), 1e-6);
+
+        double monthly = 0.0;
+        double monthlyRate = Math.pow(1.04, 1.0 / 12) - 1;
+        for (int month = 1; month <= 240; month++) {
+            monthly += 1000.0 / Math.pow(1 + monthlyRate, month);
+        }
+        assertEquals(monthly, calculator.presentValue(12000.0, 20, 0.04, AnnuityCalculator.Timing.MONTHLY_ARREARS), 1e-6);
+    }
+
+    @Test
+    public void testGrowingAnnuity() {
+        double expected = 0.0;
+        for (int year = 1; year <= 25; year++) {
+            expected += 30000.0 * Math.pow(1.025, year - 1) / Math.pow(1.05, year);
+        }
+        assertEquals(expected, calculator.growingPresentValue(30000.0, 25, 0.05, 0.025), 1e-6);
+        // Growth equal to the discount rate: every payment is worth firstPayment / (1 + i)
+        assertEquals(30000.0 * 25 / 1.04, calculator.growingPresentValue(30000.0, 25, 0.04, 0.04), 1e-6);
+    }
+
+    @Test
+    public void testOnlyRecentDiscountRatesAreKept() {
+        double first = calculator.presentValue(1000.0, 30, 0.01);
+        for (int i = 0; i < 100; i++) {
+            calculator.precompute(0.01 + i * 0.0005);
+        }
+        assertTrue(calculator.tableCount() <= AnnuityCalculator.MAX_TABLES);
+        // An evicted rate is rebuilt on demand with the same factors
+        assertEquals(first, calculator.presentValue(1000.0, 30, 0.01));
+    }
+}
@@ -0,0 +1,160 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.BatchCalculationResponse;
+import com.lloyds.insurance.dto.CalculationProgress;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BatchCalculationServiceTest {
+
+    @Autowired
+    private BatchCalculationService batchCalculationService;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Test
+    public void testInvalidItemsAreReportedInline() {
+        InsuranceCalculationRequest invalid = TestRequests.request(35);
+        invalid.setAge(12);
+
+        BatchCalculationResponse response = batchCalculationService.calculateBatch(
+            List.of(TestRequests.request(30), invalid, TestRequests.request(50)));
+
+        assertEquals(3, response.getTotal());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals("OK", response.getResults().get(0).getStatus());
+        assertEquals("INVALID", response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(1).getErrors().get(0).startsWith("age"));
+        assertNotNull(response.getResults().get(2).getResult().getRecommendedCoverage());
+    }
+
+    @Test
+    public void testNdjsonKeepsOrderAndFlagsMalformedLines() throws Exception {
+        String body = "{\"age\":30,\"gender\":\"male\",\"smoking\":\"smoker\",\"annualIncome\":40000,"
+            + "\"monthlyExpenses\":1500,\"coveragePeriod\":\"whole\"}\n"
+            + "\n"
+            + "{not json}\n"
+            + "{\"age\":45,\"gender\":\"female\",\"smoking\":\"ex-smoker\",\"annualIncome\":60000,"
+            + "\"monthlyExpenses\":2500,\"coveragePeriod\":\"10\"}\n";
+
+        BatchCalculationResponse response = batchCalculationService.calculateBatch(new StringReader(body));
+
+        assertEquals(3, response.getTotal());
+        assertEquals("OK", response.getResults().get(0).getStatus());
+        assertEquals("INVALID", response.getResults().get(1).getStatus());
+        // Blank lines still count towards the reported line number
+        assertEquals("Malformed JSON on line 3", response.getResults().get(1).getErrors().get(0));
+        assertEquals("OK", response.getResults().get(2).getStatus());
+        assertEquals(2, response.getResults().get(2).getIndex());
+    }
+
+    @Test
+    public void testArrayBatchFlagsMistypedItemsInline() throws Exception {
+        String item = "{\"age\":30,\"gender\":\"male\",\"smoking\":\"smoker\",\"annualIncome\":40000,"
+            + "\"monthlyExpenses\":1500,\"coveragePeriod\":\"20\"}";
+        String mistyped = "{\"age\":\"forty\",\"gender\":\"male\",\"smoking\":\"smoker\",\"annualIncome\":{\"amount\":1},"
+            + "\"monthlyExpenses\":1500,\"coveragePeriod\":\"20\"}";
+        byte[] body = ("[" + item + "," + mistyped + "," + item + "]").getBytes(StandardCharsets.UTF_8);
+
+        BatchCalculationResponse response = batchCalculationService.calculateBatchArray(
+            new ByteArrayInputStream(body), DetailLevel.NONE, null);
+
+        assertEquals(3, response.getTotal());
+        assertEquals("OK", response.getResults().get(0).getStatus());
+        assertEquals("INVALID", response.getResults().get(1).getStatus());
+        assertEquals("Malformed item at index 1", response.getResults().get(1).getErrors().get(0));
+        assertEquals("OK", response.getResults().get(2).getStatus());
+
+        // Broken JSON still fails the whole batch
+        byte[] broken = ("[" + item + ", {\"age\": }]").getBytes(StandardCharsets.UTF_8);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+            () -> batchCalculationService.calculateBatchArray(new ByteArrayInputStream(broken), DetailLevel.NONE, null));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    public void testArrayBatchStopsReadingAtTheItemLimit() {
+        String item = "{\"age\":30,\"gender\":\"male\",\"smoking\":\"smoker\",\"annualIncome\":40000,"
+            + "\"monthlyExpenses\":1500,\"coveragePeriod\":\"20\"}";
+        int maxItems = (int) ReflectionTestUtils.getField(batchCalculationService, "maxItems");
+        ReflectionTestUtils.setField(batchCalculationService, "maxItems", 2);
+        try {
+            // The malformed tail is never reached
+            byte[] body = ("[" + item + "," + item + "," + item + ", {not json").getBytes(StandardCharsets.UTF_8);
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> batchCalculationService.calculateBatchArray(new ByteArrayInputStream(body), DetailLevel.NONE, null));
+            assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+
+            // A rejected batch ends its progress session instead of leaving streams open
+            String sessionId = progressService.createProgressSession(10);
+            assertThrows(ResponseStatusException.class, () -> batchCalculationService.calculateBatchArray(
+                new ByteArrayInputStream(body), DetailLevel.NONE, sessionId));
+            assertEquals("ERROR", progressService.getProgress(sessionId).getStatus());
+
+            byte[] fits = ("[" + item + "," + item + "]").getBytes(StandardCharsets.UTF_8);
+            assertEquals(2, assertDoesNotThrow(() -> batchCalculationService.calculateBatchArray(
+                new ByteArrayInputStream(fits), DetailLevel.NONE, null)).getSucceeded());
+        } finally {
+            ReflectionTestUtils.setField(batchCalculationService, "maxItems", maxItems);
+        }
+    }
+
+    @Test
+    public void testItemsTurnedAwayByTheBulkheadAreErrors() {
+        Object bulkhead = ReflectionTestUtils.getField(batchCalculationService, "calculationBulkhead");
+        ReflectionTestUtils.setField(batchCalculationService, "calculationBulkhead", new CalculationBulkhead() {
+            @Override
+            public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+                if (request.getAge() == 50) {
+                    throw new CalculationRejectedException("Calculation capacity exhausted", 1);
+                }
+                return new InsuranceCalculationResponse();
+            }
+        });
+        try {
+            BatchCalculationResponse response = batchCalculationService.calculateBatch(
+                List.of(TestRequests.request(30), TestRequests.request(50)), DetailLevel.NONE);
+
+            assertEquals("OK", response.getResults().get(0).getStatus());
+            assertEquals("ERROR", response.getResults().get(1).getStatus());
+            assertEquals("Calculation capacity exhausted", response.getResults().get(1).getErrors().get(0));
+        } finally {
+            ReflectionTestUtils.setField(batchCalculationService, "calculationBulkhead", bulkhead);
+        }
+    }
+
+    @Test
+    public void testBatchReportsProgress() {
+        String sessionId = progressService.createProgressSession(10);
+        List<InsuranceCalculationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(TestRequests.request(20 + i % 50));
+        }
+
+        batchCalculationService.calculateBatch(requests, DetailLevel.NONE, sessionId);
+
+        CalculationProgress progress = progressService.getProgress(sessionId);
+        assertTrue(progress.isComplete());
+        assertEquals(10, progress.getCurrentStep());
+        assertEquals("100 of 100", progress.getCurrentStepDescription());
+        assertEquals(1, progress.getCompletedSteps().size());
+    }
+}
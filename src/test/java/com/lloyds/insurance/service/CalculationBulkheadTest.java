@@ -0,0 +1,109 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalculationBulkheadTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calculated = new AtomicInteger();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    // Blocks every quote until the test releases it
+    private final InsuranceCalculationService slowService = new InsuranceCalculationService() {
+        @Override
+        public InsuranceCalculationResponse calculateInsurance(InsuranceCalculationRequest request, DetailLevel detail) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            calculated.incrementAndGet();
+            return new InsuranceCalculationResponse();
+        }
+    };
+
+    private CalculationBulkhead bulkhead;
+
+    private CalculationBulkhead bulkhead(int maxConcurrent, int queueCapacity, long timeoutMillis) {
+        bulkhead = new CalculationBulkhead();
+        ReflectionTestUtils.setField(bulkhead, "insuranceCalculationService", slowService);
+        ReflectionTestUtils.setField(bulkhead, "meterRegistry", registry);
+        ReflectionTestUtils.setField(bulkhead, "shadowCalculationService", new ShadowCalculationService());
+        ReflectionTestUtils.setField(bulkhead, "retryAfterSeconds", 2L);
+        bulkhead.start(maxConcurrent, queueCapacity, timeoutMillis);
+        return bulkhead;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    public void testSaturationIsRejectedImmediately() throws Exception {
+        CalculationBulkhead bulkhead = bulkhead(1, 1, 10_000);
+        CompletableFuture<?> running = CompletableFuture.runAsync(() -> bulkhead.calculateInsurance(new InsuranceCalculationRequest(), DetailLevel.NONE));
+        CompletableFuture<?> queued = CompletableFuture.runAsync(() -> bulkhead.calculateInsurance(new InsuranceCalculationRequest(), DetailLevel.NONE));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("insurance.bulkhead.queue.depth").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1.0, registry.get("insurance.bulkhead.active").gauge().value());
+
+        long start = System.nanoTime();
+        CalculationRejectedException e = assertThrows(CalculationRejectedException.class,
+            () -> bulkhead.calculateInsurance(new InsuranceCalculationRequest(), DetailLevel.NONE));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals("2", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, registry.get("insurance.bulkhead.rejected").counter().count());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(2, calculated.get());
+    }
+
+    @Test
+    public void testQuotesPastTheDeadlineAreCancelled() throws Exception {
+        CalculationBulkhead bulkhead = bulkhead(1, 4, 100);
+        CompletableFuture<Throwable> first = CompletableFuture.supplyAsync(() -> rejection(bulkhead));
+        CompletableFuture<Throwable> second = CompletableFuture.supplyAsync(() -> rejection(bulkhead));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS) instanceof CalculationRejectedException);
+        assertTrue(second.get(5, TimeUnit.SECONDS) instanceof CalculationRejectedException);
+        assertEquals(2.0, registry.get("insurance.bulkhead.timeouts").counter().count());
+
+        // Both are cancelled, whether they were running or still queued
+        Thread.sleep(100);
+        assertEquals(0.0, registry.get("insurance.bulkhead.queue.depth").gauge().value());
+        assertEquals(0, calculated.get());
+    }
+
+    private static Throwable rejection(CalculationBulkhead bulkhead) {
+        try {
+            bulkhead.calculateInsurance(new InsuranceCalculationRequest(), DetailLevel.NONE);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
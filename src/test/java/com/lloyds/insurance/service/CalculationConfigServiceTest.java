@@ -0,0 +1,170 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "insurance.config.reload-delay-ms=50")
+@DirtiesContext
+public class CalculationConfigServiceTest {
+
+    private static Path configFile;
+    private static String original;
+
+    @Autowired
+    private CalculationConfigService calculationConfigService;
+
+    @Autowired
+    private ConfigurableCalculationService configurableService;
+
+    @Autowired
+    private PortfolioRepricer portfolioRepricer;
+
+    @Autowired
+    private MortalityTableService mortalityTableService;
+
+    @DynamicPropertySource
+    static void externalConfig(DynamicPropertyRegistry registry) throws IOException {
+        configFile = Files.createTempDirectory("calculation-config").resolve("calculation-config.yml");
+        try (InputStream packaged = new ClassPathResource("calculation-config.yml").getInputStream()) {
+            original = new String(packaged.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Files.writeString(configFile, original);
+        registry.add("insurance.config.path", configFile::toString);
+    }
+
+    @AfterEach
+    public void restore() throws IOException {
+        Files.writeString(configFile, original);
+        calculationConfigService.reload(configFile);
+    }
+
+    @Test
+    public void testReloadRepricesWithoutRestart() throws IOException {
+        CalculationConfigSnapshot before = calculationConfigService.getSnapshot();
+        assertEquals(configFile.toString(), before.getSource());
+        InsuranceCalculationResponse cached = configurableService.calculateInsurance(TestRequests.request(40), DetailLevel.NONE);
+
+        Files.writeString(configFile, original.replace("baseRate: 0.0012", "baseRate: 0.0024"));
+        CalculationConfigSnapshot after = calculationConfigService.reload(configFile);
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(after, calculationConfigService.getSnapshot());
+        // A calculation holding the old snapshot still sees the old rates
+        assertEquals(0.0012, before.getRateTables().premiumBaseRate());
+        InsuranceCalculationResponse repriced = configurableService.calculateInsurance(TestRequests.request(40), DetailLevel.NONE);
+        assertEquals(cached.getPremiumEstimate().getMonthly() * 2, repriced.getPremiumEstimate().getMonthly(), 1e-9);
+        // Unchanged content is not a new version
+        assertSame(after, calculationConfigService.reload(configFile));
+    }
+
+    @Test
+    public void testBrokenConfigKeepsCurrentVersion() throws IOException {
+        CalculationConfigSnapshot before = calculationConfigService.getSnapshot();
+
+        Files.writeString(configFile, "calculations:\n  insurance:\n    type: \"life-insurance\"\n");
+        assertThrows(IllegalStateException.class, () -> calculationConfigService.reload(configFile));
+        Files.writeString(configFile, original.replace("base: 10", "base: ten"));
+        assertThrows(IllegalStateException.class, () -> calculationConfigService.reload(configFile));
+
+        assertSame(before, calculationConfigService.getSnapshot());
+        assertNotNull(configurableService.calculateInsurance(TestRequests.request(40), DetailLevel.NONE).getRecommendedCoverage());
+    }
+
+    @Test
+    public void testMethodsCanBeAddedInConfig() throws IOException {
+        Files.writeString(configFile, original
+            .replace("      - name: \"human-life-value\"", "      - name: \"rule-of-thumb\"\n"
+                + "        formula: \"max(annualIncome * 10 - savings, 0)\"\n"
+                + "      - name: \"human-life-value\"")
+            .replace("        human-life-value: 0.2\n", "        human-life-value: 0.2\n        rule-of-thumb: 0.1\n"));
+        calculationConfigService.reload(configFile);
+        InsuranceCalculationRequest request = TestRequests.request(40);
+        request.setSavings(5000.0);
+
+        InsuranceCalculationResponse response = configurableService.calculateInsurance(request, DetailLevel.SUMMARY);
+        PortfolioRepricer.Result repriced = portfolioRepricer.reprice(PortfolioRepricer.Book.of(List.of(request)));
+
+        assertEquals(595000.0, response.getCalculations().get("rule-of-thumb").getAmount());
+        assertEquals("max(annualIncome * 10 - savings, 0)", response.getCalculations().get("rule-of-thumb").getFormula());
+        assertEquals(595000.0, repriced.method("rule-of-thumb")[0]);
+        assertEquals(response.getRecommendedCoverage(), repriced.getRecommendedCoverage()[0]);
+    }
+
+    @Test
+    public void testPremiumsCanBePricedFromMortalityTables() throws IOException {
+        Files.writeString(configFile, original.replace("basis: \"factors\"", "basis: \"mortality\""));
+        calculationConfigService.reload(configFile);
+        InsuranceCalculationRequest request = TestRequests.request(40);
+
+        InsuranceCalculationResponse response = configurableService.calculateInsurance(request, DetailLevel.NONE);
+        PortfolioRepricer.Result repriced = portfolioRepricer.reprice(PortfolioRepricer.Book.of(List.of(request)));
+
+        double annualRate = mortalityTableService.getTables().levelTermPremiumRate(40, RateTables.genderIndex("female"),
+            RateTables.smokingIndex("non-smoker"), 20);
+        double monthly = response.getRecommendedCoverage() * (annualRate * 1.3 * 1.0 / 12);
+        assertEquals(monthly, response.getPremiumEstimate().getMonthly(), 1e-9);
+        assertEquals(response.getPremiumEstimate().getMonthly(), repriced.getMonthlyPremium()[0]);
+
+        // Reloaded tables change the cache key, so the quote cached above is not served again
+        String packaged;
+        try (InputStream in = new ClassPathResource("mortality/qx.csv").getInputStream()) {
+            packaged = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        StringBuilder halved = new StringBuilder();
+        for (String line : packaged.split("\n")) {
+            if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+                halved.append(line).append('\n');
+                continue;
+            }
+            String[] fields = line.split(",");
+            halved.append(fields[0]);
+            for (int i = 1; i < fields.length; i++) {
+                halved.append(',').append(Double.parseDouble(fields[i].strip()) / 2);
+            }
+            halved.append('\n');
+        }
+        Path tablesFile = configFile.resolveSibling("qx.csv");
+        Files.writeString(tablesFile, halved);
+        Path packagedFile = configFile.resolveSibling("packaged-qx.csv");
+        Files.writeString(packagedFile, packaged);
+        try {
+            mortalityTableService.reload(tablesFile);
+            InsuranceCalculationResponse afterReload = configurableService.calculateInsurance(request, DetailLevel.NONE);
+            assertTrue(afterReload.getPremiumEstimate().getMonthly() < response.getPremiumEstimate().getMonthly());
+        } finally {
+            mortalityTableService.reload(packagedFile);
+        }
+    }
+
+    @Test
+    public void testWatchesTheFile() throws Exception {
+        long version = calculationConfigService.getSnapshot().getVersion();
+
+        Files.writeString(configFile, original.replace("baseRate: 0.0012", "baseRate: 0.0015"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (calculationConfigService.getSnapshot().getVersion() == version && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(version + 1, calculationConfigService.getSnapshot().getVersion());
+        assertEquals(0.0015, calculationConfigService.getSnapshot().getRateTables().premiumBaseRate());
+    }
+}
@@ -0,0 +1,76 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.controller.FlightRecorderEndpoint;
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CalculationEventsTest {
+
+    @Autowired
+    private FlightRecorderEndpoint flightRecorderEndpoint;
+
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+
+    @Autowired
+    private ConfigurableCalculationService configurableCalculationService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordingCapturesQuoteEvents() throws Exception {
+        ReflectionTestUtils.setField(flightRecorderEndpoint, "directory", directory.toString());
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(47);
+        request.setGender("female");
+        request.setSmoking("smoker");
+        request.setAnnualIncome(61000.0);
+        request.setMonthlyExpenses(2900.0);
+        request.setCoveragePeriod("15");
+        request.setDependents(1);
+
+        assertEquals(true, flightRecorderEndpoint.control("start", "default").get("recording"));
+        try {
+            insuranceCalculationService.calculateInsurance(request, DetailLevel.NONE);
+            configurableCalculationService.calculateInsurance(request, DetailLevel.NONE);
+
+            Map<String, Object> dumped = flightRecorderEndpoint.control("dump", null);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(Paths.get((String) dumped.get("file"))).stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.lloyds.insurance."))
+                .collect(Collectors.toList());
+
+            RecordedEvent quote = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.lloyds.insurance.QuoteCalculated"))
+                .filter(event -> "legacy".equals(event.getString("engine")))
+                .findFirst().orElseThrow();
+            assertEquals("40-49", quote.getString("ageBand"));
+            assertEquals("smoker", quote.getString("smoking"));
+            assertEquals("15", quote.getString("term"));
+            assertEquals("NONE", quote.getString("detail"));
+            assertTrue(quote.getDouble("recommendedCoverage") > 0);
+
+            List<String> names = events.stream().map(event -> event.getEventType().getName()).distinct().collect(Collectors.toList());
+            assertTrue(names.contains("com.lloyds.insurance.PremiumEstimated"), names.toString());
+            assertTrue(names.contains("com.lloyds.insurance.CacheMiss"), names.toString());
+        } finally {
+            assertEquals(false, flightRecorderEndpoint.control("stop", null).get("recording"));
+        }
+    }
+}
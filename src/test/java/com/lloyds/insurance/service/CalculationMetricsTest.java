@@ -0,0 +1,60 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureObservability
+public class CalculationMetricsTest {
+
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+
+    @Autowired
+    private ConfigurableCalculationService configurableCalculationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    private long count(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).timer().count();
+    }
+
+    @Test
+    public void testEveryStageIsTimed() {
+        long before = count(CalculationMetrics.STAGE_TIMER, "engine", "legacy", "stage", "generateRecommendations");
+        insuranceCalculationService.calculateInsurance(TestRequests.request(37), DetailLevel.FULL);
+        configurableCalculationService.calculateInsurance(TestRequests.request(38), DetailLevel.SUMMARY);
+
+        for (String stage : new String[] {"performCalculations", "calculateRecommendedCoverage", "estimatePremium", "generateRecommendations"}) {
+            assertTrue(count(CalculationMetrics.STAGE_TIMER, "engine", "legacy", "stage", stage) > 0, stage);
+            assertTrue(count(CalculationMetrics.STAGE_TIMER, "engine", "configurable", "stage", stage) > 0, stage);
+        }
+        assertEquals(before + 1, count(CalculationMetrics.STAGE_TIMER, "engine", "legacy", "stage", "generateRecommendations"));
+        // Both engines tag methods with their calculation-config.yml names so the series line up
+        for (String method : new String[] {"income-replacement", "dime", "needs-analysis", "human-life-value"}) {
+            assertTrue(count(CalculationMetrics.METHOD_TIMER, "engine", "legacy", "method", method) > 0, method);
+            assertTrue(count(CalculationMetrics.METHOD_TIMER, "engine", "configurable", "method", method) > 0, method);
+        }
+        assertTrue(meterRegistry.get("uk.data.lookups").tag("data", "abiRate").counter().count() > 0);
+    }
+
+    @Test
+    public void testPrometheusScrapeHasSloBuckets() {
+        insuranceCalculationService.calculateInsurance(TestRequests.request(45), DetailLevel.NONE);
+        String scrape = prometheusMeterRegistry.scrape();
+        assertTrue(scrape.contains("insurance_calculation_seconds_bucket{engine=\"legacy\",le=\"0.001\""), scrape);
+        assertTrue(scrape.contains("insurance_calculation_stage_seconds_bucket{engine=\"legacy\",stage=\"estimatePremium\",le=\"5.0E-5\""), scrape);
+    }
+}
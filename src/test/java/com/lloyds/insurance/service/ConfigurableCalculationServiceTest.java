@@ -1,6 +1,7 @@
 package com.lloyds.insurance.service;
 
 import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.DetailLevel;
 import com.lloyds.insurance.dto.InsuranceCalculationRequest;
 import com.lloyds.insurance.dto.InsuranceCalculationResponse;
 import org.junit.jupiter.api.Test;
@@ -65,4 +66,87 @@ public class ConfigurableCalculationServiceTest {
         assertTrue(response.getCalculations().containsKey("needs-analysis"));
         assertTrue(response.getCalculations().containsKey("human-life-value"));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    public void testRateTablesCompiledFromConfiguredBands() {
+        RateTables tables = RateTables.compile(calculationConfig.getCalculations().get("insurance"));
+        
+        // Income replacement: base 10 × age band 26-35 (1.1) × dependents 1-2 (1.0) × 20-year term (1.0)
+        assertEquals(10 * 1.1 * 1.0 * 1.0, tables.incomeMultiplier(30, 2, RateTables.periodIndex("20")), 1e-12);
+        assertEquals(1.2, tables.incomeDependentsFactor(7), 1e-12);
+        assertEquals(25, tables.dimeIncomeYears(RateTables.periodIndex("whole")));
+        assertEquals(12, tables.needsAgeYears(50));
+        assertEquals(10, tables.needsDependentsYears(0));
+        assertEquals(20, tables.workingYears(40, RateTables.periodIndex("20")));
+        assertEquals(25, tables.workingYears(40, RateTables.periodIndex("whole")));
+        assertEquals(2.2, tables.premiumAgeFactor(46), 1e-12);
+        assertEquals(0.88, tables.premiumGenderFactor(RateTables.genderIndex("female")), 1e-12);
+        assertEquals(1.25, tables.premiumInflationFactor(RateTables.inflationIndex("yes")), 1e-12);
+    }
+    
+    @Test
+    public void testEqualRequestsShareCachedResult() {
+        InsuranceCalculationRequest first = new InsuranceCalculationRequest();
+        first.setAge(42);
+        first.setGender("female");
+        first.setSmoking("ex-smoker");
+        first.setAnnualIncome(61000.0);
+        first.setMonthlyExpenses(2100.0);
+        first.setCoveragePeriod("15");
+        
+        InsuranceCalculationRequest retry = new InsuranceCalculationRequest();
+        retry.setAge(42);
+        retry.setGender("female");
+        retry.setSmoking("ex-smoker");
+        retry.setAnnualIncome(61000.001);
+        retry.setMonthlyExpenses(2100.0);
+        retry.setCoveragePeriod("15");
+        
+        assertEquals(QuoteKey.of(first), QuoteKey.of(retry));
+        assertSame(configurableService.calculateInsurance(first), configurableService.calculateInsurance(retry));
+        
+        retry.setAnnualIncome(61000.01);
+        assertNotEquals(QuoteKey.of(first), QuoteKey.of(retry));
+    }
+    
+    @Test
+    public void testDetailLevelsShareNumbersButNotText() {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(33);
+        request.setGender("female");
+        request.setSmoking("smoker");
+        request.setAnnualIncome(41000.0);
+        request.setMonthlyExpenses(1800.0);
+        request.setTotalDebts(90000.0);
+        request.setDependents(2);
+        request.setCoveragePeriod("25");
+        
+        InsuranceCalculationResponse full = configurableService.calculateInsurance(request, DetailLevel.FULL);
+        // Text is rendered later from a private copy, so changing the request now must not show in it
+        request.setAnnualIncome(99000.0);
+        String fullFormula = full.getCalculations().get("dime").getFormula();
+        request.setAnnualIncome(41000.0);
+        InsuranceCalculationResponse summary = configurableService.calculateInsurance(request, DetailLevel.SUMMARY);
+        InsuranceCalculationResponse none = configurableService.calculateInsurance(request, DetailLevel.NONE);
+        
+        assertEquals(full.getRecommendedCoverage(), none.getRecommendedCoverage());
+        assertEquals(full.getPremiumEstimate().getAnnual(), none.getPremiumEstimate().getAnnual());
+        assertEquals(full.getCalculations().get("dime").getAmount(), none.getCalculations().get("dime").getAmount());
+        
+        assertNull(none.getExplanation());
+        assertNull(none.getPremiumEstimate().getExplanation());
+        assertNull(none.getRecommendations());
+        assertNull(none.getCalculations().get("dime").getFormula());
+        
+        assertNotNull(fullFormula);
+        assertEquals(fullFormula, summary.getCalculations().get("dime").getFormula());
+        assertNotNull(full.getCalculations().get("dime").getExplanation());
+        assertNull(summary.getCalculations().get("dime").getExplanation());
+        assertNotNull(summary.getExplanation());
+        assertEquals(full.getRecommendations().size(), summary.getRecommendations().size());
+        
+        // Cached results are kept per detail level
+        assertNotEquals(QuoteKey.of(request, DetailLevel.FULL), QuoteKey.of(request, DetailLevel.NONE));
+        assertNotSame(none, configurableService.calculateInsurance(request));
+    }
+}
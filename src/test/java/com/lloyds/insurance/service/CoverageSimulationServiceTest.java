@@ -0,0 +1,105 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.CoverageSimulationResponse;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CoverageSimulationServiceTest {
+
+    @Autowired
+    private CoverageSimulationService coverageSimulationService;
+
+    @Autowired
+    private AnnuityCalculator annuityCalculator;
+
+    @Autowired
+    private UKDataService ukDataService;
+
+    @Test
+    public void testSameSeedGivesSameDistributionOnAnyPool() {
+        CoverageSimulationResponse first = coverageSimulationService.simulate(TestRequests.request(35), 5000, 42L, null);
+
+        // A single worker runs the blocks in a different order but draws the same numbers
+        CoverageSimulationService single = new CoverageSimulationService();
+        ReflectionTestUtils.setField(single, "ukDataService", ukDataService);
+        ReflectionTestUtils.setField(single, "calculationConfigService", ReflectionTestUtils.getField(coverageSimulationService, "calculationConfigService"));
+        for (String field : new String[] {"defaultPaths", "maxPaths", "timeBudgetMillis", "rateVolatility",
+                "inflationVolatility", "meanReversion", "correlation"}) {
+            ReflectionTestUtils.setField(single, field, ReflectionTestUtils.getField(coverageSimulationService, field));
+        }
+        ReflectionTestUtils.setField(single, "parallelism", 1);
+        single.init();
+        CoverageSimulationResponse second;
+        try {
+            second = single.simulate(TestRequests.request(35), 5000, 42L, null);
+        } finally {
+            single.shutdown();
+        }
+
+        assertTrue(first.isComplete());
+        assertEquals(5000, first.getPathsSimulated());
+        assertEquals(first.getNeedsAnalysis().getP50(), second.getNeedsAnalysis().getP50());
+        assertEquals(first.getNeedsAnalysis().getP99(), second.getNeedsAnalysis().getP99());
+        assertEquals(first.getHumanLifeValue().getMean(), second.getHumanLifeValue().getMean());
+
+        CoverageSimulationResponse other = coverageSimulationService.simulate(TestRequests.request(35), 5000, 43L, null);
+        assertNotEquals(first.getNeedsAnalysis().getMean(), other.getNeedsAnalysis().getMean());
+
+        CoverageSimulationResponse.Distribution needs = first.getNeedsAnalysis();
+        assertTrue(needs.getMin() <= needs.getP50() && needs.getP50() <= needs.getP90()
+            && needs.getP90() <= needs.getP99() && needs.getP99() <= needs.getMax());
+        assertTrue(needs.getMin() < needs.getMax());
+    }
+
+    @Test
+    public void testWithoutVolatilityMatchesTheClosedForm() {
+        double rateVolatility = (double) ReflectionTestUtils.getField(coverageSimulationService, "rateVolatility");
+        double inflationVolatility = (double) ReflectionTestUtils.getField(coverageSimulationService, "inflationVolatility");
+        ReflectionTestUtils.setField(coverageSimulationService, "rateVolatility", 0.0);
+        ReflectionTestUtils.setField(coverageSimulationService, "inflationVolatility", 0.0);
+        CoverageSimulationResponse response;
+        try {
+            InsuranceCalculationRequest request = TestRequests.request(35);
+            request.setTotalDebts(20000.0);
+            request.setSavings(10000.0);
+            response = coverageSimulationService.simulate(request, 100, 1L, null);
+        } finally {
+            ReflectionTestUtils.setField(coverageSimulationService, "rateVolatility", rateVolatility);
+            ReflectionTestUtils.setField(coverageSimulationService, "inflationVolatility", inflationVolatility);
+        }
+
+        double rate = response.getBaseRate();
+        double inflation = response.getInflationRate();
+        double needs = annuityCalculator.growingPresentValue(2500.0 * 12, response.getYearsOfSupport(), rate, inflation)
+            + 4000.0 + 20000.0 * 0.3 - 10000.0;
+        double humanLifeValue = annuityCalculator.presentValue(60000.0, response.getWorkingYears(), rate);
+
+        assertEquals(Math.round(needs), response.getNeedsAnalysis().getP50(), 1.0);
+        assertEquals(response.getNeedsAnalysis().getMin(), response.getNeedsAnalysis().getMax());
+        assertEquals(Math.round(humanLifeValue), response.getHumanLifeValue().getP99(), 1.0);
+    }
+
+    @Test
+    public void testStopsAtItsDeadline() {
+        CoverageSimulationResponse response = coverageSimulationService.simulate(TestRequests.request(35), 10000, 7L, null, System.nanoTime());
+
+        assertFalse(response.isComplete());
+        assertEquals(10000, response.getPathsRequested());
+        assertEquals(0, response.getPathsSimulated());
+        assertNull(response.getNeedsAnalysis());
+        assertEquals(7L, response.getSeed());
+    }
+
+    @Test
+    public void testRejectsPathCountsOutOfRange() {
+        assertThrows(ResponseStatusException.class, () -> coverageSimulationService.simulate(TestRequests.request(35), 0, null, null));
+        assertThrows(ResponseStatusException.class, () -> coverageSimulationService.simulate(TestRequests.request(35), 100001, null, null));
+    }
+}
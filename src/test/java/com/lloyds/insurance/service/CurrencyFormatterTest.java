@@ -0,0 +1,62 @@
+package com.lloyds.insurance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyFormatterTest {
+
+    private final DecimalFormat reference = new DecimalFormat("#,###", DecimalFormatSymbols.getInstance(Locale.UK));
+
+    @Test
+    public void testWholePoundsMatchDecimalFormat() {
+        double[] edges = {0.0, -0.0, 0.3, 0.5, -0.3, -0.5, 1.5, 2.5, -2.5, 999.5, 1000.0, 999999.5,
+            1234567.5, 1e15, 9.99e17, 1e18, 3e20, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double amount : edges) {
+            assertEquals(reference.format(amount), CurrencyFormatter.format(amount), "amount=" + amount);
+        }
+
+        SplittableRandom random = new SplittableRandom(2024);
+        for (int i = 0; i < 200_000; i++) {
+            double amount = random.nextDouble(-1e7, 1e7);
+            if (i % 3 == 0) {
+                // Exact halves exercise half-even rounding
+                amount = Math.floor(amount) + 0.5;
+            }
+            assertEquals(reference.format(amount), CurrencyFormatter.format(amount), "amount=" + amount);
+        }
+    }
+
+    @Test
+    public void testFixedDecimalsMatchStringFormat() {
+        double[] edges = {0.0, -0.0, 0.125, 1.005, 2.675, 0.0005, 88.0, 180.0, -0.001, 1e9 + 0.5};
+        for (double value : edges) {
+            for (int decimals = 0; decimals <= 3; decimals++) {
+                assertEquals(String.format("%." + decimals + "f", value),
+                    CurrencyFormatter.appendFixed(new StringBuilder(), value, decimals).toString(),
+                    "value=" + value + ", decimals=" + decimals);
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextDouble(0, 5) * (i % 2 == 0 ? 1 : 100);
+            int decimals = random.nextInt(4);
+            assertEquals(String.format("%." + decimals + "f", value),
+                CurrencyFormatter.appendFixed(new StringBuilder(), value, decimals).toString(),
+                "value=" + value + ", decimals=" + decimals);
+        }
+    }
+
+    @Test
+    public void testAppendsInPlace() {
+        StringBuilder sb = new StringBuilder("£");
+        assertSame(sb, CurrencyFormatter.append(sb, 250000.0));
+        assertEquals("£250,000", sb.toString());
+    }
+}
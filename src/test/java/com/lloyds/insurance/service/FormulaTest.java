@@ -0,0 +1,81 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormulaTest {
+
+    private static final AnnuityCalculator ANNUITY = new AnnuityCalculator();
+
+    private static double[] slots(double monthlyExpenses, int yearsOfSupport, double funeralCosts, double otherDebts, double savings) {
+        double[] slots = new double[Formula.Variable.values().length];
+        slots[Formula.Variable.MONTHLY_EXPENSES.ordinal()] = monthlyExpenses;
+        slots[Formula.Variable.YEARS_OF_SUPPORT.ordinal()] = yearsOfSupport;
+        slots[Formula.Variable.FUNERAL_COSTS.ordinal()] = funeralCosts;
+        slots[Formula.Variable.OTHER_DEBTS.ordinal()] = otherDebts;
+        slots[Formula.Variable.SAVINGS.ordinal()] = savings;
+        return slots;
+    }
+
+    @Test
+    public void testEvaluatesLikeTheSameJavaExpression() {
+        Formula formula = Formula.compile("monthlyExpenses * 12 * yearsOfSupport + funeralCosts + otherDebts - savings", ANNUITY);
+        assertEquals(Set.of(Formula.Variable.MONTHLY_EXPENSES, Formula.Variable.YEARS_OF_SUPPORT,
+            Formula.Variable.FUNERAL_COSTS, Formula.Variable.OTHER_DEBTS, Formula.Variable.SAVINGS), formula.getVariables());
+
+        double monthlyExpenses = 2345.67;
+        int years = 15;
+        double otherDebts = 123456.7 * 0.3;
+        double expected = monthlyExpenses * 12 * years + 4000.0 + otherDebts - 9876.5;
+        assertEquals(expected, formula.evaluate(slots(monthlyExpenses, years, 4000.0, otherDebts, 9876.5)), 0.0);
+    }
+
+    @Test
+    public void testPrecedenceAndConstants() {
+        double[] slots = slots(100.0, 3, 0, 0, 0);
+        assertEquals(100.0 + 2 * 3, Formula.compile("monthlyExpenses + 2 * yearsOfSupport", ANNUITY).evaluate(slots), 0.0);
+        assertEquals((100.0 + 2) * 3, Formula.compile("(monthlyExpenses + 2) * yearsOfSupport", ANNUITY).evaluate(slots), 0.0);
+        assertEquals(-100.0 / 4.0 - 1, Formula.compile("-monthlyExpenses / (2 * 2) - 1", ANNUITY).evaluate(slots), 0.0);
+        assertEquals(3.0, Formula.compile("max(min(yearsOfSupport, 10), 1)", ANNUITY).evaluate(slots), 0.0);
+        assertEquals(Formula.Type.INT, Formula.compile("yearsOfSupport * 2 + 1", ANNUITY).getType());
+        assertEquals(Formula.Type.NUMBER, Formula.compile("yearsOfSupport / 2", ANNUITY).getType());
+    }
+
+    @Test
+    public void testBindsRequestAndRateTableVariables() {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(40);
+        request.setAnnualIncome(50000.0);
+        request.setTotalDebts(1000.0);
+        Formula formula = Formula.compile("otherDebts + mortgage + annualIncome - spouseIncome + age", ANNUITY);
+
+        double[] slots = Formula.bind(formula.getVariables().toArray(new Formula.Variable[0]), request, null);
+
+        assertEquals(1000.0 * 0.3 + 1000.0 * 0.7 + 50000.0 - 0.0 + 40, formula.evaluate(slots), 0.0);
+    }
+
+    @Test
+    public void testRejectsBadFormulasAtCompileTime() {
+        String[] bad = {
+            "annualIncome * multipler",
+            "annualIncome *",
+            "(annualIncome",
+            "annualIncome 12",
+            "presentValue(annualIncome, workingYears)",
+            "presentValue(annualIncome, workingYears / 2, discountRate)",
+            "sqrt(annualIncome)",
+            "1.2.3",
+            ""
+        };
+        for (String formula : bad) {
+            assertThrows(IllegalStateException.class, () -> Formula.compile(formula, ANNUITY), formula);
+        }
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> Formula.compile("annualIncome * multipler", ANNUITY));
+        assertEquals("Formula \"annualIncome * multipler\": unknown variable 'multipler' at position 16", error.getMessage());
+    }
+}
@@ -0,0 +1,48 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class InsuranceCalculationServiceTest {
+    
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+    
+    @Test
+    public void testDetailLevelsShareNumbersButNotText() {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(29);
+        request.setGender("male");
+        request.setSmoking("smoker");
+        request.setAnnualIncome(38000.0);
+        request.setMonthlyExpenses(1700.0);
+        request.setTotalDebts(120000.0);
+        request.setDependents(1);
+        request.setCoveragePeriod("25");
+        
+        InsuranceCalculationResponse full = insuranceCalculationService.calculateInsurance(request, DetailLevel.FULL);
+        InsuranceCalculationResponse summary = insuranceCalculationService.calculateInsurance(request, DetailLevel.SUMMARY);
+        InsuranceCalculationResponse none = insuranceCalculationService.calculateInsurance(request, DetailLevel.NONE);
+        
+        assertEquals(full.getRecommendedCoverage(), none.getRecommendedCoverage());
+        assertEquals(full.getPremiumEstimate().getAnnual(), none.getPremiumEstimate().getAnnual());
+        assertEquals(full.getCalculations().get("dime").getAdjustedAmount(), none.getCalculations().get("dime").getAdjustedAmount());
+        
+        assertNull(none.getExplanation());
+        assertNull(none.getPremiumEstimate().getExplanation());
+        assertNull(none.getRecommendations());
+        assertNull(none.getCalculations().get("dime").getFormula());
+        
+        assertEquals(full.getCalculations().get("dime").getFormula(), summary.getCalculations().get("dime").getFormula());
+        assertNull(summary.getCalculations().get("dime").getExplanation());
+        assertEquals(full.getRecommendations().size(), summary.getRecommendations().size());
+        assertNull(summary.getRecommendations().get(0).getDescription());
+        assertTrue(summary.getExplanation().length() < full.getExplanation().length());
+    }
+}
@@ -0,0 +1,102 @@
+package com.lloyds.insurance.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MortalityTablesTest {
+
+    private static final String HEADER = "age,male_non-smoker,male_ex-smoker,male_smoker,female_non-smoker,female_ex-smoker,female_smoker\n";
+
+    private static MortalityTables parse(String csv) {
+        return MortalityTables.parse(ByteBuffer.wrap(csv.getBytes(StandardCharsets.US_ASCII)), "test", 0.04);
+    }
+
+    // Expected present value of £1 paid at the end of the year of death within the term,
+    // cover falling by 1/term each year when decreasing, and of 1 per year paid in advance while alive
+    private static double[] bruteForce(double[] qx, int years, boolean decreasing) {
+        double v = 1 / 1.04;
+        double alive = 1;
+        double benefits = 0;
+        double annuity = 0;
+        for (int t = 0; t < years; t++) {
+            double q = t == qx.length - 1 ? 1.0 : qx[t];
+            annuity += alive * Math.pow(v, t);
+            double cover = decreasing ? (double) (years - t) / years : 1.0;
+            benefits += alive * q * Math.pow(v, t + 1) * cover;
+            alive *= 1 - q;
+        }
+        return new double[] {benefits, annuity};
+    }
+
+    @Test
+    public void testPremiumsMatchDirectSummation() {
+        MortalityTables tables = parse("# comment\n" + HEADER
+            + "60,0.01,0.02,0.03,0.005,0.006,0.007\r\n"
+            + "61,0.011,0.021,0.031,0.0055,0.0065,0.0075\n"
+            + "62,0.012,0.022,0.032,0.006,0.007,0.008\n"
+            + "63,0.014,0.024,0.034,0.007,0.008,0.009\n"
+            + "64,0.5,0.5,0.5,0.5,0.5,0.5\n");
+        assertEquals(60, tables.getMinAge());
+        assertEquals(64, tables.getMaxAge());
+        assertEquals(0.024, tables.qx(63, 0, 1));
+        assertEquals(1.0, tables.qx(64, 0, 1));
+        assertTrue(Double.isNaN(tables.qx(59, 0, 0)));
+
+        double[] level = bruteForce(new double[] {0.0055, 0.006, 0.007, 0.5}, 3, false);
+        assertEquals(level[0] / level[1], tables.levelTermPremiumRate(61, 1, 0, 3), 1e-15);
+        double[] decreasing = bruteForce(new double[] {0.03, 0.031, 0.032, 0.034, 0.5}, 4, true);
+        assertEquals(decreasing[0] / decreasing[1], tables.decreasingTermPremiumRate(60, 0, 2, 4), 1e-15);
+
+        // A term running past the table ends there, with everyone left dying in the last year
+        double[] wholeLife = bruteForce(new double[] {0.012, 0.014, 0.5}, 3, false);
+        assertEquals(wholeLife[0] / wholeLife[1], tables.levelTermPremiumRate(62, 0, 0, Integer.MAX_VALUE), 1e-15);
+        assertEquals(wholeLife[0] / wholeLife[1], tables.levelTermPremiumRate(62, 0, 0, 30), 1e-15);
+
+        assertTrue(Double.isNaN(tables.levelTermPremiumRate(59, 0, 0, 10)));
+        assertTrue(Double.isNaN(tables.levelTermPremiumRate(60, -1, 0, 10)));
+    }
+
+    @Test
+    public void testPackagedTableLoadsFromClasspathAndDisk() throws IOException {
+        MortalityTables packaged = MortalityTables.load(new ClassPathResource("mortality/qx.csv"), 0.03);
+        Path copy = Files.createTempFile("qx", ".csv");
+        try {
+            Files.copy(new ClassPathResource("mortality/qx.csv").getInputStream(), copy, StandardCopyOption.REPLACE_EXISTING);
+            MortalityTables mapped = MortalityTables.load(copy, 0.03);
+            assertEquals(packaged.levelTermPremiumRate(40, 0, 2, 20), mapped.levelTermPremiumRate(40, 0, 2, 20));
+        } finally {
+            Files.delete(copy);
+        }
+
+        int male = RateTables.genderIndex("male");
+        int female = RateTables.genderIndex("female");
+        int nonSmoker = RateTables.smokingIndex("non-smoker");
+        int smoker = RateTables.smokingIndex("smoker");
+        assertTrue(packaged.levelTermPremiumRate(40, male, smoker, 20) > packaged.levelTermPremiumRate(40, male, nonSmoker, 20));
+        assertTrue(packaged.levelTermPremiumRate(40, male, nonSmoker, 20) > packaged.levelTermPremiumRate(40, female, nonSmoker, 20));
+        assertTrue(packaged.levelTermPremiumRate(50, male, nonSmoker, 20) > packaged.levelTermPremiumRate(30, male, nonSmoker, 20));
+        assertTrue(packaged.decreasingTermPremiumRate(40, male, nonSmoker, 20) < packaged.levelTermPremiumRate(40, male, nonSmoker, 20));
+    }
+
+    @Test
+    public void testRejectsMalformedTables() {
+        String row = ",0.01,0.01,0.01,0.01,0.01,0.01\n";
+        assertThrows(IllegalStateException.class, () -> parse(HEADER));
+        assertThrows(IllegalStateException.class, () -> parse(HEADER + "40" + row + "42" + row));
+        assertThrows(IllegalStateException.class, () -> parse(HEADER + "40,0.01,0.01\n"));
+        assertThrows(IllegalStateException.class, () -> parse(HEADER + "40,1.5,0.01,0.01,0.01,0.01,0.01\n"));
+        assertThrows(IllegalStateException.class, () -> parse(HEADER.replace("female_smoker", "female_vaper") + "40" + row));
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+            () -> parse(HEADER.replace(",female_smoker", "") + "40,0.01,0.01,0.01,0.01,0.01\n"));
+        assertEquals("test: missing column female_smoker", error.getMessage());
+    }
+}
@@ -0,0 +1,66 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PortfolioRepricerTest {
+
+    @Autowired
+    private PortfolioRepricer portfolioRepricer;
+
+    @Autowired
+    private ConfigurableCalculationService configurableService;
+
+    private static List<InsuranceCalculationRequest> book(int size) {
+        String[] periods = {"10", "15", "20", "25", "30", "whole", "retirement"};
+        String[] smoking = {"non-smoker", "ex-smoker", "smoker"};
+        SplittableRandom random = new SplittableRandom(17);
+        List<InsuranceCalculationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+            request.setAge(random.nextInt(18, 81));
+            request.setGender(random.nextBoolean() ? "male" : "female");
+            request.setSmoking(smoking[random.nextInt(smoking.length)]);
+            request.setAnnualIncome(random.nextInt(10_000, 400_000) + random.nextInt(100) / 100.0);
+            request.setMonthlyExpenses(random.nextInt(500, 12_000) + random.nextInt(100) / 100.0);
+            request.setExistingCoverage(0.0);
+            request.setSavings((double) random.nextInt(0, 300_000));
+            request.setTotalDebts(random.nextInt(0, 900_000) + random.nextInt(100) / 100.0);
+            request.setFuneralCosts((double) random.nextInt(2_000, 8_000));
+            request.setDependents(random.nextInt(0, 7));
+            request.setEducationFund((double) random.nextInt(0, 80_000));
+            request.setCoveragePeriod(periods[random.nextInt(periods.length)]);
+            request.setInflationProtection(random.nextBoolean() ? "yes" : "no");
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    @Test
+    public void testColumnsMatchPerRequestEngineExactly() {
+        // More than one block, with a partial last block
+        List<InsuranceCalculationRequest> requests = book(PortfolioRepricer.BLOCK_SIZE + 903);
+        PortfolioRepricer.Result result = portfolioRepricer.reprice(PortfolioRepricer.Book.of(requests));
+
+        for (int i = 0; i < requests.size(); i++) {
+            InsuranceCalculationResponse expected = configurableService.calculateInsurance(requests.get(i), DetailLevel.NONE);
+            for (String method : expected.getCalculations().keySet()) {
+                assertEquals(expected.getCalculations().get(method).getAmount(), result.method(method)[i], 0.0, method + " row " + i);
+            }
+            assertEquals(expected.getRecommendedCoverage(), result.getRecommendedCoverage()[i], 0.0, "row " + i);
+            assertEquals(expected.getPremiumEstimate().getMonthly(), result.getMonthlyPremium()[i], 0.0, "row " + i);
+            assertEquals(expected.getPremiumEstimate().getAnnual(), result.getAnnualPremium()[i], 0.0, "row " + i);
+        }
+    }
+}
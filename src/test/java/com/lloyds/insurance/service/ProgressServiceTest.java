@@ -0,0 +1,151 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ProgressService progressService = new ProgressService();
+
+    {
+        ReflectionTestUtils.setField(progressService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(progressService, "senderThreads", 1);
+        ReflectionTestUtils.setField(progressService, "maxSessions", 2);
+        ReflectionTestUtils.setField(progressService, "sessionTtlMinutes", 60L);
+        ReflectionTestUtils.setField(progressService, "expiryTickSeconds", 10L);
+        ReflectionTestUtils.setField(progressService, "sendTimeoutMillis", 1000L);
+        progressService.init();
+    }
+
+    /**
+     * Emitter standing in for a slow client: the first write blocks until released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch firstWrite = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final ObjectMapper objectMapper;
+
+        private RecordingEmitter(ObjectMapper objectMapper, CountDownLatch release) {
+            this.objectMapper = objectMapper;
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            firstWrite.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof String && ((String) data.getData()).startsWith("{")) {
+                    received.add(objectMapper.readTree((String) data.getData()));
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        progressService.shutdown();
+    }
+
+    @Test
+    public void testSlowSubscriberOnlyGetsLatestUpdate() throws Exception {
+        String sessionId = progressService.createProgressSession(100);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(objectMapper, release);
+        assertSame(slow, progressService.subscribe(sessionId, slow));
+        assertTrue(slow.firstWrite.await(5, TimeUnit.SECONDS));
+
+        // The publisher never blocks while the subscriber is stuck on its first write
+        long start = System.nanoTime();
+        for (int step = 1; step <= 99; step++) {
+            progressService.updateProgress(sessionId, step, "Calculating quotes", step + " of 100");
+        }
+        progressService.updateProgress(sessionId, 100, "Complete", "100 of 100");
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        // Initial state plus the latest one; the 99 in between were conflated
+        assertTrue(slow.received.size() <= 2, slow.received.toString());
+        JsonNode last = slow.received.get(slow.received.size() - 1);
+        assertEquals(100, last.get("currentStep").asInt());
+        assertEquals("COMPLETED", last.get("status").asText());
+        assertTrue(progressService.getDroppedUpdates() >= 98);
+        assertEquals(0, progressService.getSubscriberCount(sessionId));
+    }
+
+    @Test
+    public void testStalledSubscriberIsDroppedAndFreesTheSender() throws Exception {
+        String stalledSession = progressService.createProgressSession(10);
+        RecordingEmitter stalled = new RecordingEmitter(objectMapper, new CountDownLatch(1));
+        progressService.subscribe(stalledSession, stalled);
+        assertTrue(stalled.firstWrite.await(5, TimeUnit.SECONDS));
+
+        // The only sender thread is stuck on the stalled client until the send timeout
+        String session = progressService.createProgressSession(10);
+        RecordingEmitter healthy = new RecordingEmitter(objectMapper, new CountDownLatch(0));
+        progressService.subscribe(session, healthy);
+        assertTrue(stalled.failed.await(5, TimeUnit.SECONDS));
+        assertTrue(healthy.firstWrite.await(5, TimeUnit.SECONDS));
+        assertEquals(0, progressService.getSubscriberCount(stalledSession));
+        assertEquals(1, progressService.getStalledSubscribers());
+
+        progressService.completeProgress(session);
+        assertTrue(healthy.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEvictedSessionClosesItsStreams() throws Exception {
+        String oldest = progressService.createProgressSession(10);
+        RecordingEmitter stream = new RecordingEmitter(objectMapper, new CountDownLatch(0));
+        progressService.subscribe(oldest, stream);
+        String recent = progressService.createProgressSession(10);
+        progressService.getProgress(oldest);
+        progressService.getProgress(recent);
+        progressService.createProgressSession(10);
+
+        // The limit is two, and the first session was used less recently than the second
+        assertEquals(2, progressService.getSessionCount());
+        assertNull(progressService.getProgress(oldest));
+        assertNotNull(progressService.getProgress(recent));
+        assertTrue(stream.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, progressService.getSubscriberCount(oldest));
+    }
+
+    @Test
+    public void testUnknownSessionHasNoStream() {
+        assertNull(progressService.subscribe("missing", new SseEmitter()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.CalculationProgress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgressSessionsTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<String> removed = new ArrayList<>();
+
+    // One-minute TTL on a ten-second wheel
+    private final ProgressSessions sessions = new ProgressSessions(100, 60_000, 10_000, nanos::get,
+        progress -> removed.add(progress.getSessionId()));
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+        sessions.expire();
+    }
+
+    @Test
+    public void testIdleSessionsExpireAndUsedOnesStay() {
+        sessions.add(new CalculationProgress("idle", 10));
+        sessions.add(new CalculationProgress("used", 10));
+
+        advanceSeconds(40);
+        assertNotNull(sessions.get("used"));
+        advanceSeconds(30);
+        assertEquals(List.of("idle"), removed);
+        assertNull(sessions.get("idle"));
+
+        advanceSeconds(40);
+        assertEquals(List.of("idle", "used"), removed);
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    public void testLongPauseExpiresEverythingDue() {
+        for (int i = 0; i < 50; i++) {
+            sessions.add(new CalculationProgress("session-" + i, 10));
+            advanceSeconds(5);
+        }
+        // Far more than one turn of the wheel since the last tick
+        advanceSeconds(TimeUnit.DAYS.toSeconds(7));
+        assertEquals(50, removed.size());
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedOverLimit() {
+        ProgressSessions bounded = new ProgressSessions(3, 60_000, 10_000, nanos::get,
+            progress -> removed.add(progress.getSessionId()));
+        bounded.add(new CalculationProgress("a", 10));
+        bounded.add(new CalculationProgress("b", 10));
+        bounded.add(new CalculationProgress("c", 10));
+        bounded.get("a");
+        bounded.add(new CalculationProgress("d", 10));
+
+        assertEquals(List.of("b"), removed);
+        assertEquals(3, bounded.size());
+
+        // An evicted session leaves nothing on the wheel to expire later
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        bounded.expire();
+        assertEquals(4, removed.size());
+        assertEquals(0, bounded.size());
+    }
+}
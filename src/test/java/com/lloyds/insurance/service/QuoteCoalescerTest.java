@@ -0,0 +1,111 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuoteCoalescerTest {
+
+    private static QuoteKey key(int age, DetailLevel detail) {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(age);
+        request.setGender("male");
+        request.setSmoking("non-smoker");
+        request.setAnnualIncome(50000.0);
+        request.setCoveragePeriod("25");
+        return QuoteKey.of(request, detail);
+    }
+
+    @Test
+    public void testConcurrentIdenticalQuotesShareOneComputation() throws Exception {
+        QuoteCoalescer<Object> coalescer = new QuoteCoalescer<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Object result = new Object();
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> coalescer.execute(key(40, DetailLevel.FULL), () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Object>> joiners = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            joiners.add(CompletableFuture.supplyAsync(() -> coalescer.execute(key(40, DetailLevel.FULL), () -> {
+                computations.incrementAndGet();
+                return new Object();
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCount() < 4 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // A different detail level is a different quote and runs independently
+        assertNotSame(result, coalescer.execute(key(40, DetailLevel.NONE), Object::new));
+
+        release.countDown();
+        assertSame(result, first.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Object> joiner : joiners) {
+            assertSame(result, joiner.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(4, coalescer.getCoalescedCount());
+        assertEquals(0, coalescer.getInFlightCount());
+
+        // Finished computations are not remembered
+        assertNotSame(result, coalescer.execute(key(40, DetailLevel.FULL), Object::new));
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRetained() throws Exception {
+        QuoteCoalescer<Object> coalescer = new QuoteCoalescer<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> first = CompletableFuture.supplyAsync(() -> coalescer.execute(key(55, DetailLevel.FULL), () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalArgumentException("bad quote");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Throwable> joiner = CompletableFuture.supplyAsync(() -> {
+            try {
+                coalescer.execute(key(55, DetailLevel.FULL), Object::new);
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCount() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        release.countDown();
+        Throwable shared = joiner.get(5, TimeUnit.SECONDS);
+        assertTrue(shared instanceof IllegalArgumentException);
+        assertEquals("bad quote", shared.getMessage());
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertNotNull(coalescer.execute(key(55, DetailLevel.FULL), Object::new));
+    }
+}
@@ -0,0 +1,75 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse.PremiumEstimate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"insurance.quote-grid.enabled=true", "insurance.quote-grid.verify=true"})
+public class QuoteGridTest {
+
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+
+    @Test
+    public void testGridPremiumsMatchLiveCalculation() {
+        String[] periods = RateTables.PERIODS;
+        SplittableRandom random = new SplittableRandom(99);
+        for (int i = 0; i < 5000; i++) {
+            InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+            request.setAge(random.nextInt(QuoteGrid.MIN_AGE, QuoteGrid.MAX_AGE + 1));
+            request.setGender(RateTables.GENDERS[random.nextInt(RateTables.GENDERS.length)]);
+            request.setSmoking(RateTables.SMOKING[random.nextInt(RateTables.SMOKING.length)]);
+            request.setCoveragePeriod(periods[random.nextInt(periods.length)]);
+            request.setInflationProtection(RateTables.INFLATION[random.nextInt(RateTables.INFLATION.length)]);
+
+            PremiumEstimate estimate = insuranceCalculationService.estimatePremium(
+                random.nextInt(50_000, 2_000_000), request, DetailLevel.NONE);
+            assertTrue(estimate.getAnnual() > 0);
+        }
+        assertEquals(0, insuranceCalculationService.getQuoteGridMismatches());
+    }
+
+    @Test
+    public void testRequestsOutsideGridUseLiveCalculation() {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(85);
+        request.setGender("female");
+        request.setSmoking("non-smoker");
+        request.setCoveragePeriod("10");
+
+        QuoteGrid grid = QuoteGrid.build(insuranceCalculationService::annualPremiumRate);
+        assertTrue(Double.isNaN(grid.annualRate(request)));
+        assertTrue(insuranceCalculationService.estimatePremium(250_000, request, DetailLevel.FULL).getAnnual() > 0);
+
+        request.setAge(40);
+        assertEquals(grid.annualRate(request) * 1000.0, grid.annualRatePerThousand(request), 1e-12);
+    }
+
+    @Test
+    public void testExplanationDescribesTheQuoteAsPriced() {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(40);
+        request.setGender("male");
+        request.setSmoking("smoker");
+        request.setCoveragePeriod("20");
+
+        // Served from the grid, with the explanation rendered later
+        PremiumEstimate estimate = insuranceCalculationService.estimatePremium(300_000, request, DetailLevel.FULL);
+        request.setAge(65);
+        request.setSmoking("non-smoker");
+
+        String explanation = estimate.getExplanation();
+        assertTrue(explanation.contains("Your Age: 40 years"), explanation);
+        assertTrue(explanation.contains("Current Smoker"), explanation);
+        StringBuilder annual = new StringBuilder("Final Annual Premium: £");
+        CurrencyFormatter.append(annual, estimate.getAnnual());
+        assertTrue(explanation.contains(annual), explanation);
+    }
+}
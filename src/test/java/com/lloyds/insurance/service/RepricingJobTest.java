@@ -0,0 +1,191 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"insurance.repricing.batch-size=1000", "insurance.repricing.window-mb=1"})
+public class RepricingJobTest {
+
+    private static final String[] PERIODS = {"10", "15", "20", "25", "30", "whole"};
+
+    @Autowired
+    private RepricingJob repricingJob;
+
+    @Autowired
+    private ConfigurableCalculationService configurableService;
+
+    @TempDir
+    Path directory;
+
+    // Enough rows to span several batches and memory-mapped windows; every 500th is invalid
+    private Path extract(int rows) throws Exception {
+        SplittableRandom random = new SplittableRandom(5);
+        StringBuilder csv = new StringBuilder("id,age,gender,smoking,annualIncome,monthlyExpenses,savings,totalDebts,"
+            + "dependents,educationFund,coveragePeriod,inflationProtection,notes\r\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("P").append(i).append(',')
+                .append(i % 500 == 0 ? 95 : random.nextInt(18, 81)).append(',')
+                .append(random.nextBoolean() ? "male" : "female").append(',')
+                .append(random.nextBoolean() ? "non-smoker" : "\"smoker\"").append(',')
+                .append(random.nextInt(10_000, 300_000)).append('.').append(random.nextInt(10, 100)).append(',')
+                .append(random.nextInt(500, 9_000)).append(',')
+                .append(random.nextInt(0, 100_000)).append(',')
+                .append(random.nextInt(0, 600_000)).append(".5,")
+                .append(random.nextInt(0, 6)).append(',')
+                .append(i % 3 == 0 ? "" : Integer.toString(random.nextInt(0, 50_000))).append(',')
+                .append(PERIODS[random.nextInt(PERIODS.length)]).append(',')
+                .append(random.nextBoolean() ? "yes" : "no").append(",some free text\r\n");
+        }
+        Path input = directory.resolve("book.csv");
+        Files.writeString(input, csv);
+        return input;
+    }
+
+    private static InsuranceCalculationRequest request(String line) {
+        String[] f = line.split(",");
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(Integer.parseInt(f[1]));
+        request.setGender(f[2]);
+        request.setSmoking(f[3].replace("\"", ""));
+        request.setAnnualIncome(Double.parseDouble(f[4]));
+        request.setMonthlyExpenses(Double.parseDouble(f[5]));
+        request.setSavings(Double.parseDouble(f[6]));
+        request.setTotalDebts(Double.parseDouble(f[7]));
+        request.setDependents(Integer.parseInt(f[8]));
+        if (!f[9].isEmpty()) {
+            request.setEducationFund(Double.parseDouble(f[9]));
+        }
+        request.setCoveragePeriod(f[10]);
+        request.setInflationProtection(f[11]);
+        return request;
+    }
+
+    @Test
+    public void testRepricesEveryRowLikeTheConfigurableEngine() throws Exception {
+        Path input = extract(25_000);
+        assertTrue(Files.size(input) > 2 << 20);
+        Path output = directory.resolve("repriced.csv");
+
+        RepricingJob.Summary summary = repricingJob.run(input, output);
+
+        assertEquals(25_000, summary.getRows());
+        assertEquals(50, summary.getInvalid());
+        assertFalse(Files.exists(directory.resolve("repriced.csv.checkpoint")));
+        List<String> inputLines = Files.readAllLines(input);
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(RepricingJob.OUTPUT_HEADER, lines.get(0));
+        assertEquals(25_001, lines.size());
+        for (int i = 1; i < lines.size(); i += 97) {
+            if (i % 500 == 0) {
+                continue;
+            }
+            String[] row = lines.get(i).split(",", -1);
+            assertEquals("P" + i, row[0]);
+            InsuranceCalculationResponse expected = configurableService.calculateInsurance(request(inputLines.get(i)), DetailLevel.NONE);
+            assertEquals("OK", row[1], lines.get(i));
+            assertEquals(expected.getRecommendedCoverage(), Double.parseDouble(row[2]));
+            assertEquals(expected.getPremiumEstimate().getMonthly(), Double.parseDouble(row[3]));
+            assertEquals(expected.getCalculations().get("human-life-value").getAmount(), Double.parseDouble(row[8]));
+        }
+        assertEquals("P500,INVALID,,,,,,,,\"age: Age must be between 18 and 80\"", lines.get(500));
+    }
+
+    @Test
+    public void testQuotedFieldsAndIdsRoundTrip() throws Exception {
+        String csv = "\uFEFF\"id\",age,gender,smoking,annualIncome,monthlyExpenses,coveragePeriod\r\n"
+            + "\"Smith, J\",\"41\",\"male\",non-smoker,50000,2000,\"25\"\r\n"
+            + "\"say \"\"hi\"\"\",42,male,non-smoker,50000,2000,25\r\n"
+            + "plain,43,male,non-smoker,50000,2000,25\r\n"
+            + "\"open,44,male,non-smoker,50000,2000,25\r\n";
+        Path input = directory.resolve("quoted.csv");
+        Files.writeString(input, csv, StandardCharsets.UTF_8);
+        Path output = directory.resolve("repriced.csv");
+
+        RepricingJob.Summary summary = repricingJob.run(input, output);
+
+        assertEquals(4, summary.getRows());
+        assertEquals(1, summary.getInvalid());
+        List<String> lines = Files.readAllLines(output);
+        assertTrue(lines.get(1).startsWith("\"Smith, J\",OK,"), lines.get(1));
+        assertTrue(lines.get(2).startsWith("\"say \"\"hi\"\"\",OK,"), lines.get(2));
+        assertTrue(lines.get(3).startsWith("plain,OK,"), lines.get(3));
+        assertTrue(lines.get(4).endsWith(",INVALID,,,,,,,,\"id: unterminated quoted field\""), lines.get(4));
+    }
+
+    @Test
+    public void testResumesFromCheckpoint() throws Exception {
+        Path input = extract(3_500);
+        Path output = directory.resolve("repriced.csv");
+        repricingJob.run(input, output);
+        byte[] complete = Files.readAllBytes(output);
+
+        // As if the run stopped after the second batch, part way through writing the third
+        List<String> inputLines = Files.readAllLines(input);
+        long inputOffset = 0;
+        for (int i = 0; i <= 2000; i++) {
+            inputOffset += inputLines.get(i).getBytes(StandardCharsets.US_ASCII).length + 2;
+        }
+        long outputLength = 0;
+        List<String> outputLines = Files.readAllLines(output);
+        for (int i = 0; i <= 2000; i++) {
+            outputLength += outputLines.get(i).length() + 1;
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+            channel.truncate(outputLength);
+            channel.write(ByteBuffer.wrap("P2001,OK,garbage".getBytes(StandardCharsets.US_ASCII)), outputLength);
+        }
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("input.size", Long.toString(Files.size(input)));
+        checkpoint.setProperty("input.modified", Long.toString(Files.getLastModifiedTime(input).toMillis()));
+        checkpoint.setProperty("input.offset", Long.toString(inputOffset));
+        checkpoint.setProperty("output.length", Long.toString(outputLength));
+        checkpoint.setProperty("rows", "2000");
+        checkpoint.setProperty("invalid", "4");
+        try (OutputStream stream = Files.newOutputStream(directory.resolve("repriced.csv.checkpoint"))) {
+            checkpoint.store(stream, null);
+        }
+
+        RepricingJob.Summary summary = repricingJob.run(input, output);
+
+        assertTrue(summary.isResumed());
+        assertEquals(3_500, summary.getRows());
+        assertEquals(7, summary.getInvalid());
+        assertArrayEquals(complete, Files.readAllBytes(output));
+    }
+
+    @Test
+    public void testParsesNumbersLikeDoubleParseDouble() {
+        List<String> numbers = new ArrayList<>(List.of("0", "-0", "0.1", "123456.78", "0.000000000000000000001",
+            "99999999999999.9", "123456789012345678", "1e5", "1.", "7.25"));
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 10_000; i++) {
+            numbers.add(random.nextInt(0, 10_000_000) + "." + random.nextInt(0, 100_000));
+        }
+        for (String number : numbers) {
+            ByteBuffer buffer = ByteBuffer.wrap(number.getBytes(StandardCharsets.US_ASCII));
+            assertEquals(Double.parseDouble(number), RepricingJob.parseNumber(buffer, 0, buffer.limit()), 0.0, number);
+        }
+        ByteBuffer bad = ByteBuffer.wrap("12a".getBytes(StandardCharsets.US_ASCII));
+        assertTrue(Double.isNaN(RepricingJob.parseNumber(bad, 0, bad.limit())));
+        assertEquals(Integer.MIN_VALUE, RepricingJob.parseInt(bad, 0, bad.limit()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.config.CalculationConfig;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RequestValidatorTest {
+
+    @Autowired
+    private RequestValidator requestValidator;
+
+    @Test
+    public void testAppliesDefaultsToValidRequest() {
+        InsuranceCalculationRequest request = TestRequests.request(35);
+
+        assertEquals(List.of(), requestValidator.validate(request));
+        assertEquals(0.0, request.getSavings());
+        assertEquals(4000.0, request.getFuneralCosts());
+        assertEquals(0, request.getDependents());
+        assertEquals("no", request.getInflationProtection());
+    }
+
+    @Test
+    public void testReportsEveryBrokenRuleSorted() {
+        InsuranceCalculationRequest request = TestRequests.request(35);
+        request.setAge(95);
+        request.setGender("other");
+        request.setSmoking(" ");
+        request.setMonthlyExpenses(null);
+        request.setSavings(Double.NaN);
+
+        assertEquals(List.of(
+            "age: Age must be between 18 and 80",
+            "gender: Gender must be 'male' or 'female'",
+            "monthlyExpenses: Monthly expenses is required",
+            "savings: Savings must be positive",
+            "smoking: Invalid smoking status",
+            "smoking: Smoking is required"), requestValidator.validate(request));
+        assertEquals(List.of("Request is required"), requestValidator.validate(null));
+    }
+
+    @Test
+    public void testRulesNamingUnknownFieldsFailToCompile() {
+        CalculationConfig.ValidationRules rules = new CalculationConfig.ValidationRules();
+        rules.setRequired(List.of("salary"));
+        assertThrows(IllegalStateException.class, () -> RequestValidator.Rules.compile(rules));
+
+        CalculationConfig.Pattern pattern = new CalculationConfig.Pattern();
+        pattern.setRegex("\\d+");
+        rules.setRequired(List.of());
+        rules.setPatterns(Map.of("age", pattern));
+        assertThrows(IllegalStateException.class, () -> RequestValidator.Rules.compile(rules));
+    }
+}
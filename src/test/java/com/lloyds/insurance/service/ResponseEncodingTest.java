@@ -0,0 +1,58 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ResponseEncodingTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private byte[] calculate(MediaType type, byte[] body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/insurance/calculate")
+                .contentType(type).accept(type).content(body))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertTrue(type.isCompatibleWith(MediaType.parseMediaType(result.getResponse().getContentType())));
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    public void testBinaryEncodingsCarryTheSameResponse() throws Exception {
+        byte[] json = calculate(MediaType.APPLICATION_JSON, objectMapper.writeValueAsBytes(TestRequests.request(45)));
+        CBORMapper cborMapper = new CBORMapper();
+        SmileMapper smileMapper = new SmileMapper();
+        byte[] cbor = calculate(CBOR, cborMapper.writeValueAsBytes(TestRequests.request(45)));
+        byte[] smile = calculate(SMILE, smileMapper.writeValueAsBytes(TestRequests.request(45)));
+
+        assertEquals(objectMapper.readTree(json), cborMapper.readTree(cbor));
+        assertEquals(objectMapper.readTree(json), smileMapper.readTree(smile));
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+
+        InsuranceCalculationResponse response = cborMapper.readValue(cbor, InsuranceCalculationResponse.class);
+        assertNotNull(response.getRecommendedCoverage());
+        assertEquals(4, response.getCalculations().size());
+    }
+}
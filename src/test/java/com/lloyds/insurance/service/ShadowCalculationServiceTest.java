@@ -0,0 +1,93 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.DetailLevel;
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+import com.lloyds.insurance.dto.InsuranceCalculationResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class ShadowCalculationServiceTest {
+
+    @Autowired
+    private ShadowCalculationService shadowCalculationService;
+
+    @Autowired
+    private InsuranceCalculationService insuranceCalculationService;
+
+    @Autowired
+    private ConfigurableCalculationService configurableCalculationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void testLegacyMethodsAreComparedWithTheirConfiguredCounterparts() {
+        InsuranceCalculationRequest request = TestRequests.request(40);
+        request.setDependents(2);
+        request.setTotalDebts(180000.0);
+        InsuranceCalculationResponse legacy = insuranceCalculationService.calculateInsurance(request, DetailLevel.NONE);
+        InsuranceCalculationResponse configurable = configurableCalculationService.calculateInsurance(request, DetailLevel.NONE);
+        Map<String, ShadowCalculationService.Difference> differences = ShadowCalculationService.diff(legacy, configurable);
+
+        assertEquals(Set.of("recommendedCoverage", "premium.monthly", "premium.annual", "method.income-replacement",
+            "method.dime", "method.needs-analysis", "method.human-life-value"), differences.keySet());
+        differences.values().forEach(difference -> {
+            assertNotNull(difference.getLegacy());
+            assertNotNull(difference.getConfigurable());
+        });
+        ShadowCalculationService.diff(configurable, configurable).values()
+            .forEach(difference -> assertEquals(0.0, difference.getRelative()));
+    }
+
+    @Test
+    public void testDivergingQuotesAreRecordedWithBothValues() {
+        InsuranceCalculationRequest request = TestRequests.request(40);
+        InsuranceCalculationResponse legacy = insuranceCalculationService.calculateInsurance(request, DetailLevel.NONE);
+        legacy.setRecommendedCoverage(legacy.getRecommendedCoverage() * 2);
+        double diverged = count("insurance.shadow.quotes", "outcome", "diverged");
+
+        shadowCalculationService.compare(request, legacy);
+
+        assertEquals(diverged + 1, count("insurance.shadow.quotes", "outcome", "diverged"));
+        List<ShadowCalculationService.Sample> samples = shadowCalculationService.getSamples();
+        ShadowCalculationService.Sample sample = samples.get(samples.size() - 1);
+        // Only a fingerprint of the customer's input is kept
+        assertEquals(shadowCalculationService.fingerprint(request), sample.getRequestFingerprint());
+        assertEquals(32, sample.getRequestFingerprint().length());
+        InsuranceCalculationRequest other = TestRequests.request(40);
+        other.setAnnualIncome(61000.0);
+        assertNotEquals(sample.getRequestFingerprint(), shadowCalculationService.fingerprint(other));
+        ShadowCalculationService.Difference coverage = sample.getDifferences().get("recommendedCoverage");
+        assertEquals(legacy.getRecommendedCoverage(), coverage.getLegacy());
+        assertTrue(coverage.getRelative() > shadowCalculationService.getTolerance());
+        assertTrue(meterRegistry.get("insurance.shadow.divergence").tag("field", "recommendedCoverage").summary().count() > 0);
+    }
+
+    @Test
+    public void testShadowQuotesAreShedWhileLiveQuotesWait() {
+        double rate = shadowCalculationService.getSampleRate();
+        shadowCalculationService.setSampleRate(1.0);
+        try {
+            double shed = count("insurance.shadow.shed", "reason", "load");
+            InsuranceCalculationRequest request = TestRequests.request(40);
+            shadowCalculationService.offer(request, insuranceCalculationService.calculateInsurance(request), true);
+            assertEquals(shed + 1, count("insurance.shadow.shed", "reason", "load"));
+        } finally {
+            shadowCalculationService.setSampleRate(rate);
+        }
+        assertThrows(IllegalArgumentException.class, () -> shadowCalculationService.setSampleRate(1.5));
+    }
+}
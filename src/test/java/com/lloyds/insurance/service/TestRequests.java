@@ -0,0 +1,24 @@
+package com.lloyds.insurance.service;
+
+import com.lloyds.insurance.dto.InsuranceCalculationRequest;
+
+/**
+ * A valid quote request for the service tests. Only the required fields are set, so the
+ * rest keep the request's defaults; tests set whatever they exercise on top.
+ */
+final class TestRequests {
+
+    private TestRequests() {
+    }
+
+    static InsuranceCalculationRequest request(int age) {
+        InsuranceCalculationRequest request = new InsuranceCalculationRequest();
+        request.setAge(age);
+        request.setGender("female");
+        request.setSmoking("non-smoker");
+        request.setAnnualIncome(60000.0);
+        request.setMonthlyExpenses(2500.0);
+        request.setCoveragePeriod("20");
+        return request;
+    }
+}
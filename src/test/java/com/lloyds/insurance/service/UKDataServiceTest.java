@@ -0,0 +1,173 @@
+package com.lloyds.insurance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lloyds.insurance.service.MarketDataSnapshot.Source;
+import com.lloyds.insurance.service.MarketDataSnapshot.Status;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Refresh behaviour against a local stub server standing in for the Bank of England, ONS and CMI.
+ */
+public class UKDataServiceTest {
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicReference<String> body = new AtomicReference<>("");
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<MarketDataUpdatedEvent> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", exchange -> {
+            hits.incrementAndGet();
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            hits.incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private UKDataService service(String field, String url) {
+        UKDataService service = new UKDataService();
+        ReflectionTestUtils.setField(service, "restTemplateBuilder", new RestTemplateBuilder());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> events.add((MarketDataUpdatedEvent) event));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "realTimeDataEnabled", true);
+        ReflectionTestUtils.setField(service, "apiTimeout", 2000);
+        ReflectionTestUtils.setField(service, "failureThreshold", 3);
+        ReflectionTestUtils.setField(service, "openRefreshes", 4);
+        ReflectionTestUtils.setField(service, field, url);
+        ReflectionTestUtils.setField(service, field.replace("Url", "RefreshSeconds"), 3600L);
+        service.registerMeters();
+        return service;
+    }
+
+    @Test
+    public void testRefreshSwapsInLiveValues() {
+        UKDataService service = service("baseRateUrl", url("/data"));
+        UKDataService.SourceRefresh source = service.configureSources().get(0);
+        assertEquals(0.05, service.getCurrentBaseRate(), 0.0);
+
+        body.set("DATE,IUDBEDR\n01 Aug 2024,5.00\n01 Nov 2024, 4.75\n");
+        service.refresh(source);
+        assertEquals(0.0475, service.getCurrentBaseRate(), 1e-12);
+        assertEquals(Status.LIVE, service.getSnapshot().getStatus(Source.BASE_RATE));
+        assertEquals(1, events.size());
+        assertEquals(Source.BASE_RATE, events.get(0).getUpdatedSource());
+
+        // Unchanged values swap in a fresh snapshot but do not notify listeners
+        service.refresh(source);
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void testInflationAndMortalityFormats() {
+        UKDataService inflation = service("inflationUrl", url("/data"));
+        body.set("{\"months\":[{\"date\":\"2024 SEP\",\"value\":\"1.7\"},{\"date\":\"2024 OCT\",\"value\":\"2.3\"}]}");
+        inflation.refresh(inflation.configureSources().get(0));
+        assertEquals(0.023, inflation.getCurrentInflationRate(), 1e-12);
+
+        UKDataService mortality = service("mortalityUrl", url("/data"));
+        body.set("age,male,female\n40,1.05,0.95\n");
+        mortality.refresh(mortality.configureSources().get(0));
+        assertEquals(1.05, mortality.getMortalityRate(40, "male"), 0.0);
+        assertEquals(0.95, mortality.getMortalityRate(40, "FEMALE"), 0.0);
+        assertEquals(MarketDataSnapshot.calculatedMortality(41, "male"), mortality.getMortalityRate(41, "male"), 0.0);
+    }
+
+    @Test
+    public void testFailuresKeepLastValueAndOpenBreaker() {
+        UKDataService service = service("baseRateUrl", url("/data"));
+        UKDataService.SourceRefresh source = service.configureSources().get(0);
+        body.set("01 Nov 2024,4.75");
+        service.refresh(source);
+
+        status.set(503);
+        for (int i = 0; i < 5; i++) {
+            service.refresh(source);
+        }
+        // Threshold is 3: the last two refreshes never reach the server
+        assertEquals(4, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN, source.getBreaker().getState());
+        // Still open when the next scheduled refresh comes round
+        assertFalse(source.getBreaker().allowRequest(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        assertEquals(0.0475, service.getCurrentBaseRate(), 1e-12);
+        assertEquals(Status.STALE, service.getSnapshot().getStatus(Source.BASE_RATE));
+    }
+
+    @Test
+    public void testOutOfRangeValueIsRejected() {
+        UKDataService service = service("abiRateUrl", url("/data"));
+        UKDataService.SourceRefresh source = service.configureSources().get(0);
+        body.set("120");
+        service.refresh(source);
+        assertEquals(0.0012, service.getABIBaseRate(), 0.0);
+        assertEquals(Status.FALLBACK, service.getSnapshot().getStatus(Source.ABI_RATE));
+    }
+
+    @Test
+    public void testSlowSourceDoesNotDelayReads() throws Exception {
+        UKDataService service = service("baseRateUrl", url("/slow"));
+        service.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (hits.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, hits.get());
+
+            // The refresh thread is blocked on the server; reads still return immediately
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(0.05, service.getCurrentBaseRate(), 0.0);
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            service.shutdown();
+        }
+    }
+}